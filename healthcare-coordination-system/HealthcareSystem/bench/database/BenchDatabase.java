@@ -0,0 +1,279 @@
+package database;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * BenchDatabase - Builds the application schema in an embedded database
+ * and fills it to clinic scale for the query benchmarks
+ * The schema is read from database_schema.sql (-Dbench.schema=..., default
+ * ../database_schema.sql) so the benchmarks run against the same tables
+ * and indexes as production. The data is generated from a fixed seed, so
+ * every run queries identical rows.
+ */
+final class BenchDatabase {
+
+    static final int DOCTORS = 20;
+    static final int PHARMACISTS = 10;
+    static final int PATIENTS = 10_000;
+    static final int MEDICATIONS = 500;
+    static final int APPOINTMENTS = 50_000;
+    static final int PRESCRIPTIONS = 100_000;
+    static final int RESTOCK_REQUESTS = 2_000;
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2023, 1, 2);
+    private static final int DAYS = 3 * 365;
+
+    private static final String[] FIRST_NAMES = {
+        "James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael", "Linda",
+        "David", "Elizabeth", "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica",
+        "Thomas", "Sarah", "Wei", "Priya", "Ahmed", "Fatima", "Carlos", "Sofia"
+    };
+    private static final String[] LAST_NAMES = {
+        "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis",
+        "Rodriguez", "Martinez", "Hernandez", "Lopez", "Wilson", "Anderson", "Thomas", "Taylor",
+        "Moore", "Jackson", "Martin", "Lee", "Chen", "Patel", "Nguyen", "Singh"
+    };
+    private static final String[] GENDERS = {"Male", "Female", "Other"};
+    private static final String[] BLOOD_GROUPS = {"A+", "A-", "B+", "B-", "AB+", "AB-", "O+", "O-"};
+    private static final String[] CATEGORIES = {
+        "Antibiotic", "Blood Pressure", "Diabetes", "Cholesterol", "Acid Reducer", "Asthma",
+        "Thyroid", "Nerve Pain", "Antihistamine", "Analgesic"
+    };
+    private static final String[] DOSAGE_FORMS = {"Tablet", "Capsule", "Inhaler", "Syrup", "Injection"};
+
+    private BenchDatabase() {
+    }
+
+    /**
+     * Create the schema and seed it through the application's own pool
+     * Expects -Dhealthcare.db.url to point at an empty embedded database.
+     * Returns the user ID of the first generated doctor.
+     */
+    static int createAndSeed() throws IOException, SQLException {
+        Path schema = Paths.get(System.getProperty("bench.schema", "../database_schema.sql"));
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            if (conn == null) {
+                throw new SQLException("No connection to " + System.getProperty("healthcare.db.url"));
+            }
+            runSchema(conn, schema);
+
+            conn.setAutoCommit(false);
+            try {
+                Random random = new Random(20_251_103L);
+                int firstStaffId = insertStaff(conn);
+                int firstPatientId = insertPatients(conn, random);
+                int firstMedicationId = insertMedications(conn, random);
+                int firstAppointmentId = insertAppointments(conn, random, firstPatientId, firstStaffId);
+                insertPrescriptions(conn, random, firstAppointmentId, firstMedicationId,
+                                    firstStaffId + DOCTORS);
+                insertRestockRequests(conn, random, firstMedicationId, firstStaffId + DOCTORS);
+                conn.commit();
+                return firstStaffId;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Run every CREATE and INSERT in the schema script (USE and the trailing SELECTs are skipped)
+     */
+    private static void runSchema(Connection conn, Path schema) throws IOException, SQLException {
+        StringBuilder script = new StringBuilder();
+        for (String line : Files.readAllLines(schema, StandardCharsets.UTF_8)) {
+            if (!line.trim().startsWith("--")) {
+                script.append(line).append('\n');
+            }
+        }
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : script.toString().split(";\\s*\n")) {
+                String trimmed = sql.trim();
+                String upper = trimmed.toUpperCase();
+                if (trimmed.isEmpty() || upper.startsWith("USE ") || upper.startsWith("SELECT ")
+                        || upper.startsWith("CREATE DATABASE")) {
+                    continue;
+                }
+                stmt.execute(trimmed);
+            }
+        }
+    }
+
+    private static int insertStaff(Connection conn) throws SQLException {
+        String sql = "INSERT INTO users (username, password, full_name, role, enterprise_type, email, phone) " +
+                     "VALUES (?, 'pass123', ?, ?, ?, ?, ?)";
+        int firstId = nextId(conn, "users", "user_id");
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < DOCTORS + PHARMACISTS; i++) {
+                boolean doctor = i < DOCTORS;
+                String name = FIRST_NAMES[i % FIRST_NAMES.length] + " " + LAST_NAMES[(i * 7) % LAST_NAMES.length];
+                stmt.setString(1, (doctor ? "bench.dr" : "bench.ph") + i);
+                stmt.setString(2, doctor ? "Dr. " + name : name);
+                stmt.setString(3, doctor ? "DOCTOR" : "PHARMACIST");
+                stmt.setString(4, doctor ? "CLINIC" : "PHARMACY");
+                stmt.setString(5, "staff" + i + "@bench.example");
+                stmt.setString(6, String.format("416-555-%04d", 2000 + i));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        return firstId;
+    }
+
+    private static int insertPatients(Connection conn, Random random) throws SQLException {
+        String sql = "INSERT INTO patients (first_name, last_name, date_of_birth, gender, phone, email, " +
+                     "address, blood_group, allergies) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        int firstId = nextId(conn, "patients", "patient_id");
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < PATIENTS; i++) {
+                String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+                String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                stmt.setString(1, first);
+                stmt.setString(2, last);
+                stmt.setDate(3, Date.valueOf(LocalDate.of(1940, 1, 1).plusDays(random.nextInt(80 * 365))));
+                stmt.setString(4, GENDERS[random.nextInt(GENDERS.length)]);
+                stmt.setString(5, String.format("416-%03d-%04d", 200 + random.nextInt(800), random.nextInt(10_000)));
+                stmt.setString(6, (first + "." + last + i + "@email.com").toLowerCase());
+                stmt.setString(7, (1 + random.nextInt(999)) + " Queen St, Toronto");
+                stmt.setString(8, BLOOD_GROUPS[random.nextInt(BLOOD_GROUPS.length)]);
+                stmt.setString(9, random.nextInt(4) == 0 ? "Penicillin" : "None");
+                addToBatch(stmt, i);
+            }
+            stmt.executeBatch();
+        }
+        return firstId;
+    }
+
+    private static int insertMedications(Connection conn, Random random) throws SQLException {
+        String sql = "INSERT INTO medications (medication_name, generic_name, category, dosage_form, " +
+                     "strength, manufacturer, unit_price) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        int firstId = nextId(conn, "medications", "medication_id");
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < MEDICATIONS; i++) {
+                stmt.setString(1, "Benchmed-" + i);
+                stmt.setString(2, "Genericum " + i);
+                stmt.setString(3, CATEGORIES[i % CATEGORIES.length]);
+                stmt.setString(4, DOSAGE_FORMS[random.nextInt(DOSAGE_FORMS.length)]);
+                stmt.setString(5, (5 * (1 + random.nextInt(100))) + "mg");
+                stmt.setString(6, "Manufacturer " + (i % 40));
+                stmt.setBigDecimal(7, BigDecimal.valueOf(500 + random.nextInt(9_500), 2));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        return firstId;
+    }
+
+    private static int insertAppointments(Connection conn, Random random,
+                                          int firstPatientId, int firstDoctorId) throws SQLException {
+        String sql = "INSERT INTO appointments (patient_id, doctor_id, appointment_date, appointment_time, " +
+                     "reason, status, diagnosis, notes) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        int firstId = nextId(conn, "appointments", "appointment_id");
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < APPOINTMENTS; i++) {
+                // Spread over three years of weekday slots, the last month still open
+                int day = (int) ((long) i * DAYS / APPOINTMENTS);
+                boolean completed = day < DAYS - 30;
+                stmt.setInt(1, firstPatientId + random.nextInt(PATIENTS));
+                stmt.setInt(2, firstDoctorId + random.nextInt(DOCTORS));
+                stmt.setDate(3, Date.valueOf(FIRST_DAY.plusDays(day)));
+                stmt.setTime(4, Time.valueOf((8 + random.nextInt(9)) + ":" + (random.nextBoolean() ? "00" : "30") + ":00"));
+                stmt.setString(5, "Follow-up visit");
+                stmt.setString(6, completed ? "COMPLETED" : "SCHEDULED");
+                stmt.setString(7, completed ? "Stable, continue current treatment." : null);
+                stmt.setString(8, completed && random.nextInt(3) == 0 ? "Review in 3 months" : null);
+                addToBatch(stmt, i);
+            }
+            stmt.executeBatch();
+        }
+        return firstId;
+    }
+
+    /**
+     * Two prescriptions per appointment; about 10% of them still PENDING
+     */
+    private static void insertPrescriptions(Connection conn, Random random, int firstAppointmentId,
+                                            int firstMedicationId, int firstPharmacistId) throws SQLException {
+        String sql = "INSERT INTO prescriptions (appointment_id, patient_id, doctor_id, medication_id, " +
+                     "dosage_instructions, quantity, refills, status, issued_date, filled_date, " +
+                     "pharmacist_id, pharmacist_notes) " +
+                     "SELECT appointment_id, patient_id, doctor_id, ?, ?, ?, ?, ?, ?, ?, ?, ? " +
+                     "FROM appointments WHERE appointment_id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < PRESCRIPTIONS; i++) {
+                int appointment = i / 2;
+                LocalDateTime issued = FIRST_DAY.plusDays((long) appointment * DAYS / APPOINTMENTS)
+                                                .atTime(8 + random.nextInt(10), random.nextInt(60), random.nextInt(60));
+                boolean pending = random.nextInt(10) == 0;
+                stmt.setInt(1, firstMedicationId + random.nextInt(MEDICATIONS));
+                stmt.setString(2, "Take 1 tablet " + (1 + random.nextInt(3)) + " times daily");
+                stmt.setInt(3, 10 * (1 + random.nextInt(9)));
+                stmt.setInt(4, random.nextInt(4));
+                stmt.setString(5, pending ? "PENDING" : "FILLED");
+                stmt.setTimestamp(6, Timestamp.valueOf(issued));
+                stmt.setTimestamp(7, pending ? null : Timestamp.valueOf(issued.plusHours(2)));
+                if (pending) {
+                    stmt.setNull(8, Types.INTEGER);
+                } else {
+                    stmt.setInt(8, firstPharmacistId + random.nextInt(PHARMACISTS));
+                }
+                stmt.setString(9, pending ? null : "Dispensed");
+                stmt.setInt(10, firstAppointmentId + appointment);
+                addToBatch(stmt, i);
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private static void insertRestockRequests(Connection conn, Random random, int firstMedicationId,
+                                              int firstPharmacistId) throws SQLException {
+        String sql = "INSERT INTO restock_requests (medication_id, requested_quantity, current_stock, " +
+                     "priority, reason, status, requested_by) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < RESTOCK_REQUESTS; i++) {
+                stmt.setInt(1, firstMedicationId + random.nextInt(MEDICATIONS));
+                stmt.setInt(2, 50 * (1 + random.nextInt(10)));
+                stmt.setInt(3, random.nextInt(20));
+                stmt.setString(4, random.nextInt(5) == 0 ? "HIGH" : "MEDIUM");
+                stmt.setString(5, "Below reorder level");
+                stmt.setString(6, random.nextInt(10) == 0 ? "PENDING" : "APPROVED");
+                stmt.setInt(7, firstPharmacistId + random.nextInt(PHARMACISTS));
+                addToBatch(stmt, i);
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private static void addToBatch(PreparedStatement stmt, int row) throws SQLException {
+        stmt.addBatch();
+        if ((row + 1) % BATCH_SIZE == 0) {
+            stmt.executeBatch();
+        }
+    }
+
+    private static int nextId(Connection conn, String table, String idColumn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(" + idColumn + "), 0) + 1 FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
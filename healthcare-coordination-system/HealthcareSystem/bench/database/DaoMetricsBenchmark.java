@@ -0,0 +1,100 @@
+package database;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import model.Appointment;
+import model.Prescription;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * DaoMetricsBenchmark - What DaoMetrics adds to a whole DAO call
+ * The same DAO calls run in a fork with metrics on (this class) and one
+ * with -Dhealthcare.metrics.enabled=false (MetricsOff); the difference
+ * between the two is the measuring. getPrescriptionById is the per-call
+ * cost (stack walk, lease bookkeeping), getAllPrescriptions the per-row
+ * cost of counting the rows the mapper reads. Run with: ant bench-metrics
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {
+    "-Dhealthcare.db.url=jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE",
+    "-Dhealthcare.db.user=sa",
+    "-Dhealthcare.db.password=",
+    "-Dhealthcare.db.migrate=false",
+    "-Dhealthcare.metrics.enabled=true",
+    "-Dhealthcare.metrics.logSeconds=0",
+    "-Xmx1g"
+})
+public class DaoMetricsBenchmark {
+
+    private final PrescriptionDAO prescriptionDAO = new PrescriptionDAO();
+    private final AppointmentDAO appointmentDAO = new AppointmentDAO();
+
+    private int doctorId;
+    private int prescriptionId;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        doctorId = BenchDatabase.createAndSeed();
+        prescriptionId = prescriptionDAO.getPrescriptionsPage(null, 1).getItems().get(0).getPrescriptionId();
+
+        // The DAOs log every call; keep that out of the measurement and the report
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+        DatabaseConnection.closeConnection();
+    }
+
+    @Benchmark
+    public Prescription getPrescriptionById() {
+        return prescriptionDAO.getPrescriptionById(prescriptionId);
+    }
+
+    @Benchmark
+    public List<Appointment> getAppointmentsByDoctor() {
+        return appointmentDAO.getAppointmentsByDoctor(doctorId);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Prescription> getAllPrescriptions() {
+        return prescriptionDAO.getAllPrescriptions();
+    }
+
+    /**
+     * The same calls with measuring off, as the baseline
+     */
+    @Fork(value = 1, jvmArgsAppend = {
+        "-Dhealthcare.db.url=jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE",
+        "-Dhealthcare.db.user=sa",
+        "-Dhealthcare.db.password=",
+        "-Dhealthcare.db.migrate=false",
+        "-Dhealthcare.metrics.enabled=false",
+        "-Xmx1g"
+    })
+    public static class MetricsOff extends DaoMetricsBenchmark {
+    }
+}
@@ -0,0 +1,113 @@
+package database;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import model.Appointment;
+import model.Patient;
+import model.Prescription;
+import model.PrescriptionStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * DaoQueryBenchmark - Whole DAO calls (pool, SQL, driver, mapping) against
+ * an embedded database seeded by BenchDatabase
+ * H2 in MySQL mode stands in for the server, so absolute times are lower
+ * than production (no network) but a slower query plan, an extra round
+ * trip or a costlier mapper still shows. Patient search is left out: its
+ * index streams rows with MySQL's fetch size Integer.MIN_VALUE, which H2
+ * refuses. findPendingByDoctor / filterPendingByDoctorInMemory compare a
+ * criteria query with loading everything and filtering in Java, as the
+ * dashboards used to. Run with: ant bench-queries
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {
+    "-Dhealthcare.db.url=jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE",
+    "-Dhealthcare.db.user=sa",
+    "-Dhealthcare.db.password=",
+    "-Dhealthcare.db.migrate=false",
+    "-Dhealthcare.metrics.logSeconds=0",
+    "-Xmx1g"
+})
+public class DaoQueryBenchmark {
+
+    private final PrescriptionDAO prescriptionDAO = new PrescriptionDAO();
+    private final AppointmentDAO appointmentDAO = new AppointmentDAO();
+    private final PatientDAO patientDAO = new PatientDAO();
+
+    private int doctorId;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        doctorId = BenchDatabase.createAndSeed();
+
+        // The DAOs log every call; keep that out of the measurement and the report
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+        DatabaseConnection.closeConnection();
+    }
+
+    @Benchmark
+    public List<Prescription> getAllPrescriptions() {
+        return prescriptionDAO.getAllPrescriptions();
+    }
+
+    @Benchmark
+    public List<Prescription> getPendingPrescriptions() {
+        return prescriptionDAO.getPendingPrescriptions();
+    }
+
+    @Benchmark
+    public Page<Prescription> getPrescriptionsFirstPage() {
+        return prescriptionDAO.getPrescriptionsPage(null, 100);
+    }
+
+    @Benchmark
+    public List<Prescription> findPendingByDoctor() {
+        return prescriptionDAO.findPrescriptions(new PrescriptionCriteria()
+            .doctor(doctorId)
+            .status(PrescriptionStatus.PENDING));
+    }
+
+    @Benchmark
+    public List<Prescription> filterPendingByDoctorInMemory() {
+        return prescriptionDAO.getAllPrescriptions().stream()
+            .filter(rx -> rx.getDoctorId() == doctorId && rx.getStatus() == PrescriptionStatus.PENDING)
+            .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Appointment> getAppointmentsByDoctor() {
+        return appointmentDAO.getAppointmentsByDoctor(doctorId);
+    }
+
+    @Benchmark
+    public List<Patient> getAllPatients() {
+        return patientDAO.getAllPatients();
+    }
+}
@@ -0,0 +1,132 @@
+package database;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * FakeResultSet - An in-memory ResultSet holding a single row, for benchmarks
+ * next() is always true, so a mapper can be called on the same row forever
+ * without a driver or a database in the way. Lookups by label go through
+ * a case-insensitive map like the MySQL driver's, an unknown label throws
+ * SQLException, and NULL columns read as 0 / null with wasNull() set.
+ */
+final class FakeResultSet {
+
+    private final Map<String, Integer> columns = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final String[] labels;
+    private final Object[] row;
+    private boolean lastWasNull;
+
+    private FakeResultSet(String[] labels, Object[] row) {
+        for (int i = labels.length - 1; i >= 0; i--) {
+            columns.put(labels[i], i + 1);
+        }
+        this.labels = labels;
+        this.row = row;
+    }
+
+    /**
+     * @param labels column labels, in select order
+     * @param row    one value per label (null for SQL NULL)
+     */
+    static ResultSet of(String[] labels, Object[] row) {
+        if (labels.length != row.length) {
+            throw new IllegalArgumentException(labels.length + " labels for " + row.length + " values");
+        }
+        FakeResultSet fake = new FakeResultSet(labels, row);
+        return (ResultSet) Proxy.newProxyInstance(
+            ResultSet.class.getClassLoader(),
+            new Class<?>[] { ResultSet.class },
+            (proxy, method, args) -> fake.invoke(method.getName(), args));
+    }
+
+    private Object invoke(String name, Object[] args) throws SQLException {
+        switch (name) {
+            case "next":
+                return true;
+            case "wasNull":
+                return lastWasNull;
+            case "findColumn":
+                return findColumn((String) args[0]);
+            case "close":
+                return null;
+            case "isClosed":
+                return false;
+            case "getMetaData":
+                return metaData();
+            case "getObject":
+                return value(args[0]);
+            case "getString": {
+                Object value = value(args[0]);
+                return value == null ? null : value.toString();
+            }
+            case "getInt": {
+                Object value = value(args[0]);
+                return value == null ? 0 : ((Number) value).intValue();
+            }
+            case "getLong": {
+                Object value = value(args[0]);
+                return value == null ? 0L : ((Number) value).longValue();
+            }
+            case "getBigDecimal":
+                return (BigDecimal) value(args[0]);
+            case "getDate":
+                return (Date) value(args[0]);
+            case "getTime":
+                return (Time) value(args[0]);
+            case "getTimestamp":
+                return (Timestamp) value(args[0]);
+            case "hashCode":
+                return System.identityHashCode(this);
+            case "equals":
+                return false;
+            case "toString":
+                return "FakeResultSet" + columns.keySet();
+            default:
+                throw new UnsupportedOperationException("FakeResultSet." + name);
+        }
+    }
+
+    private ResultSetMetaData metaData() {
+        return (ResultSetMetaData) Proxy.newProxyInstance(
+            ResultSetMetaData.class.getClassLoader(),
+            new Class<?>[] { ResultSetMetaData.class },
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getColumnCount":
+                        return labels.length;
+                    case "getColumnLabel":
+                    case "getColumnName":
+                        return labels[(Integer) args[0] - 1];
+                    default:
+                        throw new UnsupportedOperationException("FakeResultSet.getMetaData()." + method.getName());
+                }
+            });
+    }
+
+    private Object value(Object column) throws SQLException {
+        int index = column instanceof Integer ? (Integer) column : findColumn((String) column);
+        if (index < 1 || index > row.length) {
+            throw new SQLException("Column index out of range: " + index);
+        }
+        Object value = row[index - 1];
+        lastWasNull = value == null;
+        return value;
+    }
+
+    private int findColumn(String label) throws SQLException {
+        Integer index = columns.get(label);
+        if (index == null) {
+            throw new SQLException("Column '" + label + "' not found.");
+        }
+        return index;
+    }
+}
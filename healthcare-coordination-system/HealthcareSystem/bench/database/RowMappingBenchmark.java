@@ -0,0 +1,223 @@
+package database;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+import model.Appointment;
+import model.Medication;
+import model.Patient;
+import model.Prescription;
+import model.PrescriptionStatus;
+import model.RestockRequest;
+import model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * RowMappingBenchmark - Cost of turning one result set row into a model object
+ * Each generated row mapper runs against a FakeResultSet holding a row shaped
+ * like the DAO's own SELECT (joined display names included), so only the
+ * mapping itself is measured. The readers are bound once, as a DAO does per
+ * result set; bindAndReadPrescription is the single-row-query case.
+ *
+ * The *ByName benchmarks keep the old column-name mapper as a baseline,
+ * including its try/catch on pharmacist_name, which throws for every row
+ * of getPendingPrescriptions. Add -prof gc to see bytes allocated per row:
+ *   ant bench-mapping -Dbench.args="-prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMappingBenchmark {
+
+    private static final Timestamp NOW = Timestamp.valueOf("2025-11-03 09:30:00");
+
+    private ResultSet prescriptionRow;
+    private ResultSet pendingPrescriptionRow;
+    private ResultSet appointmentRow;
+    private ResultSet patientRow;
+    private ResultSet medicationRow;
+    private ResultSet restockRequestRow;
+    private ResultSet userRow;
+
+    private RowMapper.Reader<Prescription> prescriptionReader;
+    private RowMapper.Reader<Prescription> pendingPrescriptionReader;
+    private RowMapper.Reader<Appointment> appointmentReader;
+    private RowMapper.Reader<Patient> patientReader;
+    private RowMapper.Reader<Medication> medicationReader;
+    private RowMapper.Reader<RestockRequest> restockRequestReader;
+    private RowMapper.Reader<User> userReader;
+
+    @Setup
+    public void setUp() throws SQLException {
+        // p.*, patient/doctor/medication/pharmacist names - as getAllPrescriptions selects
+        prescriptionRow = FakeResultSet.of(
+            new String[] {"prescription_id", "appointment_id", "patient_id", "doctor_id",
+                          "medication_id", "dosage_instructions", "quantity", "refills", "status",
+                          "issued_date", "filled_date", "pharmacist_id", "pharmacist_notes",
+                          "claimed_by", "claimed_until", "last_updated",
+                          "patient_name", "doctor_name", "medication_name", "pharmacist_name"},
+            new Object[] {48213, 20117, 3310, 1, 42, "Take 1 tablet twice daily with food", 30, 2,
+                          "FILLED", NOW, NOW, 4, "Counselled on side effects",
+                          null, null, NOW,
+                          "John Doe", "Dr. Sarah Smith", "Amoxicillin", "David Wilson"});
+
+        // getPendingPrescriptions: no pharmacist yet, and no pharmacist_name column
+        pendingPrescriptionRow = FakeResultSet.of(
+            new String[] {"prescription_id", "appointment_id", "patient_id", "doctor_id",
+                          "medication_id", "dosage_instructions", "quantity", "refills", "status",
+                          "issued_date", "filled_date", "pharmacist_id", "pharmacist_notes",
+                          "claimed_by", "claimed_until", "last_updated",
+                          "patient_name", "doctor_name", "medication_name"},
+            new Object[] {48214, 20117, 3310, 1, 42, "Take 1 tablet twice daily with food", 30, 2,
+                          "PENDING", NOW, null, null, null,
+                          null, null, NOW,
+                          "John Doe", "Dr. Sarah Smith", "Amoxicillin"});
+
+        appointmentRow = FakeResultSet.of(
+            new String[] {"appointment_id", "patient_id", "doctor_id", "appointment_date",
+                          "appointment_time", "reason", "status", "diagnosis", "notes",
+                          "created_date", "last_updated", "patient_name", "doctor_name"},
+            new Object[] {20117, 3310, 1, Date.valueOf("2025-11-03"), Time.valueOf("09:30:00"),
+                          "Persistent cough", "COMPLETED", "Acute bronchitis", "Follow up in 2 weeks",
+                          NOW, NOW, "John Doe", "Dr. Sarah Smith"});
+
+        patientRow = FakeResultSet.of(
+            new String[] {"patient_id", "first_name", "last_name", "date_of_birth", "gender",
+                          "phone", "email", "address", "blood_group", "allergies", "created_date"},
+            new Object[] {3310, "John", "Doe", Date.valueOf("1985-03-15"), "Male",
+                          "416-555-1001", "john.doe@email.com", "123 Main St, Toronto", "O+",
+                          "Penicillin", NOW});
+
+        medicationRow = FakeResultSet.of(
+            new String[] {"medication_id", "medication_name", "generic_name", "category",
+                          "dosage_form", "strength", "manufacturer", "unit_price", "created_date"},
+            new Object[] {42, "Amoxicillin", "Amoxicillin", "Antibiotic", "Capsule", "500mg",
+                          "PharmaCorp", new BigDecimal("12.50"), NOW});
+
+        // approver_name present, approved_by NULL - a pending request from getAllRestockRequests
+        restockRequestRow = FakeResultSet.of(
+            new String[] {"request_id", "medication_id", "requested_quantity", "current_stock",
+                          "priority", "reason", "status", "requested_by", "requested_date",
+                          "approved_by", "approved_date", "manager_notes", "last_updated",
+                          "medication_name", "requester_name", "approver_name"},
+            new Object[] {117, 42, 200, 8, "HIGH", "Below reorder level", "PENDING", 4, NOW,
+                          null, null, null, NOW,
+                          "Amoxicillin", "David Wilson", null});
+
+        userRow = FakeResultSet.of(
+            new String[] {"user_id", "username", "password", "full_name", "role",
+                          "enterprise_type", "email", "phone", "created_date"},
+            new Object[] {1, "dr.smith", "pass123", "Dr. Sarah Smith", "DOCTOR", "CLINIC",
+                          "sarah.smith@clinic.com", "416-555-0101", NOW});
+
+        prescriptionReader = PrescriptionMapper.INSTANCE.bind(prescriptionRow);
+        pendingPrescriptionReader = PrescriptionMapper.INSTANCE.bind(pendingPrescriptionRow);
+        appointmentReader = AppointmentMapper.INSTANCE.bind(appointmentRow);
+        patientReader = PatientMapper.INSTANCE.bind(patientRow);
+        medicationReader = MedicationMapper.INSTANCE.bind(medicationRow);
+        restockRequestReader = RestockRequestMapper.INSTANCE.bind(restockRequestRow);
+        userReader = UserMapper.INSTANCE.bind(userRow);
+    }
+
+    @Benchmark
+    public Prescription readPrescription() throws SQLException {
+        return prescriptionReader.read(prescriptionRow);
+    }
+
+    @Benchmark
+    public Prescription readPendingPrescription() throws SQLException {
+        return pendingPrescriptionReader.read(pendingPrescriptionRow);
+    }
+
+    @Benchmark
+    public Prescription bindAndReadPrescription() throws SQLException {
+        return PrescriptionMapper.INSTANCE.bind(prescriptionRow).read(prescriptionRow);
+    }
+
+    @Benchmark
+    public Prescription readPrescriptionByName() throws SQLException {
+        return prescriptionByName(prescriptionRow);
+    }
+
+    @Benchmark
+    public Prescription readPendingPrescriptionByName() throws SQLException {
+        return prescriptionByName(pendingPrescriptionRow);
+    }
+
+    @Benchmark
+    public Appointment readAppointment() throws SQLException {
+        return appointmentReader.read(appointmentRow);
+    }
+
+    @Benchmark
+    public Patient readPatient() throws SQLException {
+        return patientReader.read(patientRow);
+    }
+
+    @Benchmark
+    public Medication readMedication() throws SQLException {
+        return medicationReader.read(medicationRow);
+    }
+
+    @Benchmark
+    public RestockRequest readRestockRequest() throws SQLException {
+        return restockRequestReader.read(restockRequestRow);
+    }
+
+    @Benchmark
+    public User readUser() throws SQLException {
+        return userReader.read(userRow);
+    }
+
+    /**
+     * PrescriptionDAO's mapper before RowMapper - every column looked up by name
+     */
+    private static Prescription prescriptionByName(ResultSet rs) throws SQLException {
+        Prescription prescription = new Prescription();
+        prescription.setPrescriptionId(rs.getInt("prescription_id"));
+        prescription.setAppointmentId(rs.getInt("appointment_id"));
+        prescription.setPatientId(rs.getInt("patient_id"));
+        prescription.setDoctorId(rs.getInt("doctor_id"));
+        prescription.setMedicationId(rs.getInt("medication_id"));
+        prescription.setDosageInstructions(rs.getString("dosage_instructions"));
+        prescription.setQuantity(rs.getInt("quantity"));
+        prescription.setRefills(rs.getInt("refills"));
+        prescription.setStatus(PrescriptionStatus.fromCode(rs.getString("status")));
+        prescription.setIssuedDate(rs.getTimestamp("issued_date"));
+        prescription.setFilledDate(rs.getTimestamp("filled_date"));
+
+        int pharmacistId = rs.getInt("pharmacist_id");
+        if (!rs.wasNull()) {
+            prescription.setPharmacistId(pharmacistId);
+        }
+
+        prescription.setPharmacistNotes(rs.getString("pharmacist_notes"));
+        prescription.setPatientName(rs.getString("patient_name"));
+        prescription.setDoctorName(rs.getString("doctor_name"));
+        prescription.setMedicationName(rs.getString("medication_name"));
+
+        try {
+            prescription.setPharmacistName(rs.getString("pharmacist_name"));
+        } catch (SQLException e) {
+            // pharmacist_name might not exist in all queries
+        }
+
+        return prescription;
+    }
+}
@@ -0,0 +1,489 @@
+package database.codegen;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * RowMapperProcessor - Generates database.<Class>Mapper for every @Mapped model class
+ * The generated mapper resolves each @Column field's position once per
+ * result set and reads the row with straight-line getInt/getString/...
+ * calls and setters - no reflection and no lookups by name. Classes with
+ * a table also get INSERT_SQL and bindInsert() for their insertable fields,
+ * in declaration order.
+ *
+ * Besides the plain JDBC types, a field may be an enum with a static
+ * fromCode(String) and a code() method (stored as that code in a string
+ * column), or a long holding epoch millis of a TIMESTAMP column
+ * (@Column(epochMillis = true), 0 for NULL).
+ *
+ * Fails the build (rather than generating a mapper that drops data) when a
+ * field has neither @Column nor the transient modifier, has a type JDBC
+ * cannot read directly, or lacks its setter / getter / enum codec.
+ *
+ * Built by the -pre-compile target in build.xml and found by javac through
+ * META-INF/services on javac.processorpath.
+ */
+@SupportedAnnotationTypes(RowMapperProcessor.MAPPED)
+public class RowMapperProcessor extends AbstractProcessor {
+
+    static final String MAPPED = "model.Mapped";
+    private static final String COLUMN = "model.Column";
+    private static final String TARGET_PACKAGE = "database";
+
+    /**
+     * Field types the mapper can read, with their ResultSet/PreparedStatement accessor
+     * Boxed types read NULL as null (via wasNull) and bind null with setNull.
+     */
+    private enum JdbcType {
+        INT("int", "Int", null, null),
+        LONG("long", "Long", null, null),
+        DOUBLE("double", "Double", null, null),
+        BOOLEAN("boolean", "Boolean", null, null),
+        INTEGER_OBJECT("java.lang.Integer", "Int", "int", "INTEGER"),
+        LONG_OBJECT("java.lang.Long", "Long", "long", "BIGINT"),
+        DOUBLE_OBJECT("java.lang.Double", "Double", "double", "DOUBLE"),
+        BOOLEAN_OBJECT("java.lang.Boolean", "Boolean", "boolean", "BOOLEAN"),
+        STRING("java.lang.String", "String", null, null),
+        BIG_DECIMAL("java.math.BigDecimal", "BigDecimal", null, null),
+        DATE("java.sql.Date", "Date", null, null),
+        TIME("java.sql.Time", "Time", null, null),
+        TIMESTAMP("java.sql.Timestamp", "Timestamp", null, null),
+        ENUM(null, "String", null, "VARCHAR"),           // code() / fromCode()
+        EPOCH_MILLIS(null, "Timestamp", null, "TIMESTAMP"); // long, 0 for NULL
+
+        final String javaType;
+        final String accessor;
+        final String primitive;   // boxed types only: what the accessor returns
+        final String nullSqlType; // boxed types only: java.sql.Types constant for setNull
+
+        JdbcType(String javaType, String accessor, String primitive, String nullSqlType) {
+            this.javaType = javaType;
+            this.accessor = accessor;
+            this.primitive = primitive;
+            this.nullSqlType = nullSqlType;
+        }
+
+        static JdbcType of(TypeMirror type) {
+            String name = type.toString();
+            for (JdbcType jdbcType : values()) {
+                if (name.equals(jdbcType.javaType)) {
+                    return jdbcType;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * One @Column field and the accessors the generated code calls
+     */
+    private static final class MappedField {
+        final String name;
+        final String column;
+        final boolean optional;
+        final boolean insertable;
+        final JdbcType type;
+        final String javaType;
+        String setter;
+        String getter;
+
+        MappedField(String name, String column, boolean optional, boolean insertable,
+                    JdbcType type, String javaType) {
+            this.name = name;
+            this.column = column;
+            this.optional = optional;
+            this.insertable = insertable;
+            this.type = type;
+            this.javaType = javaType;
+        }
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.CLASS) {
+                    error(element, "@Mapped only applies to classes");
+                    continue;
+                }
+                TypeElement type = (TypeElement) element;
+                List<MappedField> fields = collectFields(type);
+                if (fields != null) {
+                    write(type, tableOf(type), fields);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The @Column fields of type and its superclasses, superclass fields first
+     * Returns null (after reporting errors) if any field cannot be mapped.
+     */
+    private List<MappedField> collectFields(TypeElement type) {
+        boolean valid = true;
+        if (!type.getModifiers().contains(Modifier.PUBLIC) || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            error(type, "@Mapped class " + type.getSimpleName() + " must be public and not abstract");
+            valid = false;
+        }
+        if (!hasPublicNoArgConstructor(type)) {
+            error(type, "@Mapped class " + type.getSimpleName() + " needs a public no-argument constructor");
+            valid = false;
+        }
+
+        Deque<TypeElement> hierarchy = new ArrayDeque<>();
+        for (TypeElement current = type; current != null; current = superclassOf(current)) {
+            hierarchy.push(current);
+        }
+
+        List<MappedField> fields = new ArrayList<>();
+        Set<String> columns = new HashSet<>();
+        for (TypeElement current : hierarchy) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                Set<Modifier> modifiers = field.getModifiers();
+                if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) {
+                    continue;
+                }
+                AnnotationMirror column = annotation(field, COLUMN);
+                String where = current.getSimpleName() + "." + field.getSimpleName();
+                if (column == null) {
+                    error(field, where + " has no @Column - map it, or mark it transient if it is not stored");
+                    valid = false;
+                    continue;
+                }
+                Map<String, Object> values = values(column);
+                JdbcType jdbcType;
+                if ((Boolean) values.get("epochMillis")) {
+                    jdbcType = field.asType().getKind() == TypeKind.LONG ? JdbcType.EPOCH_MILLIS : null;
+                    if (jdbcType == null) {
+                        error(field, where + " is epochMillis, so it must be a long");
+                        valid = false;
+                        continue;
+                    }
+                } else if (isEnum(field.asType())) {
+                    jdbcType = JdbcType.ENUM;
+                    if (!hasCodec((TypeElement) ((DeclaredType) field.asType()).asElement())) {
+                        error(field, where + " is an enum without a public static fromCode(String) and public String code()");
+                        valid = false;
+                        continue;
+                    }
+                } else {
+                    jdbcType = JdbcType.of(field.asType());
+                    if (jdbcType == null) {
+                        error(field, where + " has type " + field.asType() + ", which has no ResultSet getter");
+                        valid = false;
+                        continue;
+                    }
+                }
+
+                MappedField mapped = new MappedField(field.getSimpleName().toString(),
+                                                     (String) values.get("value"),
+                                                     (Boolean) values.get("optional"),
+                                                     (Boolean) values.get("insertable"),
+                                                     jdbcType,
+                                                     field.asType().toString());
+                if (!columns.add(mapped.column.toLowerCase())) {
+                    error(field, where + " maps column " + mapped.column + ", which is already mapped");
+                    valid = false;
+                }
+                mapped.setter = findAccessor(type, field, "set" + capitalize(mapped.name), true);
+                if (mapped.setter == null) {
+                    error(field, where + " needs a public set" + capitalize(mapped.name) + "(" + field.asType() + ")");
+                    valid = false;
+                }
+                if (mapped.insertable) {
+                    mapped.getter = findAccessor(type, field, "get" + capitalize(mapped.name), false);
+                    if (mapped.getter == null) {
+                        mapped.getter = findAccessor(type, field, "is" + capitalize(mapped.name), false);
+                    }
+                    if (mapped.getter == null) {
+                        error(field, where + " is insertable but has no public get" + capitalize(mapped.name) + "()");
+                        valid = false;
+                    }
+                }
+                fields.add(mapped);
+            }
+        }
+        return valid ? fields : null;
+    }
+
+    private void write(TypeElement type, String table, List<MappedField> fields) {
+        String model = type.getQualifiedName().toString();
+        String mapperName = type.getSimpleName() + "Mapper";
+        List<MappedField> insertable = new ArrayList<>();
+        for (MappedField field : fields) {
+            if (field.insertable) {
+                insertable.add(field);
+            }
+        }
+        boolean insert = !table.isEmpty() && !insertable.isEmpty();
+
+        try (PrintWriter out = new PrintWriter(
+                processingEnv.getFiler().createSourceFile(TARGET_PACKAGE + "." + mapperName, type).openWriter())) {
+            out.println("package " + TARGET_PACKAGE + ";");
+            out.println();
+            out.println("import java.sql.PreparedStatement;");
+            out.println("import java.sql.ResultSet;");
+            out.println("import java.sql.SQLException;");
+            out.println("import javax.annotation.processing.Generated;");
+            out.println();
+            out.println("/**");
+            out.println(" * " + mapperName + " - Row mapper" + (insert ? " and INSERT binder" : "") +
+                        " for " + type.getSimpleName());
+            out.println(" * Generated by RowMapperProcessor from the @Column fields of " + model + ".");
+            out.println(" * Do not edit - change the model class and rebuild.");
+            out.println(" */");
+            out.println("@Generated(\"" + RowMapperProcessor.class.getName() + "\")");
+            out.println("public final class " + mapperName + " implements RowMapper<" + model + "> {");
+            out.println();
+            out.println("    public static final " + mapperName + " INSTANCE = new " + mapperName + "();");
+            out.println();
+            if (insert) {
+                StringBuilder names = new StringBuilder();
+                StringBuilder marks = new StringBuilder();
+                for (MappedField field : insertable) {
+                    names.append(names.length() == 0 ? "" : ", ").append(field.column);
+                    marks.append(marks.length() == 0 ? "?" : ", ?");
+                }
+                out.println("    public static final String INSERT_SQL =");
+                out.println("            \"INSERT INTO " + table + " (" + names + ") \" +");
+                out.println("            \"VALUES (" + marks + ")\";");
+                out.println();
+            }
+            out.println("    private " + mapperName + "() {");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public RowMapper.Reader<" + model + "> bind(RowMapper.Columns columns) throws SQLException {");
+            out.println("        return new BoundReader(columns);");
+            out.println("    }");
+            out.println();
+            if (insert) {
+                writeBinder(out, model, insertable);
+            }
+            writeReader(out, model, fields);
+            out.println("}");
+        } catch (IOException e) {
+            error(type, "Could not write " + mapperName + ": " + e.getMessage());
+        }
+    }
+
+    private void writeBinder(PrintWriter out, String model, List<MappedField> insertable) {
+        out.println("    /**");
+        out.println("     * Set the INSERT_SQL parameters from source");
+        out.println("     */");
+        out.println("    public static void bindInsert(PreparedStatement stmt, " + model + " source) throws SQLException {");
+        int index = 1;
+        for (MappedField field : insertable) {
+            String value = "source." + field.getter + "()";
+            if (field.type == JdbcType.ENUM) {
+                out.println("        if (" + value + " == null) {");
+                out.println("            stmt.setNull(" + index + ", java.sql.Types.VARCHAR);");
+                out.println("        } else {");
+                out.println("            stmt.setString(" + index + ", " + value + ".code());");
+                out.println("        }");
+            } else if (field.type == JdbcType.EPOCH_MILLIS) {
+                out.println("        if (" + value + " == 0L) {");
+                out.println("            stmt.setNull(" + index + ", java.sql.Types.TIMESTAMP);");
+                out.println("        } else {");
+                out.println("            stmt.setTimestamp(" + index + ", new java.sql.Timestamp(" + value + "));");
+                out.println("        }");
+            } else if (field.type.nullSqlType != null) {
+                out.println("        if (" + value + " == null) {");
+                out.println("            stmt.setNull(" + index + ", java.sql.Types." + field.type.nullSqlType + ");");
+                out.println("        } else {");
+                out.println("            stmt.set" + field.type.accessor + "(" + index + ", " + value + ");");
+                out.println("        }");
+            } else {
+                out.println("        stmt.set" + field.type.accessor + "(" + index + ", " + value + ");");
+            }
+            index++;
+        }
+        out.println("    }");
+        out.println();
+    }
+
+    private void writeReader(PrintWriter out, String model, List<MappedField> fields) {
+        out.println("    private static final class BoundReader implements RowMapper.Reader<" + model + "> {");
+        for (MappedField field : fields) {
+            out.println("        private final int " + field.name + "Column;");
+        }
+        out.println();
+        out.println("        BoundReader(RowMapper.Columns columns) throws SQLException {");
+        for (MappedField field : fields) {
+            out.println("            " + field.name + "Column = columns." + (field.optional ? "find" : "require") +
+                        "(\"" + field.column + "\");");
+        }
+        out.println("        }");
+        out.println();
+        out.println("        @Override");
+        out.println("        public " + model + " read(ResultSet rs) throws SQLException {");
+        out.println("            " + model + " target = new " + model + "();");
+        for (MappedField field : fields) {
+            String indent = "            ";
+            if (field.optional) {
+                out.println(indent + "if (" + field.name + "Column != 0) {");
+                indent += "    ";
+            }
+            String read = "rs.get" + field.type.accessor + "(" + field.name + "Column)";
+            String value = field.name + "Value";
+            if (field.type == JdbcType.ENUM) {
+                // An unknown code fails the query like any other bad column
+                out.println(indent + "String " + value + " = " + read + ";");
+                out.println(indent + "try {");
+                out.println(indent + "    target." + field.setter + "(" + field.javaType + ".fromCode(" + value + "));");
+                out.println(indent + "} catch (IllegalArgumentException e) {");
+                out.println(indent + "    throw new SQLException(\"Column '" + field.column + "': \" + e.getMessage(), e);");
+                out.println(indent + "}");
+            } else if (field.type == JdbcType.EPOCH_MILLIS) {
+                out.println(indent + "java.sql.Timestamp " + value + " = " + read + ";");
+                out.println(indent + "target." + field.setter + "(" + value + " == null ? 0L : " + value + ".getTime());");
+            } else if (field.type.nullSqlType != null) {
+                out.println(indent + field.type.primitive + " " + value + " = " + read + ";");
+                out.println(indent + "target." + field.setter + "(rs.wasNull() ? null : " + value + ");");
+            } else {
+                out.println(indent + "target." + field.setter + "(" + read + ");");
+            }
+            if (field.optional) {
+                out.println("            }");
+            }
+        }
+        out.println("            return target;");
+        out.println("        }");
+        out.println("    }");
+    }
+
+    /**
+     * Name of a public method of type (or a superclass) taking / returning the field's type
+     */
+    private String findAccessor(TypeElement type, VariableElement field, String name, boolean setter) {
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            if (!method.getSimpleName().contentEquals(name) || !method.getModifiers().contains(Modifier.PUBLIC)) {
+                continue;
+            }
+            TypeMirror fieldType = field.asType();
+            if (setter && method.getParameters().size() == 1
+                    && processingEnv.getTypeUtils().isSameType(method.getParameters().get(0).asType(), fieldType)) {
+                return name;
+            }
+            if (!setter && method.getParameters().isEmpty()
+                    && processingEnv.getTypeUtils().isSameType(method.getReturnType(), fieldType)) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isEnum(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED
+            && ((DeclaredType) type).asElement().getKind() == ElementKind.ENUM;
+    }
+
+    /**
+     * Whether an enum has the static fromCode(String) and code() the mapper converts with
+     */
+    private boolean hasCodec(TypeElement enumType) {
+        boolean fromCode = false;
+        boolean code = false;
+        for (ExecutableElement method : ElementFilter.methodsIn(enumType.getEnclosedElements())) {
+            Set<Modifier> modifiers = method.getModifiers();
+            if (!modifiers.contains(Modifier.PUBLIC)) {
+                continue;
+            }
+            if (method.getSimpleName().contentEquals("fromCode") && modifiers.contains(Modifier.STATIC)
+                    && method.getParameters().size() == 1
+                    && method.getParameters().get(0).asType().toString().equals("java.lang.String")
+                    && processingEnv.getTypeUtils().isSameType(method.getReturnType(), enumType.asType())) {
+                fromCode = true;
+            }
+            if (method.getSimpleName().contentEquals("code") && !modifiers.contains(Modifier.STATIC)
+                    && method.getParameters().isEmpty()
+                    && method.getReturnType().toString().equals("java.lang.String")) {
+                code = true;
+            }
+        }
+        return fromCode && code;
+    }
+
+    private String tableOf(TypeElement type) {
+        return (String) values(annotation(type, MAPPED)).get("table");
+    }
+
+    private boolean hasPublicNoArgConstructor(TypeElement type) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static TypeElement superclassOf(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+        return element.getQualifiedName().contentEquals("java.lang.Object") ? null : element;
+    }
+
+    private static AnnotationMirror annotation(Element element, String annotationType) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement declared = (TypeElement) mirror.getAnnotationType().asElement();
+            if (declared.getQualifiedName().contentEquals(annotationType)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Annotation attributes by name, defaults included
+     */
+    private Map<String, Object> values(AnnotationMirror mirror) {
+        Map<String, Object> values = new HashMap<>();
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+                processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+            values.put(entry.getKey().getSimpleName().toString(), entry.getValue().getValue());
+        }
+        return values;
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
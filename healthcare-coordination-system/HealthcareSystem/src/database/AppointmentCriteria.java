@@ -0,0 +1,107 @@
+package database;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import model.AppointmentStatus;
+
+/**
+ * AppointmentCriteria - Which appointments AppointmentDAO.findAppointments returns
+ * Filters are optional and combine with AND; the date range covers
+ * [from, to) on the appointment date. E.g. a doctor's schedule for today:
+ *
+ *   new AppointmentCriteria()
+ *       .doctor(1)
+ *       .status(AppointmentStatus.SCHEDULED)
+ *       .between(today, today.plusDays(1))
+ *       .sortBy(AppointmentCriteria.Sort.EARLIEST);
+ */
+public class AppointmentCriteria {
+
+    /**
+     * Result order by appointment date and time
+     */
+    public enum Sort {
+        LATEST("a.appointment_date DESC, a.appointment_time DESC, a.appointment_id DESC"),
+        EARLIEST("a.appointment_date ASC, a.appointment_time ASC, a.appointment_id ASC");
+
+        private final String orderBy;
+
+        Sort(String orderBy) {
+            this.orderBy = orderBy;
+        }
+    }
+
+    private final Set<AppointmentStatus> statuses = EnumSet.noneOf(AppointmentStatus.class);
+    private LocalDate from;
+    private LocalDate to;
+    private Integer doctorId;
+    private Integer patientId;
+    private Sort sort = Sort.LATEST;
+    private int limit;
+
+    /**
+     * Only these statuses (replaces any set before; none = every status)
+     */
+    public AppointmentCriteria status(AppointmentStatus... statuses) {
+        this.statuses.clear();
+        this.statuses.addAll(Arrays.asList(statuses));
+        return this;
+    }
+
+    /**
+     * On or after from and before to; either may be null
+     */
+    public AppointmentCriteria between(LocalDate from, LocalDate to) {
+        this.from = from;
+        this.to = to;
+        return this;
+    }
+
+    public AppointmentCriteria doctor(int doctorId) {
+        this.doctorId = doctorId;
+        return this;
+    }
+
+    public AppointmentCriteria patient(int patientId) {
+        this.patientId = patientId;
+        return this;
+    }
+
+    public AppointmentCriteria sortBy(Sort sort) {
+        this.sort = sort;
+        return this;
+    }
+
+    /**
+     * At most this many rows (0 = no limit)
+     */
+    public AppointmentCriteria limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must be 0 or more: " + limit);
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Add the conditions to a query, always in this order
+     */
+    void appendTo(CriteriaQuery.Filter filter) {
+        List<String> codes = new ArrayList<>(statuses.size());
+        for (AppointmentStatus status : statuses) {
+            codes.add(status.code());
+        }
+        filter.in("a.status", codes)
+              .atLeast("a.appointment_date", from == null ? null : Date.valueOf(from))
+              .before("a.appointment_date", to == null ? null : Date.valueOf(to))
+              .equal("a.doctor_id", doctorId)
+              .equal("a.patient_id", patientId)
+              .orderBy(sort.ordinal(), sort.orderBy)
+              .limit(limit);
+    }
+}
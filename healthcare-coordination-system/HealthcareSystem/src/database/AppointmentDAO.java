@@ -1,9 +1,11 @@
 package database;
 
 import model.Appointment;
+import model.AppointmentStatus;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * AppointmentDAO - Data Access Object for Appointment operations
@@ -11,23 +13,24 @@ import java.util.List;
  */
 public class AppointmentDAO {
     
+    // findAppointments: getAllAppointments' columns, filtered by the criteria
+    private static final CriteriaQuery FIND_QUERY = new CriteriaQuery(
+            "SELECT a.*, " +
+            "CONCAT(p.first_name, ' ', p.last_name) as patient_name, " +
+            "u.full_name as doctor_name " +
+            "FROM appointments a " +
+            "JOIN patients p ON a.patient_id = p.patient_id " +
+            "JOIN users u ON a.doctor_id = u.user_id");
+    
     /**
      * CREATE - Schedule new appointment
      * Work Request #1: Patient books appointment with doctor
      */
     public boolean createAppointment(Appointment appointment) {
-        String sql = "INSERT INTO appointments (patient_id, doctor_id, appointment_date, " +
-                     "appointment_time, reason, status) VALUES (?, ?, ?, ?, ?, ?)";
-        
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = conn.prepareStatement(AppointmentMapper.INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
             
-            stmt.setInt(1, appointment.getPatientId());
-            stmt.setInt(2, appointment.getDoctorId());
-            stmt.setDate(3, appointment.getAppointmentDate());
-            stmt.setTime(4, appointment.getAppointmentTime());
-            stmt.setString(5, appointment.getReason());
-            stmt.setString(6, appointment.getStatus());
+            AppointmentMapper.bindInsert(stmt, appointment);
             
             int rowsAffected = stmt.executeUpdate();
             
@@ -62,11 +65,12 @@ public class AppointmentDAO {
                      "ORDER BY a.appointment_date DESC, a.appointment_time DESC";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
             
+            RowMapper.Reader<Appointment> reader = AppointmentMapper.INSTANCE.bind(rs);
             while (rs.next()) {
-                Appointment appointment = extractAppointmentFromResultSet(rs);
+                Appointment appointment = reader.read(rs);
                 appointments.add(appointment);
             }
             
@@ -80,6 +84,61 @@ public class AppointmentDAO {
         return appointments;
     }
     
+    /**
+     * READ - One page of appointments, latest first
+     * Keyset pagination on (appointment_date, appointment_time, appointment_id):
+     * pass null for the first page, then the previous page's getLast().
+     */
+    public Page<Appointment> getAppointmentsPage(Appointment after, int pageSize) {
+        int limit = Page.clampPageSize(pageSize);
+        List<Appointment> appointments = new ArrayList<>(limit + 1);
+        String sql = "SELECT a.*, " +
+                     "CONCAT(p.first_name, ' ', p.last_name) as patient_name, " +
+                     "u.full_name as doctor_name " +
+                     "FROM appointments a " +
+                     "JOIN patients p ON a.patient_id = p.patient_id " +
+                     "JOIN users u ON a.doctor_id = u.user_id " +
+                     (after == null ? "" :
+                     "WHERE a.appointment_date < ? " +
+                     "OR (a.appointment_date = ? AND a.appointment_time < ?) " +
+                     "OR (a.appointment_date = ? AND a.appointment_time = ? AND a.appointment_id < ?) ") +
+                     "ORDER BY a.appointment_date DESC, a.appointment_time DESC, a.appointment_id DESC " +
+                     "LIMIT ?";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            if (after != null) {
+                stmt.setDate(index++, after.getAppointmentDate());
+                stmt.setDate(index++, after.getAppointmentDate());
+                stmt.setTime(index++, after.getAppointmentTime());
+                stmt.setDate(index++, after.getAppointmentDate());
+                stmt.setTime(index++, after.getAppointmentTime());
+                stmt.setInt(index++, after.getAppointmentId());
+            }
+            // One extra row tells us whether another page follows
+            stmt.setInt(index, limit + 1);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper.Reader<Appointment> reader = AppointmentMapper.INSTANCE.bind(rs);
+                while (rs.next()) {
+                    appointments.add(reader.read(rs));
+                }
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("❌ Error retrieving appointment page:");
+            e.printStackTrace();
+        }
+        
+        boolean hasMore = appointments.size() > limit;
+        if (hasMore) {
+            appointments.remove(limit);
+        }
+        return new Page<>(appointments, hasMore);
+    }
+    
     /**
      * READ - Get appointments for specific doctor
      */
@@ -100,8 +159,9 @@ public class AppointmentDAO {
             stmt.setInt(1, doctorId);
             ResultSet rs = stmt.executeQuery();
             
+            RowMapper.Reader<Appointment> reader = AppointmentMapper.INSTANCE.bind(rs);
             while (rs.next()) {
-                Appointment appointment = extractAppointmentFromResultSet(rs);
+                Appointment appointment = reader.read(rs);
                 appointments.add(appointment);
             }
             
@@ -135,8 +195,9 @@ public class AppointmentDAO {
             stmt.setInt(1, patientId);
             ResultSet rs = stmt.executeQuery();
             
+            RowMapper.Reader<Appointment> reader = AppointmentMapper.INSTANCE.bind(rs);
             while (rs.next()) {
-                Appointment appointment = extractAppointmentFromResultSet(rs);
+                Appointment appointment = reader.read(rs);
                 appointments.add(appointment);
             }
             
@@ -150,6 +211,34 @@ public class AppointmentDAO {
         return appointments;
     }
     
+    /**
+     * READ - Appointments matching a criteria object
+     * The filtering and sorting run in the database (doctor / patient lookups
+     * use their date-ordered indexes), with one cached SQL text per set of
+     * filters used.
+     */
+    public List<Appointment> findAppointments(AppointmentCriteria criteria) {
+        List<Appointment> appointments = new ArrayList<>();
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = FIND_QUERY.prepare(conn, criteria::appendTo);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            RowMapper.Reader<Appointment> reader = AppointmentMapper.INSTANCE.bind(rs);
+            while (rs.next()) {
+                appointments.add(reader.read(rs));
+            }
+            
+            System.out.println("✅ Found " + appointments.size() + " appointments");
+            
+        } catch (SQLException e) {
+            System.err.println("❌ Error finding appointments:");
+            e.printStackTrace();
+        }
+        
+        return appointments;
+    }
+    
     /**
      * READ - Get appointment by ID
      */
@@ -169,7 +258,7 @@ public class AppointmentDAO {
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                return extractAppointmentFromResultSet(rs);
+                return AppointmentMapper.INSTANCE.bind(rs).read(rs);
             }
             
         } catch (SQLException e) {
@@ -182,10 +271,11 @@ public class AppointmentDAO {
     
     /**
      * UPDATE - Complete appointment with diagnosis
+     * Only a SCHEDULED appointment can be completed; returns false otherwise.
      */
     public boolean completeAppointment(int appointmentId, String diagnosis, String notes) {
         String sql = "UPDATE appointments SET status = 'COMPLETED', diagnosis = ?, notes = ? " +
-                     "WHERE appointment_id = ?";
+                     "WHERE appointment_id = ? AND status = 'SCHEDULED'";
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -211,15 +301,31 @@ public class AppointmentDAO {
     
     /**
      * UPDATE - Update appointment status
+     * Checked against AppointmentStatus.canTransitionTo() in the WHERE clause,
+     * so e.g. a completed appointment cannot be cancelled. Returns false if
+     * the appointment was not in a status it may move from.
      */
-    public boolean updateAppointmentStatus(int appointmentId, String status) {
-        String sql = "UPDATE appointments SET status = ? WHERE appointment_id = ?";
+    public boolean updateAppointmentStatus(int appointmentId, AppointmentStatus status) {
+        Set<AppointmentStatus> previous = status.previous();
+        if (previous.isEmpty()) {
+            System.err.println("❌ No appointment can be moved to " + status);
+            return false;
+        }
+        StringBuilder sql = new StringBuilder("UPDATE appointments SET status = ? WHERE appointment_id = ? AND status IN (?");
+        for (int i = 1; i < previous.size(); i++) {
+            sql.append(", ?");
+        }
+        sql.append(")");
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
             
-            stmt.setString(1, status);
+            stmt.setString(1, status.code());
             stmt.setInt(2, appointmentId);
+            int index = 3;
+            for (AppointmentStatus from : previous) {
+                stmt.setString(index++, from.code());
+            }
             
             int rowsAffected = stmt.executeUpdate();
             
@@ -249,7 +355,7 @@ public class AppointmentDAO {
             stmt.setDate(1, appointment.getAppointmentDate());
             stmt.setTime(2, appointment.getAppointmentTime());
             stmt.setString(3, appointment.getReason());
-            stmt.setString(4, appointment.getStatus());
+            stmt.setString(4, appointment.getStatus() == null ? null : appointment.getStatus().code());
             stmt.setInt(5, appointment.getAppointmentId());
             
             int rowsAffected = stmt.executeUpdate();
@@ -268,51 +374,103 @@ public class AppointmentDAO {
     }
     
     /**
-     * DELETE - Cancel/delete appointment
+     * READ - Appointments created, updated or deleted since a watermark
+     * Pass the watermark of the previous ChangeSet (or DatabaseConnection.getServerTime()
+     * taken before a full load). Changed rows are returned whatever their status,
+     * so callers can drop rows that no longer match their view. Returns null on error.
      */
-    public boolean deleteAppointment(int appointmentId) {
-        String sql = "DELETE FROM appointments WHERE appointment_id = ?";
+    public ChangeSet<Appointment> getChangedSince(Timestamp since) {
+        return getChangedSince(null, since);
+    }
+    
+    /**
+     * READ - One doctor's appointments created or updated since a watermark
+     * Only that doctor's changed rows are read (idx_appointments_doctor_updated);
+     * deleted IDs are not per doctor and cover every appointment, which a
+     * doctor's view simply does not find. Returns null on error.
+     */
+    public ChangeSet<Appointment> getChangedSince(int doctorId, Timestamp since) {
+        return getChangedSince(Integer.valueOf(doctorId), since);
+    }
+    
+    private ChangeSet<Appointment> getChangedSince(Integer doctorId, Timestamp since) {
+        List<Appointment> changed = new ArrayList<>();
+        String sql = "SELECT a.*, " +
+                     "CONCAT(p.first_name, ' ', p.last_name) as patient_name, " +
+                     "u.full_name as doctor_name " +
+                     "FROM appointments a " +
+                     "JOIN patients p ON a.patient_id = p.patient_id " +
+                     "JOIN users u ON a.doctor_id = u.user_id " +
+                     "WHERE " + (doctorId != null ? "a.doctor_id = ? AND " : "") + "a.last_updated >= ? " +
+                     "ORDER BY a.last_updated";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            if (conn == null) {
+                throw new SQLException("No database connection");
+            }
             
-            stmt.setInt(1, appointmentId);
-            int rowsAffected = stmt.executeUpdate();
+            Timestamp watermark = ChangeLog.serverTime(conn);
             
-            if (rowsAffected > 0) {
-                System.out.println("✅ Appointment deleted successfully");
-                return true;
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int index = 1;
+                if (doctorId != null) {
+                    stmt.setInt(index++, doctorId);
+                }
+                stmt.setTimestamp(index, ChangeLog.lookback(since));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    RowMapper.Reader<Appointment> reader = AppointmentMapper.INSTANCE.bind(rs);
+                    while (rs.next()) {
+                        changed.add(reader.read(rs));
+                    }
+                }
             }
-            return false;
+            List<Integer> deletedIds = ChangeLog.deletedSince(conn, "appointments", since);
+            
+            System.out.println("✅ " + changed.size() + " appointments changed, " +
+                               deletedIds.size() + " deleted since " + since);
+            return new ChangeSet<>(changed, deletedIds, watermark);
             
         } catch (SQLException e) {
-            System.err.println("❌ Error deleting appointment:");
+            System.err.println("❌ Error retrieving changed appointments:");
             e.printStackTrace();
-            return false;
+            return null;
         }
     }
     
     /**
-     * Helper method to extract Appointment from ResultSet
+     * DELETE - Cancel/delete appointment
      */
-    private Appointment extractAppointmentFromResultSet(ResultSet rs) throws SQLException {
-        Appointment appointment = new Appointment();
-        appointment.setAppointmentId(rs.getInt("appointment_id"));
-        appointment.setPatientId(rs.getInt("patient_id"));
-        appointment.setDoctorId(rs.getInt("doctor_id"));
-        appointment.setAppointmentDate(rs.getDate("appointment_date"));
-        appointment.setAppointmentTime(rs.getTime("appointment_time"));
-        appointment.setReason(rs.getString("reason"));
-        appointment.setStatus(rs.getString("status"));
-        appointment.setDiagnosis(rs.getString("diagnosis"));
-        appointment.setNotes(rs.getString("notes"));
-        appointment.setCreatedDate(rs.getTimestamp("created_date"));
-        
-        // Set display names (from JOIN)
-        appointment.setPatientName(rs.getString("patient_name"));
-        appointment.setDoctorName(rs.getString("doctor_name"));
+    public boolean deleteAppointment(int appointmentId) {
+        String sql = "DELETE FROM appointments WHERE appointment_id = ?";
         
-        return appointment;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                stmt.setInt(1, appointmentId);
+                int rowsAffected = stmt.executeUpdate();
+                
+                if (rowsAffected > 0) {
+                    // Tombstone so incremental refreshes drop the row as well
+                    ChangeLog.recordDelete(conn, "appointments", appointmentId);
+                }
+                conn.commit();
+                
+                if (rowsAffected > 0) {
+                    System.out.println("✅ Appointment deleted successfully");
+                    return true;
+                }
+                return false;
+                
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error deleting appointment:");
+            e.printStackTrace();
+            return false;
+        }
     }
     
     /**
@@ -336,12 +494,37 @@ public class AppointmentDAO {
         }
         System.out.println();
         
+        // Test 1b: Walk appointments a page at a time
+        System.out.println("TEST 1b: Page through appointments (keyset, 2 per page)");
+        Page<Appointment> page = appointmentDAO.getAppointmentsPage(null, 2);
+        int pageNumber = 1;
+        while (true) {
+            System.out.println("   Page " + pageNumber + ": " + page.size() + " appointments");
+            if (!page.hasMore()) {
+                break;
+            }
+            page = appointmentDAO.getAppointmentsPage(page.getLast(), 2);
+            pageNumber++;
+        }
+        System.out.println();
+        
         // Test 2: Get appointments for doctor ID 1
         System.out.println("TEST 2: Get appointments for Doctor ID=1");
         List<Appointment> doctorAppts = appointmentDAO.getAppointmentsByDoctor(1);
         System.out.println("Found " + doctorAppts.size() + " appointments for this doctor");
         System.out.println();
         
+        // Test 3: Doctor ID=1's upcoming scheduled appointments, filtered in the database
+        System.out.println("TEST 3: Find upcoming scheduled appointments for Doctor ID=1");
+        List<Appointment> upcoming = appointmentDAO.findAppointments(new AppointmentCriteria()
+            .doctor(1)
+            .status(AppointmentStatus.SCHEDULED)
+            .between(java.time.LocalDate.now(), null)
+            .sortBy(AppointmentCriteria.Sort.EARLIEST)
+            .limit(10));
+        System.out.println("Doctor has " + upcoming.size() + " upcoming appointments");
+        System.out.println();
+        
         System.out.println("========================================");
         System.out.println("All AppointmentDAO tests completed!");
         System.out.println("========================================");
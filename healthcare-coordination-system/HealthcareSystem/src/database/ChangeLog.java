@@ -0,0 +1,112 @@
+package database;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ChangeLog - Shared plumbing for the DAOs' getChangedSince() methods
+ * Updates are found through each table's last_updated column; deletes
+ * leave a tombstone in deleted_rows, written in the same transaction as
+ * the DELETE. Tombstones no watermark can still need are pruned at startup
+ * and by the PrescriptionEventBus poller.
+ */
+final class ChangeLog {
+
+    // How far before the watermark each query re-reads, so a transaction that
+    // stamped its rows just before the watermark but committed after is not missed
+    private static final long LOOKBACK_MILLIS = Long.getLong("healthcare.sync.lookbackMillis", 2000);
+
+    // Tables that record deletes, for pruning by (table_name, deleted_at)
+    private static final String[] TRACKED_TABLES = {"prescriptions", "appointments", "restock_requests"};
+
+    private ChangeLog() {
+    }
+
+    /**
+     * Database clock, read before the change queries run
+     */
+    static Timestamp serverTime(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT CURRENT_TIMESTAMP(3)");
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getTimestamp(1);
+        }
+    }
+
+    /**
+     * The lower bound to query from for a given watermark
+     */
+    static Timestamp lookback(Timestamp since) {
+        return new Timestamp(since.getTime() - LOOKBACK_MILLIS);
+    }
+
+    /**
+     * Record that a row was deleted; call inside the DELETE's transaction
+     */
+    static void recordDelete(Connection conn, String table, int rowId) throws SQLException {
+        String sql = "INSERT INTO deleted_rows (table_name, row_id) VALUES (?, ?) " +
+                     "ON DUPLICATE KEY UPDATE deleted_at = CURRENT_TIMESTAMP(3)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, table);
+            stmt.setInt(2, rowId);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * IDs of the rows deleted from table since the watermark
+     */
+    static List<Integer> deletedSince(Connection conn, String table, Timestamp since) throws SQLException {
+        List<Integer> rowIds = new ArrayList<>();
+        String sql = "SELECT row_id FROM deleted_rows WHERE table_name = ? AND deleted_at >= ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, table);
+            stmt.setTimestamp(2, lookback(since));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rowIds.add(rs.getInt("row_id"));
+                }
+            }
+        }
+        return rowIds;
+    }
+
+    /**
+     * Delete tombstones older than the oldest usable watermark plus the look-back
+     * Returns the number removed.
+     */
+    static int pruneDeletes(Connection conn) throws SQLException {
+        Timestamp cutoff = new Timestamp(serverTime(conn).getTime()
+                - ChangeSet.MAX_WATERMARK_AGE_MILLIS - LOOKBACK_MILLIS);
+        String sql = "DELETE FROM deleted_rows WHERE table_name = ? AND deleted_at < ?";
+        int pruned = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (String table : TRACKED_TABLES) {
+                stmt.setString(1, table);
+                stmt.setTimestamp(2, cutoff);
+                pruned += stmt.executeUpdate();
+            }
+        }
+        return pruned;
+    }
+
+    /**
+     * pruneDeletes() on a pooled connection; errors are logged, not thrown
+     */
+    static void pruneDeletes() {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            if (conn == null) {
+                System.err.println("❌ Error pruning delete tombstones: no database connection");
+                return;
+            }
+            int pruned = pruneDeletes(conn);
+            if (pruned > 0) {
+                System.out.println("✅ Pruned " + pruned + " old delete tombstones");
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error pruning delete tombstones:");
+            e.printStackTrace();
+        }
+    }
+}
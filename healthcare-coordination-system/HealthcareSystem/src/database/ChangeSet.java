@@ -0,0 +1,58 @@
+package database;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ChangeSet - Rows created, updated or deleted since a watermark
+ * Returned by the DAOs' getChangedSince() methods. Pass getWatermark() to
+ * the next call to get only what changed after this one. Rows can show up
+ * in two consecutive change sets (each query looks back a little to catch
+ * late commits), so apply them as upserts keyed by ID.
+ */
+public class ChangeSet<T> {
+
+    /**
+     * Oldest watermark getChangedSince() still answers completely
+     * Delete tombstones are pruned after this long (see ChangeLog), so a
+     * caller whose watermark is older must reload the whole view instead.
+     */
+    public static final long MAX_WATERMARK_AGE_MILLIS =
+            Long.getLong("healthcare.sync.maxWatermarkAgeHours", 24) * 3_600_000L;
+
+    private final List<T> changed;
+    private final List<Integer> deletedIds;
+    private final Timestamp watermark;
+
+    public ChangeSet(List<T> changed, List<Integer> deletedIds, Timestamp watermark) {
+        this.changed = Collections.unmodifiableList(changed);
+        this.deletedIds = Collections.unmodifiableList(deletedIds);
+        this.watermark = watermark;
+    }
+
+    /**
+     * Rows inserted or updated (with their current values)
+     */
+    public List<T> getChanged() {
+        return changed;
+    }
+
+    /**
+     * IDs of rows deleted
+     */
+    public List<Integer> getDeletedIds() {
+        return deletedIds;
+    }
+
+    /**
+     * Database time when this change set was read - the next "since"
+     */
+    public Timestamp getWatermark() {
+        return watermark;
+    }
+
+    public boolean isEmpty() {
+        return changed.isEmpty() && deletedIds.isEmpty();
+    }
+}
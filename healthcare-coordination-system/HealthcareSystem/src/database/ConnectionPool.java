@@ -0,0 +1,392 @@
+package database;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * ConnectionPool - Bounded, thread-safe pool of database connections
+ * DAOs borrow a connection through DatabaseConnection.getConnection() and
+ * closing it (try-with-resources) hands it back here instead of dropping
+ * the socket, so the next DAO call skips the TCP + auth handshake.
+ */
+public class ConnectionPool implements DataSource {
+
+    // Connections returned this recently are trusted without a ping
+    private static final long VALIDATION_BYPASS_MILLIS = 500;
+
+    private final String url;
+    private final Properties connectionProperties;
+
+    private final int minIdle;
+    private final int maxIdle;
+    private final int maxTotal;
+    private final long borrowTimeoutMillis;
+    private final long maxLifetimeMillis;
+    private final long idleTimeoutMillis;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+
+    private final StatementCache.Stats statementCacheStats = new StatementCache.Stats();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final ArrayDeque<PooledConnection> idle = new ArrayDeque<>();
+    private int total; // physical connections open or being opened
+    private boolean closed;
+
+    private final ScheduledExecutorService housekeeper;
+
+    /**
+     * @param connectionProperties driver properties incl. user and password
+     * @param statementCacheSize   prepared statements kept open per connection (0 = no caching)
+     */
+    public ConnectionPool(String url, Properties connectionProperties,
+                          int minIdle, int maxIdle, int maxTotal,
+                          long borrowTimeoutMillis, long maxLifetimeMillis,
+                          long idleTimeoutMillis, int validationTimeoutSeconds,
+                          int statementCacheSize) {
+        if (maxTotal < 1 || minIdle < 0 || maxIdle < minIdle || maxIdle > maxTotal) {
+            throw new IllegalArgumentException("Invalid pool sizes: minIdle=" + minIdle +
+                                               ", maxIdle=" + maxIdle + ", maxTotal=" + maxTotal);
+        }
+        this.url = url;
+        this.connectionProperties = (Properties) connectionProperties.clone();
+        this.minIdle = minIdle;
+        this.maxIdle = maxIdle;
+        this.maxTotal = maxTotal;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.maxLifetimeMillis = maxLifetimeMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.statementCacheSize = statementCacheSize;
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, Math.min(idleTimeoutMillis, 30_000));
+        housekeeper.scheduleWithFixedDelay(this::maintain, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrow a connection, waiting up to the borrow timeout when all are in use
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        DaoMetrics.Call call = DaoMetrics.getInstance().begin(); // timed from here, waiting included
+        try {
+            return borrow(call);
+        } catch (SQLException e) {
+            if (call != null) {
+                call.failed();
+                call.end();
+            }
+            throw e;
+        }
+    }
+
+    private Connection borrow(DaoMetrics.Call call) throws SQLException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+
+        while (true) {
+            PooledConnection candidate = null;
+            boolean create = false;
+
+            lock.lock();
+            try {
+                while (true) {
+                    if (closed) {
+                        throw new SQLException("Connection pool is closed");
+                    }
+                    candidate = idle.pollFirst(); // LIFO keeps the warmest connections busy
+                    if (candidate != null) {
+                        break;
+                    }
+                    if (total < maxTotal) {
+                        total++;
+                        create = true;
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new SQLTimeoutException("Timed out after " + borrowTimeoutMillis +
+                                                      " ms waiting for a database connection (" +
+                                                      maxTotal + " in use)");
+                    }
+                    available.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection", e);
+            } finally {
+                lock.unlock();
+            }
+
+            if (create) {
+                try {
+                    return open().lease(this, call);
+                } catch (SQLException e) {
+                    forget();
+                    throw e;
+                }
+            }
+
+            if (isUsable(candidate)) {
+                return candidate.lease(this, call);
+            }
+            discard(candidate);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pool credentials are fixed at construction");
+    }
+
+    /**
+     * Called by a lease when the DAO closes its connection
+     */
+    void release(PooledConnection pc) {
+        boolean keep = pc.resetSessionState() && !pc.isExpired(System.currentTimeMillis(), maxLifetimeMillis);
+
+        lock.lock();
+        try {
+            if (keep && !closed && idle.size() < maxIdle) {
+                pc.markReturned();
+                idle.addFirst(pc);
+                available.signal();
+                return;
+            }
+            total--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        pc.closePhysical();
+    }
+
+    private PooledConnection open() throws SQLException {
+        return new PooledConnection(DriverManager.getConnection(url, connectionProperties),
+                                    statementCacheSize, statementCacheStats);
+    }
+
+    private boolean isUsable(PooledConnection pc) {
+        long now = System.currentTimeMillis();
+        if (pc.isExpired(now, maxLifetimeMillis)) {
+            return false;
+        }
+        if (now - pc.getLastReturned() < VALIDATION_BYPASS_MILLIS) {
+            return true;
+        }
+        try {
+            return pc.getPhysical().isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discard(PooledConnection pc) {
+        forget();
+        pc.closePhysical();
+    }
+
+    private void forget() {
+        lock.lock();
+        try {
+            total--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Housekeeping - retire old or long-idle connections and top up to minIdle
+     */
+    private void maintain() {
+        List<PooledConnection> retired = new ArrayList<>();
+        int toOpen;
+
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            // Oldest (least recently returned) connections sit at the tail
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext()) {
+                PooledConnection pc = it.next();
+                boolean expired = pc.isExpired(now, maxLifetimeMillis);
+                boolean stale = idle.size() > minIdle && now - pc.getLastReturned() > idleTimeoutMillis;
+                if (expired || stale) {
+                    it.remove();
+                    total--;
+                    retired.add(pc);
+                }
+            }
+            toOpen = Math.max(0, Math.min(minIdle - idle.size(), maxTotal - total));
+            total += toOpen;
+        } finally {
+            lock.unlock();
+        }
+
+        for (PooledConnection pc : retired) {
+            pc.closePhysical();
+        }
+
+        for (int i = 0; i < toOpen; i++) {
+            try {
+                PooledConnection pc = open();
+                release(pc);
+            } catch (SQLException e) {
+                // Database unreachable right now - give the slots back and retry next round
+                for (int j = i; j < toOpen; j++) {
+                    forget();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Close idle connections now; borrowed ones are closed as they come back
+     */
+    public void close() {
+        List<PooledConnection> toClose;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            total -= idle.size();
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        housekeeper.shutdownNow();
+        for (PooledConnection pc : toClose) {
+            pc.closePhysical();
+        }
+    }
+
+    public boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getActiveCount() {
+        lock.lock();
+        try {
+            return total - idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getIdleCount() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    /**
+     * Prepared statements served from a connection's cache (no re-parse)
+     */
+    public long getStatementCacheHits() {
+        return statementCacheStats.getHits();
+    }
+
+    /**
+     * Prepared statements that had to be prepared on the server
+     */
+    public long getStatementCacheMisses() {
+        return statementCacheStats.getMisses();
+    }
+
+    public long getStatementCacheEvictions() {
+        return statementCacheStats.getEvictions();
+    }
+
+    /**
+     * Cache hits for one SQL string, e.g. the pending-prescriptions polling query
+     * (0 for statements first seen after the tracking cap was reached)
+     */
+    public long getStatementCacheHits(String sql) {
+        return statementCacheStats.getHits(sql);
+    }
+
+    public double getStatementCacheHitRate() {
+        long hits = statementCacheStats.getHits();
+        long lookups = hits + statementCacheStats.getMisses();
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return DriverManager.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        DriverManager.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return DriverManager.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
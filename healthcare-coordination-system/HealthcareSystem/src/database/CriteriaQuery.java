@@ -0,0 +1,167 @@
+package database;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * CriteriaQuery - One SELECT whose WHERE / ORDER BY / LIMIT come from a criteria object
+ * A criteria object lists its conditions through a Filter, skipping the
+ * ones it does not use. The set of conditions used (plus IN-list sizes and
+ * sort order) is the query's shape; each shape's SQL text is built once and
+ * cached here, and every value is a ? parameter. So a dashboard filtering
+ * on different doctors or dates reuses one statement, which StatementCache
+ * keeps prepared on the connection.
+ */
+final class CriteriaQuery {
+
+    private final String select;   // SELECT ... FROM ... JOIN ..., no WHERE
+    private final Map<Long, String> shapes = new ConcurrentHashMap<>();
+
+    CriteriaQuery(String select) {
+        this.select = select;
+    }
+
+    /**
+     * Prepare the statement for a criteria object and bind its values
+     * @param conditions adds the criteria's conditions, sort and limit to a Filter,
+     *                   always in the same order
+     */
+    PreparedStatement prepare(Connection conn, Consumer<Filter> conditions) throws SQLException {
+        Filter values = new Filter(null);
+        conditions.accept(values);
+        String sql = shapes.computeIfAbsent(values.shape, shape -> {
+            Filter text = new Filter(new StringBuilder(select));
+            conditions.accept(text);
+            return text.sql.toString();
+        });
+
+        PreparedStatement stmt = conn.prepareStatement(sql);
+        try {
+            int index = 1;
+            for (Object value : values.params) {
+                if (value instanceof Integer) {
+                    stmt.setInt(index++, (Integer) value);
+                } else if (value instanceof Timestamp) {
+                    stmt.setTimestamp(index++, (Timestamp) value);
+                } else if (value instanceof Date) {
+                    stmt.setDate(index++, (Date) value);
+                } else {
+                    stmt.setString(index++, (String) value);
+                }
+            }
+        } catch (SQLException e) {
+            stmt.close();
+            throw e;
+        }
+        return stmt;
+    }
+
+    /**
+     * Collects a criteria object's conditions: the parameter values and the
+     * shape always, the SQL text only when a shape is seen for the first time
+     */
+    static final class Filter {
+        private final StringBuilder sql;   // null when only collecting values
+        private final List<Object> params = new ArrayList<>();
+        private long shape = 1;            // leading 1 keeps "no conditions" distinct
+        private boolean where;
+
+        private Filter(StringBuilder sql) {
+            this.sql = sql;
+        }
+
+        /**
+         * column = value, skipped when value is null
+         */
+        Filter equal(String column, Object value) {
+            return condition(column, " = ?", value);
+        }
+
+        /**
+         * column >= value, skipped when value is null
+         */
+        Filter atLeast(String column, Object value) {
+            return condition(column, " >= ?", value);
+        }
+
+        /**
+         * column < value, skipped when value is null
+         */
+        Filter before(String column, Object value) {
+            return condition(column, " < ?", value);
+        }
+
+        /**
+         * column IN (values...), skipped when values is empty
+         */
+        Filter in(String column, Collection<?> values) {
+            if (values.size() > 15) {
+                throw new IllegalArgumentException("At most 15 values for " + column);
+            }
+            shape = shape << 4 | values.size();
+            if (values.isEmpty()) {
+                return this;
+            }
+            params.addAll(values);
+            if (sql != null) {
+                clause().append(column).append(" IN (?");
+                for (int i = 1; i < values.size(); i++) {
+                    sql.append(", ?");
+                }
+                sql.append(")");
+            }
+            return this;
+        }
+
+        /**
+         * ORDER BY orderBy; sortId tells the criteria's sort orders apart (0..15)
+         */
+        Filter orderBy(int sortId, String orderBy) {
+            shape = shape << 4 | sortId;
+            if (sql != null) {
+                sql.append(" ORDER BY ").append(orderBy);
+            }
+            return this;
+        }
+
+        /**
+         * LIMIT limit, skipped when limit is 0
+         */
+        Filter limit(int limit) {
+            shape = shape << 1 | (limit > 0 ? 1 : 0);
+            if (limit > 0) {
+                params.add(limit);
+                if (sql != null) {
+                    sql.append(" LIMIT ?");
+                }
+            }
+            return this;
+        }
+
+        private Filter condition(String column, String operator, Object value) {
+            shape = shape << 1 | (value != null ? 1 : 0);
+            if (value != null) {
+                params.add(value);
+                if (sql != null) {
+                    clause().append(column).append(operator);
+                }
+            }
+            return this;
+        }
+
+        private StringBuilder clause() {
+            sql.append(where ? " AND " : " WHERE ");
+            where = true;
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package database;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DaoMethodStats - Call count, errors, rows and latency for one DAO method
+ * Latency goes into a log-linear histogram (16 buckets per power of two,
+ * about 6% resolution, from 1 µs to over an hour) held in fixed arrays,
+ * so recording a call never allocates or locks. Percentiles are read from
+ * the histogram; max and totals are exact.
+ */
+public class DaoMethodStats implements DaoMethodStatsMXBean {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 42; // 2^42 µs ≈ 51 days
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final String method;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final AtomicLong maxMicros = new AtomicLong();
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+    DaoMethodStats(String method) {
+        this.method = method;
+    }
+
+    void record(long micros, long rowCount, boolean failed) {
+        calls.increment();
+        if (failed) {
+            errors.increment();
+        }
+        rows.add(rowCount);
+        totalMicros.add(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+        histogram.incrementAndGet(bucketOf(micros));
+    }
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public double getTotalMillis() {
+        return totalMicros.sum() / 1000.0;
+    }
+
+    @Override
+    public double getMeanMillis() {
+        long count = calls.sum();
+        return count == 0 ? 0.0 : totalMicros.sum() / 1000.0 / count;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return percentileMillis(50);
+    }
+
+    @Override
+    public double getP99Millis() {
+        return percentileMillis(99);
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return maxMicros.get() / 1000.0;
+    }
+
+    /**
+     * Latency below which the given percent of calls finished (0 with no calls)
+     * Reported as the upper edge of the bucket it falls in, capped at the max.
+     */
+    public double percentileMillis(double percent) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = histogram.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0.0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(total * percent / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperEdge(i), maxMicros.get()) / 1000.0;
+            }
+        }
+        return getMaxMillis();
+    }
+
+    @Override
+    public void reset() {
+        calls.reset();
+        errors.reset();
+        rows.reset();
+        totalMicros.reset();
+        maxMicros.set(0);
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram.set(i, 0);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-45s %8d calls %6d errors %10d rows  p50 %8.2f  p99 %8.2f  max %8.2f  total %10.1f ms",
+                             method, getCalls(), getErrors(), getRows(),
+                             getP50Millis(), getP99Millis(), getMaxMillis(), getTotalMillis());
+    }
+
+    /**
+     * Values below 16 µs get a bucket each; above that each power of two
+     * is split into 16 equal buckets
+     */
+    static int bucketOf(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) Math.max(0, micros);
+        }
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(micros), MAX_EXPONENT);
+        int sub = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Largest value that falls in bucket
+     */
+    static long upperEdge(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + (sub + 1) * width - 1;
+    }
+}
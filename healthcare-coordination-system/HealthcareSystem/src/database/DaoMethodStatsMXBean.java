@@ -0,0 +1,34 @@
+package database;
+
+/**
+ * DaoMethodStatsMXBean - JMX view of one DAO method's statistics
+ * Registered as database:type=DaoMetrics,method=Class.method
+ */
+public interface DaoMethodStatsMXBean {
+
+    String getMethod();
+
+    long getCalls();
+
+    /**
+     * Calls during which a SQLException was thrown (even if the DAO caught it)
+     */
+    long getErrors();
+
+    /**
+     * Rows mapped by a RowMapper plus rows changed by updates
+     */
+    long getRows();
+
+    double getTotalMillis();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+
+    void reset();
+}
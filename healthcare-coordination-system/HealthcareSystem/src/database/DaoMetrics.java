@@ -0,0 +1,267 @@
+package database;
+
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * DaoMetrics - Call counts, errors, rows and latency for every DAO method
+ * Every DAO call borrows a connection, so the pool does the measuring: a
+ * lease is attributed to the DAO method that borrowed it (found on the
+ * stack) and timed from borrow to close, with SQLExceptions counted as they
+ * are thrown. Rows are the rows mapped by a RowMapper plus the update counts
+ * of INSERT/UPDATE/DELETE statements - result sets are handed to the DAO
+ * unwrapped, so rows a DAO reads column by column are not counted. The DAOs
+ * need no changes, and new DAO methods show up on their own.
+ *
+ * Statistics are published over JMX (database:type=DaoMetrics in JConsole
+ * or VisualVM) and logged every healthcare.metrics.logSeconds (default 300,
+ * 0 = never). -Dhealthcare.metrics.enabled=false turns measuring off.
+ */
+public class DaoMetrics implements DaoMetricsMXBean {
+
+    static final boolean ENABLED =
+            Boolean.parseBoolean(System.getProperty("healthcare.metrics.enabled", "true"));
+    private static final long LOG_SECONDS = Long.getLong("healthcare.metrics.logSeconds", 300);
+
+    private static final String JMX_DOMAIN = "database";
+
+    // Pool plumbing between the DAO and the driver - never the caller
+    private static final Set<String> POOL_CLASSES = Set.of(
+        DaoMetrics.class.getName(), ConnectionPool.class.getName(),
+        PooledConnection.class.getName(), StatementCache.class.getName());
+
+    private static final DaoMetrics INSTANCE = new DaoMetrics();
+
+    // Innermost lease still open on each thread, for RowMapper to count rows against
+    private static final ThreadLocal<Call> CURRENT = new ThreadLocal<>();
+
+    private final ConcurrentHashMap<String, DaoMethodStats> methods = new ConcurrentHashMap<>();
+    private ScheduledExecutorService logger;
+    private long callsAtLastLog;
+
+    private DaoMetrics() {
+    }
+
+    public static DaoMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Register with JMX and start the periodic log (once; later calls do nothing)
+     */
+    public synchronized void start() {
+        if (!ENABLED || logger != null) {
+            return;
+        }
+        register(this, new String[] {"name", "Summary"});
+
+        logger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "dao-metrics-log");
+            t.setDaemon(true);
+            return t;
+        });
+        if (LOG_SECONDS > 0) {
+            logger.scheduleAtFixedRate(this::logSnapshot, LOG_SECONDS, LOG_SECONDS, TimeUnit.SECONDS);
+        }
+        System.out.println("✅ DAO metrics on (JMX " + JMX_DOMAIN + ":type=DaoMetrics)");
+    }
+
+    /**
+     * Statistics for every method called so far, slowest in total first
+     */
+    public List<DaoMethodStats> getMethodStats() {
+        List<DaoMethodStats> all = new ArrayList<>(methods.values());
+        all.sort(Comparator.comparingDouble(DaoMethodStats::getTotalMillis).reversed());
+        return all;
+    }
+
+    /**
+     * Statistics for one method, e.g. "PrescriptionDAO.getAllPrescriptions" (null if never called)
+     */
+    public DaoMethodStats getMethodStats(String method) {
+        return methods.get(method);
+    }
+
+    @Override
+    public int getMethodCount() {
+        return methods.size();
+    }
+
+    @Override
+    public long getTotalCalls() {
+        long total = 0;
+        for (DaoMethodStats stats : methods.values()) {
+            total += stats.getCalls();
+        }
+        return total;
+    }
+
+    @Override
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        for (DaoMethodStats stats : getMethodStats()) {
+            report.append(stats).append('\n');
+        }
+        return report.toString();
+    }
+
+    @Override
+    public void reset() {
+        for (DaoMethodStats stats : methods.values()) {
+            stats.reset();
+        }
+        synchronized (this) {
+            callsAtLastLog = 0;
+        }
+    }
+
+    /**
+     * Print the report (skipped if nothing was called since the last one)
+     */
+    public synchronized void logSnapshot() {
+        long calls = getTotalCalls();
+        if (calls == callsAtLastLog) {
+            return;
+        }
+        callsAtLastLog = calls;
+        System.out.println("📊 DAO metrics (" + calls + " calls, latency in ms):\n" + getReport());
+    }
+
+    /**
+     * Start measuring a connection borrow; null when metrics are off
+     */
+    Call begin() {
+        return ENABLED ? new Call(callerOf(), System.nanoTime()) : null;
+    }
+
+    /**
+     * The lease this thread borrowed last and has not closed; null when metrics are off
+     */
+    static Call current() {
+        return ENABLED ? CURRENT.get() : null;
+    }
+
+    private void record(String method, long nanos, long rows, boolean failed) {
+        DaoMethodStats stats = methods.get(method);
+        if (stats == null) {
+            DaoMethodStats created = new DaoMethodStats(method);
+            stats = methods.putIfAbsent(method, created);
+            if (stats == null) {
+                stats = created;
+                register(created, new String[] {"method", method});
+            }
+        }
+        stats.record(nanos / 1000, rows, failed);
+    }
+
+    private static void register(Object bean, String[] key) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(JMX_DOMAIN + ":type=DaoMetrics," + key[0] + "=" +
+                                             ObjectName.quote(key[1]));
+            if (!server.isRegistered(name)) {
+                server.registerMBean(bean, name);
+            }
+        } catch (JMException | RuntimeException e) {
+            System.err.println("❌ Error registering DAO metrics with JMX:");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * "Class.method" of the first frame outside the pool, e.g. "PatientDAO.getAllPatients"
+     * Lambdas are reported as the method they were written in.
+     */
+    private static String callerOf() {
+        return StackWalker.getInstance().walk(frames -> frames
+            .filter(f -> !POOL_CLASSES.contains(f.getClassName())
+                         && !(f.getClassName().equals(DatabaseConnection.class.getName())
+                              && (f.getMethodName().equals("getConnection")
+                                  || f.getMethodName().equals("getDataSource"))))
+            .findFirst()
+            .map(f -> {
+                String className = f.getClassName().substring(f.getClassName().lastIndexOf('.') + 1);
+                String methodName = f.getMethodName();
+                if (methodName.startsWith("lambda$")) {
+                    int end = methodName.indexOf('$', 7);
+                    methodName = methodName.substring(7, end > 7 ? end : methodName.length());
+                }
+                return className + "." + methodName;
+            })
+            .orElse("unknown"));
+    }
+
+    /**
+     * One connection lease being measured
+     * Used by the lease's own thread only; end() records it once. While
+     * open it is the thread's current() call, the one it replaced becoming
+     * current again when it ends (nested DAO calls).
+     */
+    final class Call {
+        private final String method;
+        private final long startedAt;
+        private final Call outer;
+        private long rows;
+        private boolean failed;
+        private boolean ended;
+
+        private Call(String method, long startedAt) {
+            this.method = method;
+            this.startedAt = startedAt;
+            this.outer = CURRENT.get();
+            CURRENT.set(this);
+        }
+
+        void failed() {
+            failed = true;
+        }
+
+        void rows(long count) {
+            rows += count;
+        }
+
+        /**
+         * Count the rows reader maps, and its failures
+         */
+        <T> RowMapper.Reader<T> count(RowMapper.Reader<T> reader) {
+            return rs -> {
+                rows++;
+                try {
+                    return reader.read(rs);
+                } catch (SQLException | RuntimeException e) {
+                    failed = true;
+                    throw e;
+                }
+            };
+        }
+
+        void end() {
+            if (!ended) {
+                ended = true;
+                if (CURRENT.get() == this) {
+                    Call open = outer;
+                    while (open != null && open.ended) {
+                        open = open.outer; // closed out of order
+                    }
+                    if (open == null) {
+                        CURRENT.remove();
+                    } else {
+                        CURRENT.set(open);
+                    }
+                }
+                record(method, System.nanoTime() - startedAt, rows, failed);
+            }
+        }
+    }
+}
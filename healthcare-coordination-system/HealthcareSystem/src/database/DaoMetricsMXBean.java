@@ -0,0 +1,19 @@
+package database;
+
+/**
+ * DaoMetricsMXBean - JMX view of the DAO metrics as a whole
+ * Registered as database:type=DaoMetrics,name=Summary
+ */
+public interface DaoMetricsMXBean {
+
+    int getMethodCount();
+
+    long getTotalCalls();
+
+    /**
+     * Every method, slowest in total first - the same table the periodic log prints
+     */
+    String getReport();
+
+    void reset();
+}
@@ -1,31 +1,44 @@
 package database;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Properties;
 
 public class DatabaseConnection {
     // Database credentials - these match your docker-compose.yml
-    private static final String URL = "jdbc:mysql://localhost:3306/healthcare_system";
-    private static final String USER = "root";
-    private static final String PASSWORD = "password123";
-    
-    private static Connection connection = null;
-    
+    // (override with -Dhealthcare.db.url=... etc. when pointing at another server)
+    private static final String URL = System.getProperty("healthcare.db.url",
+            "jdbc:mysql://localhost:3306/healthcare_system");
+    private static final String USER = System.getProperty("healthcare.db.user", "root");
+    private static final String PASSWORD = System.getProperty("healthcare.db.password", "password123");
+
+    // Pool sizing - every dashboard tab and DAO call shares these connections
+    private static final int MIN_IDLE = Integer.getInteger("healthcare.pool.minIdle", 2);
+    private static final int MAX_IDLE = Integer.getInteger("healthcare.pool.maxIdle", 8);
+    private static final int MAX_TOTAL = Integer.getInteger("healthcare.pool.maxTotal", 10);
+    private static final long BORROW_TIMEOUT_MS = Long.getLong("healthcare.pool.borrowTimeoutMs", 5_000L);
+    private static final long MAX_LIFETIME_MS = Long.getLong("healthcare.pool.maxLifetimeMs", 30 * 60_000L);
+    private static final long IDLE_TIMEOUT_MS = Long.getLong("healthcare.pool.idleTimeoutMs", 10 * 60_000L);
+    private static final int VALIDATION_TIMEOUT_S = 2;
+    private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("healthcare.pool.statementCacheSize", 64);
+
+    // Apply pending schema migrations when the pool starts (-Dhealthcare.db.migrate=false to skip)
+    private static final boolean MIGRATE_ON_START =
+            Boolean.parseBoolean(System.getProperty("healthcare.db.migrate", "true"));
+
+    private static ConnectionPool pool = null;
+
     /**
      * Get database connection
-     * This method connects your Java app to MySQL database
+     * Borrows a connection from the shared pool. Closing it (try-with-resources
+     * in every DAO) returns it to the pool instead of disconnecting.
      */
     public static Connection getConnection() {
         try {
-            // Step 1: Load MySQL JDBC Driver
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            
-            // Step 2: Create connection if it doesn't exist or is closed
-            if (connection == null || connection.isClosed()) {
-                connection = DriverManager.getConnection(URL, USER, PASSWORD);
-                System.out.println("✅ Database connected successfully!");
-            }
+            return getDataSource().getConnection();
         } catch (ClassNotFoundException e) {
             System.err.println("❌ MySQL Driver not found!");
             System.err.println("Make sure mysql-connector-j JAR is added to Libraries.");
@@ -35,23 +48,100 @@ public class DatabaseConnection {
             System.err.println("Check if Docker MySQL is running with: docker ps");
             e.printStackTrace();
         }
-        return connection;
+        return null;
     }
-    
+
     /**
-     * Close database connection
+     * Get the shared connection pool, starting it on first use
      */
-    public static void closeConnection() {
+    public static synchronized ConnectionPool getDataSource() throws ClassNotFoundException {
+        if (pool == null || pool.isClosed()) {
+            // Step 1: Load MySQL JDBC Driver
+            Class.forName("com.mysql.cj.jdbc.Driver");
+
+            // Step 2: Start the pool (it opens MIN_IDLE connections in the background)
+            pool = new ConnectionPool(URL, connectionProperties(),
+                                      MIN_IDLE, MAX_IDLE, MAX_TOTAL,
+                                      BORROW_TIMEOUT_MS, MAX_LIFETIME_MS,
+                                      IDLE_TIMEOUT_MS, VALIDATION_TIMEOUT_S,
+                                      STATEMENT_CACHE_SIZE);
+            System.out.println("✅ Connection pool started (max " + MAX_TOTAL + " connections)");
+            DaoMetrics.getInstance().start();
+
+            // Step 3: Bring the schema up to date before any DAO query runs
+            if (MIGRATE_ON_START) {
+                migrateSchema();
+            }
+
+            // Step 4: Drop delete tombstones no client can still need, off the caller's thread
+            Thread.ofVirtual().name("tombstone-prune").start(ChangeLog::pruneDeletes);
+        }
+        return pool;
+    }
+
+    /**
+     * Run pending schema migrations; the app keeps going on the old schema if they fail
+     */
+    private static void migrateSchema() {
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("✅ Database connection closed.");
+            int applied = new SchemaMigrator(pool).migrate();
+            if (applied > 0) {
+                System.out.println("✅ Database schema upgraded to version " + SchemaMigrator.getLatestVersion());
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Schema migration failed!");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Driver settings for pooled connections
+     * Server-side prepares let the pool's statement cache keep each query
+     * parsed on the server; local session state keeps the pool's
+     * autocommit/read-only checks from costing a round trip; rewritten
+     * batches send a whole executeBatch() of inserts as one multi-row INSERT.
+     */
+    private static Properties connectionProperties() {
+        Properties props = new Properties();
+        props.setProperty("user", USER);
+        props.setProperty("password", PASSWORD);
+        props.setProperty("useServerPrepStmts", "true");
+        props.setProperty("useLocalSessionState", "true");
+        props.setProperty("rewriteBatchedStatements", "true");
+        return props;
+    }
+
+    /**
+     * Current database time - the starting watermark for getChangedSince()
+     * Returns null if the database cannot be reached.
+     */
+    public static Timestamp getServerTime() {
+        try (Connection conn = getConnection()) {
+            if (conn == null) {
+                throw new SQLException("No database connection");
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT CURRENT_TIMESTAMP(3)");
+                 ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getTimestamp(1) : null;
             }
         } catch (SQLException e) {
+            System.err.println("❌ Error reading database time:");
             e.printStackTrace();
+            return null;
         }
     }
-    
+
+    /**
+     * Close database connection
+     * Shuts the pool down; connections still borrowed close when returned.
+     */
+    public static synchronized void closeConnection() {
+        if (pool != null && !pool.isClosed()) {
+            pool.close();
+            System.out.println("✅ Database connection pool closed.");
+        }
+    }
+
     /**
      * Test method - Run this to verify database connection works
      */
@@ -59,13 +149,20 @@ public class DatabaseConnection {
         System.out.println("========================================");
         System.out.println("Testing Database Connection...");
         System.out.println("========================================");
-        
-        Connection conn = DatabaseConnection.getConnection();
-        
-        if (conn != null) {
+
+        boolean connected = false;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            connected = conn != null && conn.isValid(VALIDATION_TIMEOUT_S);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        if (connected) {
             System.out.println("✅✅✅ CONNECTION TEST SUCCESSFUL! ✅✅✅");
             System.out.println("Your Java application can communicate with MySQL!");
             System.out.println("You're ready to create DAO classes!");
+            System.out.println("Statement cache: " + pool.getStatementCacheHits() + " hits / " +
+                               pool.getStatementCacheMisses() + " misses");
             closeConnection();
         } else {
             System.out.println("❌❌❌ CONNECTION TEST FAILED! ❌❌❌");
@@ -74,7 +171,7 @@ public class DatabaseConnection {
             System.out.println("2. Check MySQL JAR is in Libraries folder");
             System.out.println("3. Check password is 'password123' in docker-compose.yml");
         }
-        
+
         System.out.println("========================================");
     }
 }
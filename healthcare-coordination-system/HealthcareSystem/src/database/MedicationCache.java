@@ -0,0 +1,160 @@
+package database;
+
+import model.Medication;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MedicationCache - Shared in-memory copy of the medication catalog
+ * The catalog is read every time a prescription form or restock combo box
+ * fills but changes rarely, so the whole list is loaded once, indexed by ID
+ * and reused until it is older than healthcare.cache.medicationTtlSeconds
+ * (default 600). MedicationDAO invalidates it on every catalog write, so
+ * this instance never serves stale data; the TTL only bounds how long a
+ * change made by another app instance takes to show up.
+ *
+ * Readers never block each other. Concurrent misses share one load.
+ * The returned objects are shared - treat them as read-only.
+ */
+public class MedicationCache {
+
+    /**
+     * Loads the full catalog; throws instead of returning an empty list so
+     * a failed query is never cached
+     */
+    public interface Loader {
+        List<Medication> load() throws SQLException;
+    }
+
+    private final Loader loader;
+    private final long ttlMillis;
+
+    private volatile Catalog catalog; // null when empty or invalidated
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+
+    public MedicationCache(Loader loader, long ttlMillis) {
+        this.loader = loader;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Every medication, sorted by name
+     */
+    public List<Medication> getAll() throws SQLException {
+        return current().medications;
+    }
+
+    /**
+     * One medication by ID, or null if the catalog has no such ID
+     */
+    public Medication getById(int medicationId) throws SQLException {
+        return current().byId.get(medicationId);
+    }
+
+    /**
+     * Prefix index over the cached catalog, built on first use
+     * A new index comes with every reload, so it is never staler than getAll().
+     */
+    public MedicationPrefixIndex getPrefixIndex() throws SQLException {
+        return current().prefixIndex();
+    }
+
+    /**
+     * Drop the cached catalog; the next read reloads it
+     * Waits for a load in progress, which may have missed the write.
+     */
+    public synchronized void invalidate() {
+        catalog = null;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getLoadCount() {
+        return loads.get();
+    }
+
+    /**
+     * Share of reads served without a query (0.0 before the first read)
+     */
+    public double getHitRate() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MedicationCache[hits=%d, misses=%d, loads=%d, hitRate=%.1f%%]",
+                             hits.get(), misses.get(), loads.get(), getHitRate() * 100);
+    }
+
+    private Catalog current() throws SQLException {
+        Catalog cached = catalog;
+        if (cached != null && !cached.isExpired(ttlMillis)) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+        return reload();
+    }
+
+    /**
+     * Load the catalog unless another thread just did while we waited
+     */
+    private synchronized Catalog reload() throws SQLException {
+        Catalog cached = catalog;
+        if (cached != null && !cached.isExpired(ttlMillis)) {
+            return cached;
+        }
+
+        loads.incrementAndGet();
+        catalog = new Catalog(loader.load());
+        return catalog;
+    }
+
+    /**
+     * One loaded copy of the catalog
+     */
+    private static final class Catalog {
+        private final List<Medication> medications;
+        private final Map<Integer, Medication> byId;
+        private final long loadedAt = System.currentTimeMillis();
+        private volatile MedicationPrefixIndex prefixIndex;
+
+        Catalog(List<Medication> medications) {
+            this.medications = Collections.unmodifiableList(medications);
+            Map<Integer, Medication> index = new HashMap<>();
+            for (Medication medication : medications) {
+                index.put(medication.getMedicationId(), medication);
+            }
+            this.byId = index;
+        }
+
+        MedicationPrefixIndex prefixIndex() {
+            MedicationPrefixIndex index = prefixIndex;
+            if (index == null) {
+                // Racing threads may each build one; they are identical, any will do
+                index = new MedicationPrefixIndex(medications);
+                prefixIndex = index;
+            }
+            return index;
+        }
+
+        boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt > ttlMillis;
+        }
+    }
+}
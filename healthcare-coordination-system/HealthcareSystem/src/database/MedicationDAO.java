@@ -1,5 +1,6 @@
 package database;
 
+import model.InventoryItem;
 import model.Medication;
 import java.sql.*;
 import java.util.ArrayList;
@@ -11,23 +12,27 @@ import java.util.List;
  */
 public class MedicationDAO {
     
+    // Catalog reads are served from memory; every write below invalidates it
+    private static final long CATALOG_TTL_MILLIS =
+            Long.getLong("healthcare.cache.medicationTtlSeconds", 600) * 1000L;
+    private static final MedicationCache CATALOG =
+            new MedicationCache(() -> new MedicationDAO().queryAllMedications(), CATALOG_TTL_MILLIS);
+    
+    /**
+     * The shared catalog cache (for hit-rate metrics)
+     */
+    public static MedicationCache getCatalogCache() {
+        return CATALOG;
+    }
+    
     /**
      * CREATE - Add new medication to catalog
      */
     public boolean createMedication(Medication medication) {
-        String sql = "INSERT INTO medications (medication_name, generic_name, category, " +
-                     "dosage_form, strength, manufacturer, unit_price) VALUES (?, ?, ?, ?, ?, ?, ?)";
-        
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = conn.prepareStatement(MedicationMapper.INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
             
-            stmt.setString(1, medication.getMedicationName());
-            stmt.setString(2, medication.getGenericName());
-            stmt.setString(3, medication.getCategory());
-            stmt.setString(4, medication.getDosageForm());
-            stmt.setString(5, medication.getStrength());
-            stmt.setString(6, medication.getManufacturer());
-            stmt.setBigDecimal(7, medication.getUnitPrice());
+            MedicationMapper.bindInsert(stmt, medication);
             
             int rowsAffected = stmt.executeUpdate();
             
@@ -36,6 +41,7 @@ public class MedicationDAO {
                 if (generatedKeys.next()) {
                     medication.setMedicationId(generatedKeys.getInt(1));
                 }
+                CATALOG.invalidate();
                 System.out.println("✅ Medication created: " + medication.getMedicationName());
                 return true;
             }
@@ -50,34 +56,35 @@ public class MedicationDAO {
     
     /**
      * READ - Get all medications
+     * Served from the shared catalog cache; the returned objects are shared,
+     * so treat them as read-only.
      */
     public List<Medication> getAllMedications() {
-        List<Medication> medications = new ArrayList<>();
-        String sql = "SELECT * FROM medications ORDER BY medication_name";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                Medication medication = extractMedicationFromResultSet(rs);
-                medications.add(medication);
-            }
-            
-            System.out.println("✅ Retrieved " + medications.size() + " medications");
-            
+        try {
+            return CATALOG.getAll();
         } catch (SQLException e) {
             System.err.println("❌ Error retrieving medications:");
             e.printStackTrace();
+            return new ArrayList<>();
         }
-        
-        return medications;
     }
     
     /**
      * READ - Get medication by ID
+     * Looks in the catalog cache first; an ID it does not know yet (e.g. just
+     * added by another instance) is read from the database.
      */
     public Medication getMedicationById(int medicationId) {
+        try {
+            Medication medication = CATALOG.getById(medicationId);
+            if (medication != null) {
+                return medication;
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error retrieving medication catalog:");
+            e.printStackTrace();
+        }
+        
         String sql = "SELECT * FROM medications WHERE medication_id = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
@@ -87,7 +94,7 @@ public class MedicationDAO {
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                return extractMedicationFromResultSet(rs);
+                return MedicationMapper.INSTANCE.bind(rs).read(rs);
             }
             
         } catch (SQLException e) {
@@ -99,74 +106,115 @@ public class MedicationDAO {
     }
     
     /**
-     * READ - Search medications by name or category
+     * Load the whole catalog from the database (the cache's loader)
      */
-    public List<Medication> searchMedications(String searchTerm) {
+    private List<Medication> queryAllMedications() throws SQLException {
         List<Medication> medications = new ArrayList<>();
-        String sql = "SELECT * FROM medications WHERE medication_name LIKE ? OR category LIKE ? " +
-                     "ORDER BY medication_name";
+        String sql = "SELECT * FROM medications ORDER BY medication_name";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            String searchPattern = "%" + searchTerm + "%";
-            stmt.setString(1, searchPattern);
-            stmt.setString(2, searchPattern);
-            
-            ResultSet rs = stmt.executeQuery();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
             
+            RowMapper.Reader<Medication> reader = MedicationMapper.INSTANCE.bind(rs);
             while (rs.next()) {
-                Medication medication = extractMedicationFromResultSet(rs);
+                Medication medication = reader.read(rs);
                 medications.add(medication);
             }
-            
-            System.out.println("✅ Found " + medications.size() + " medications matching: " + searchTerm);
-            
-        } catch (SQLException e) {
-            System.err.println("❌ Error searching medications:");
-            e.printStackTrace();
         }
         
+        System.out.println("✅ Retrieved " + medications.size() + " medications");
         return medications;
     }
     
+    /**
+     * READ - Search medications by name or category
+     * Filters the cached catalog in memory instead of a leading-wildcard LIKE.
+     */
+    public List<Medication> searchMedications(String searchTerm) {
+        List<Medication> medications = new ArrayList<>();
+        String term = MedicationPrefixIndex.normalize(searchTerm);
+        
+        for (Medication medication : getAllMedications()) {
+            if (MedicationPrefixIndex.normalize(medication.getMedicationName()).contains(term) ||
+                MedicationPrefixIndex.normalize(medication.getCategory()).contains(term)) {
+                medications.add(medication);
+            }
+        }
+        
+        System.out.println("✅ Found " + medications.size() + " medications matching: " + searchTerm);
+        return medications;
+    }
+    
+    /**
+     * READ - Type-ahead lookup: best limit matches for what has been typed so far
+     * Served from the catalog's prefix index; no database round trip once cached.
+     */
+    public List<Medication> searchMedicationsByPrefix(String prefix, int limit) {
+        return getMedicationPrefixIndex().search(prefix, limit);
+    }
+    
+    /**
+     * READ - The prefix index itself (for MedicationTypeAhead)
+     * Empty if the catalog could not be loaded.
+     */
+    public MedicationPrefixIndex getMedicationPrefixIndex() {
+        try {
+            return CATALOG.getPrefixIndex();
+        } catch (SQLException e) {
+            System.err.println("❌ Error retrieving medications:");
+            e.printStackTrace();
+            return new MedicationPrefixIndex(new ArrayList<>());
+        }
+    }
+    
     /**
      * READ - Get pharmacy inventory with stock levels
      * Work Request #3: Check medication availability
+     * One query for the whole catalog - medications without an inventory row show 0 stock
+     * A medication's lots are summed into one row: total stock, the lowest
+     * reorder level, the earliest expiry and the latest restock.
      */
-    public List<Medication> getMedicationsWithInventory() {
-        List<Medication> medications = new ArrayList<>();
-        String sql = "SELECT m.*, pi.quantity_available, pi.reorder_level " +
+    public List<InventoryItem> getMedicationsWithInventory() {
+        List<InventoryItem> items = new ArrayList<>();
+        String sql = "SELECT m.*, " +
+                     "COALESCE(pi.quantity_available, 0) as quantity_available, " +
+                     "COALESCE(pi.reorder_level, 0) as reorder_level, " +
+                     "pi.expiry_date, pi.last_restocked " +
                      "FROM medications m " +
-                     "LEFT JOIN pharmacy_inventory pi ON m.medication_id = pi.medication_id " +
+                     "LEFT JOIN (SELECT medication_id, SUM(quantity_available) as quantity_available, " +
+                     "MIN(reorder_level) as reorder_level, MIN(expiry_date) as expiry_date, " +
+                     "MAX(last_restocked) as last_restocked " +
+                     "FROM pharmacy_inventory GROUP BY medication_id) pi " +
+                     "ON m.medication_id = pi.medication_id " +
                      "ORDER BY m.medication_name";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
             
+            RowMapper.Reader<InventoryItem> reader = InventoryItemMapper.INSTANCE.bind(rs);
             while (rs.next()) {
-                Medication medication = extractMedicationFromResultSet(rs);
-                // Note: quantity_available and reorder_level would need additional fields in Medication model
-                // For now, we just get the medication info
-                medications.add(medication);
+                items.add(reader.read(rs));
             }
             
-            System.out.println("✅ Retrieved " + medications.size() + " medications with inventory");
+            System.out.println("✅ Retrieved " + items.size() + " medications with inventory");
             
         } catch (SQLException e) {
             System.err.println("❌ Error retrieving inventory:");
             e.printStackTrace();
         }
         
-        return medications;
+        return items;
     }
     
     /**
      * READ - Check if medication is in stock
+     * Total over all of the medication's inventory lots.
      */
     public int getMedicationStock(int medicationId) {
-        String sql = "SELECT quantity_available FROM pharmacy_inventory WHERE medication_id = ?";
+        String sql = "SELECT COALESCE(SUM(quantity_available), 0) as quantity_available " +
+                     "FROM pharmacy_inventory WHERE medication_id = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -189,25 +237,47 @@ public class MedicationDAO {
     }
     
     /**
-     * UPDATE - Update medication stock after prescription filled
+     * UPDATE - Update medication stock after a restock or a dispense
+     * pharmacy_inventory holds one row per lot. A positive change is a
+     * delivery and becomes a new lot (no expiry date known, restocked today,
+     * the medication's lowest reorder level). A negative change is taken
+     * from the lots earliest-expiring first, see takeStock(); it changes
+     * nothing and returns false if the lots together hold too little.
      */
     public boolean updateMedicationStock(int medicationId, int quantityChange) {
-        String sql = "UPDATE pharmacy_inventory SET quantity_available = quantity_available + ? " +
-                     "WHERE medication_id = ?";
+        String addSql = "INSERT INTO pharmacy_inventory (medication_id, quantity_available, reorder_level, last_restocked) " +
+                        "SELECT ?, ?, COALESCE(MIN(reorder_level), 10), CURRENT_DATE " +
+                        "FROM pharmacy_inventory WHERE medication_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, quantityChange); // Can be negative when dispensing
-            stmt.setInt(2, medicationId);
-            
-            int rowsAffected = stmt.executeUpdate();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            if (quantityChange >= 0) {
+                try (PreparedStatement stmt = conn.prepareStatement(addSql)) {
+                    stmt.setInt(1, medicationId);
+                    stmt.setInt(2, quantityChange);
+                    stmt.setInt(3, medicationId);
+                    stmt.executeUpdate();
+                }
+                System.out.println("✅ Stock updated for medication ID " + medicationId + " (new lot of " +
+                                   quantityChange + ")");
+                return true;
+            }
             
-            if (rowsAffected > 0) {
-                System.out.println("✅ Stock updated for medication ID " + medicationId);
+            conn.setAutoCommit(false);
+            try {
+                int lots = takeStock(conn, medicationId, -quantityChange);
+                if (lots <= 0) {
+                    conn.rollback();
+                    System.err.println("❌ Stock not updated for medication ID " + medicationId +
+                                       ": fewer than " + -quantityChange + " units on hand");
+                    return false;
+                }
+                conn.commit();
+                System.out.println("✅ Stock updated for medication ID " + medicationId + " (" + lots + " lots)");
                 return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
-            return false;
             
         } catch (SQLException e) {
             System.err.println("❌ Error updating stock:");
@@ -216,6 +286,62 @@ public class MedicationDAO {
         }
     }
     
+    /**
+     * Take quantity out of a medication's inventory lots, earliest-expiring first
+     * Runs in the caller's transaction on conn; the lots stay locked (FOR
+     * UPDATE) until it ends. Returns the number of lots drawn from, 0 if the
+     * medication has no lots at all (it is not stock-tracked), or -1, changing
+     * nothing, if all its lots together hold less than quantity.
+     */
+    static int takeStock(Connection conn, int medicationId, int quantity) throws SQLException {
+        String lotsSql = "SELECT inventory_id, quantity_available FROM pharmacy_inventory " +
+                         "WHERE medication_id = ? " +
+                         "ORDER BY expiry_date IS NULL, expiry_date ASC, inventory_id ASC " +
+                         "FOR UPDATE";
+        String takeSql = "UPDATE pharmacy_inventory SET quantity_available = quantity_available - ? " +
+                         "WHERE inventory_id = ?";
+        
+        List<int[]> lots = new ArrayList<>(); // {inventory_id, quantity_available}
+        int onHand = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(lotsSql)) {
+            stmt.setInt(1, medicationId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int available = rs.getInt("quantity_available");
+                    lots.add(new int[] {rs.getInt("inventory_id"), available});
+                    onHand += Math.max(0, available);
+                }
+            }
+        }
+        if (lots.isEmpty()) {
+            return 0;
+        }
+        if (onHand < quantity) {
+            return -1;
+        }
+        
+        int used = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(takeSql)) {
+            int remaining = quantity;
+            for (int[] lot : lots) {
+                if (remaining == 0) {
+                    break;
+                }
+                int take = Math.min(remaining, lot[1]);
+                if (take <= 0) {
+                    continue;
+                }
+                stmt.setInt(1, take);
+                stmt.setInt(2, lot[0]);
+                stmt.addBatch();
+                remaining -= take;
+                used++;
+            }
+            stmt.executeBatch();
+        }
+        return used;
+    }
+    
     /**
      * UPDATE - Update medication information
      */
@@ -239,6 +365,7 @@ public class MedicationDAO {
             int rowsAffected = stmt.executeUpdate();
             
             if (rowsAffected > 0) {
+                CATALOG.invalidate();
                 System.out.println("✅ Medication updated: " + medication.getMedicationName());
                 return true;
             }
@@ -264,6 +391,7 @@ public class MedicationDAO {
             int rowsAffected = stmt.executeUpdate();
             
             if (rowsAffected > 0) {
+                CATALOG.invalidate();
                 System.out.println("✅ Medication deleted successfully");
                 return true;
             }
@@ -276,22 +404,6 @@ public class MedicationDAO {
         }
     }
     
-    /**
-     * Helper method to extract Medication object from ResultSet
-     */
-    private Medication extractMedicationFromResultSet(ResultSet rs) throws SQLException {
-        Medication medication = new Medication();
-        medication.setMedicationId(rs.getInt("medication_id"));
-        medication.setMedicationName(rs.getString("medication_name"));
-        medication.setGenericName(rs.getString("generic_name"));
-        medication.setCategory(rs.getString("category"));
-        medication.setDosageForm(rs.getString("dosage_form"));
-        medication.setStrength(rs.getString("strength"));
-        medication.setManufacturer(rs.getString("manufacturer"));
-        medication.setUnitPrice(rs.getBigDecimal("unit_price"));
-        return medication;
-    }
-    
     /**
      * TEST METHOD
      */
@@ -312,6 +424,13 @@ public class MedicationDAO {
         }
         System.out.println();
         
+        // Test 1b: Second read comes from the catalog cache
+        System.out.println("TEST 1b: Get all medications again (cached)");
+        medicationDAO.getAllMedications();
+        medicationDAO.getMedicationById(1);
+        System.out.println(getCatalogCache());
+        System.out.println();
+        
         // Test 2: Check stock level
         System.out.println("TEST 2: Check stock for Amoxicillin (ID=1)");
         int stock = medicationDAO.getMedicationStock(1);
@@ -324,6 +443,21 @@ public class MedicationDAO {
         System.out.println("Found " + searchResults.size() + " tablet medications");
         System.out.println();
         
+        // Test 3b: Type-ahead prefix lookup (in memory)
+        System.out.println("TEST 3b: Top 5 medications starting with 'am'");
+        for (Medication m : medicationDAO.searchMedicationsByPrefix("am", 5)) {
+            System.out.println("   - " + m.getMedicationName() + " " + m.getStrength());
+        }
+        System.out.println();
+        
+        // Test 4: Inventory with stock levels (single query)
+        System.out.println("TEST 4: Get inventory with stock levels");
+        for (InventoryItem item : medicationDAO.getMedicationsWithInventory()) {
+            System.out.println("   - " + item.getMedicationName() + ": " + item.getQuantityAvailable() +
+                             " units (reorder at " + item.getReorderLevel() + ")");
+        }
+        System.out.println();
+        
         System.out.println("========================================");
         System.out.println("All MedicationDAO tests completed!");
         System.out.println("========================================");
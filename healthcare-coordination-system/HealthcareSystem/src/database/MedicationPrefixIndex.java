@@ -0,0 +1,163 @@
+package database;
+
+import model.Medication;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * MedicationPrefixIndex - Sorted-array prefix index over the medication catalog
+ * Built from the cached catalog (see MedicationCache) and immutable once
+ * built, so any number of threads can search it. A search binary-searches
+ * to the first key starting with the typed prefix and reads matches off in
+ * order, so the top K cost O(log n + K) whatever the catalog size.
+ *
+ * Matches are ranked by where the prefix matched: medication name first,
+ * then generic name, then any later word of either ("clav" finds
+ * "Amoxicillin Clavulanate"), then category - alphabetical within each.
+ */
+public class MedicationPrefixIndex {
+
+    private static final Pattern WORD = Pattern.compile("[^\\s\\-/(),]+");
+
+    private final Tier[] tiers;
+    private final int medicationCount;
+
+    public MedicationPrefixIndex(List<Medication> medications) {
+        List<Tier.Builder> builders = Arrays.asList(
+            new Tier.Builder(), new Tier.Builder(), new Tier.Builder(), new Tier.Builder());
+
+        for (Medication medication : medications) {
+            String name = normalize(medication.getMedicationName());
+            String generic = normalize(medication.getGenericName());
+            builders.get(0).add(name, medication);
+            builders.get(1).add(generic, medication);
+            addLaterWords(builders.get(2), name, medication);
+            addLaterWords(builders.get(2), generic, medication);
+            builders.get(3).add(normalize(medication.getCategory()), medication);
+        }
+
+        tiers = new Tier[builders.size()];
+        for (int i = 0; i < tiers.length; i++) {
+            tiers[i] = builders.get(i).build();
+        }
+        medicationCount = medications.size();
+    }
+
+    /**
+     * Up to limit medications matching prefix, best ranked first
+     */
+    public List<Medication> search(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        List<Medication> matches = new ArrayList<>(Math.min(limit, 16));
+        Set<Integer> seen = new HashSet<>();
+        for (Tier tier : tiers) {
+            for (int i = tier.firstAtLeast(key); i < tier.keys.length && tier.keys[i].startsWith(key); i++) {
+                Medication medication = tier.medications[i];
+                if (seen.add(medication.getMedicationId())) {
+                    matches.add(medication);
+                    if (matches.size() == limit) {
+                        return matches;
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Number of medications indexed
+     */
+    public int size() {
+        return medicationCount;
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static void addLaterWords(Tier.Builder tier, String text, Medication medication) {
+        Matcher word = WORD.matcher(text);
+        boolean first = true;
+        while (word.find()) {
+            if (!first) {
+                // Key runs from this word to the end so a multi-word prefix still matches
+                tier.add(text.substring(word.start()), medication);
+            }
+            first = false;
+        }
+    }
+
+    /**
+     * One ranking level: keys sorted ascending, each with its medication
+     */
+    private static final class Tier {
+        private final String[] keys;
+        private final Medication[] medications;
+
+        private Tier(String[] keys, Medication[] medications) {
+            this.keys = keys;
+            this.medications = medications;
+        }
+
+        /**
+         * Index of the first key >= key (keys.length if none)
+         */
+        int firstAtLeast(String key) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid].compareTo(key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static final class Builder {
+            private final List<String> keys = new ArrayList<>();
+            private final List<Medication> medications = new ArrayList<>();
+
+            void add(String key, Medication medication) {
+                if (!key.isEmpty()) {
+                    keys.add(key);
+                    medications.add(medication);
+                }
+            }
+
+            Tier build() {
+                Integer[] order = new Integer[keys.size()];
+                for (int i = 0; i < order.length; i++) {
+                    order[i] = i;
+                }
+                Arrays.sort(order, Comparator.<Integer, String>comparing(keys::get)
+                                             .thenComparingInt(i -> medications.get(i).getMedicationId()));
+
+                String[] sortedKeys = new String[order.length];
+                Medication[] sortedMedications = new Medication[order.length];
+                for (int i = 0; i < order.length; i++) {
+                    sortedKeys[i] = keys.get(order[i]);
+                    sortedMedications[i] = medications.get(order[i]);
+                }
+                return new Tier(sortedKeys, sortedMedications);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package database;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Page - One slice of a keyset-paginated DAO query
+ * Pass getLast() back to the same DAO method to fetch the next page; the
+ * query seeks past that row instead of counting an OFFSET, so page 5,000
+ * costs the same as page 1.
+ */
+public class Page<T> {
+
+    // Upper bound on rows per page, whatever the caller asks for
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    private final List<T> items;
+    private final boolean hasMore;
+
+    public Page(List<T> items, boolean hasMore) {
+        this.items = Collections.unmodifiableList(items);
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * Clamp a requested page size to 1..MAX_PAGE_SIZE
+     */
+    public static int clampPageSize(int pageSize) {
+        return Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    /**
+     * True when at least one more row follows this page
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    /**
+     * Last row of the page - the cursor for the next call, or null if empty
+     */
+    public T getLast() {
+        return items.isEmpty() ? null : items.get(items.size() - 1);
+    }
+}
@@ -0,0 +1,678 @@
+package database;
+
+import model.Patient;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BooleanSupplier;
+
+/**
+ * PatientCsvImporter - Bulk-loads patients from a CSV file
+ * For onboarding a clinic with an existing patient list. The file is
+ * streamed through a FileChannel and split into fields straight from the
+ * byte buffer (quotes, escaped quotes and line breaks inside quotes are
+ * handled); only the values actually inserted become Strings.
+ *
+ * The first line must name the columns: first_name, last_name and
+ * date_of_birth (yyyy-MM-dd) are required; gender, phone, email, address,
+ * blood_group and allergies are optional. Column order does not matter and
+ * "First Name" works as well as first_name.
+ *
+ * Valid rows are inserted in batches (one multi-row INSERT each) and
+ * committed every rowsPerTransaction rows, so a failure loses at most one
+ * chunk and an import of 200k patients is not one huge transaction. If a
+ * chunk is refused by the database, its rows are retried one by one and
+ * only the offending rows are rejected. Rejected rows are reported by line
+ * number and never stop the import.
+ */
+public class PatientCsvImporter {
+
+    // Rows per executeBatch() (one multi-row INSERT) / rows per commit
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    public static final int DEFAULT_ROWS_PER_TRANSACTION = 10_000;
+
+    // Rejected rows listed in the result (all of them are counted)
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    // Columns read from the file, with their size in the patients table (0 = TEXT)
+    private static final String[] COLUMNS = {"first_name", "last_name", "date_of_birth", "gender",
+                                             "phone", "email", "address", "blood_group", "allergies"};
+    private static final int[] MAX_LENGTHS = {50, 50, 0, 10, 20, 100, 200, 5, 0};
+    private static final int FIRST_NAME = 0, LAST_NAME = 1, DATE_OF_BIRTH = 2, GENDER = 3, PHONE = 4,
+                             EMAIL = 5, ADDRESS = 6, BLOOD_GROUP = 7, ALLERGIES = 8;
+
+    private static final String[] GENDERS = {"Male", "Female", "Other"};
+    private static final String[] BLOOD_GROUPS = {"A+", "A-", "B+", "B-", "AB+", "AB-", "O+", "O-"};
+
+    /**
+     * Told after every committed chunk (on the importing thread)
+     */
+    public interface ProgressListener {
+        void progress(long bytesRead, long totalBytes, int imported, int rejected);
+    }
+
+    private final int batchSize;
+    private final int rowsPerTransaction;
+    private final PatientSearchIndex searchIndex = PatientSearchIndex.getInstance();
+
+    public PatientCsvImporter() {
+        this(DEFAULT_BATCH_SIZE, DEFAULT_ROWS_PER_TRANSACTION);
+    }
+
+    public PatientCsvImporter(int batchSize, int rowsPerTransaction) {
+        if (batchSize < 1 || rowsPerTransaction < batchSize) {
+            throw new IllegalArgumentException("Invalid import sizes: batchSize=" + batchSize +
+                                               ", rowsPerTransaction=" + rowsPerTransaction);
+        }
+        this.batchSize = batchSize;
+        this.rowsPerTransaction = rowsPerTransaction;
+    }
+
+    /**
+     * Import every valid row of csvFile
+     * Interrupting the thread stops the import (checked after each chunk;
+     * a read in progress fails with an IOException). Chunks already
+     * committed stay imported.
+     *
+     * @param listener may be null
+     * @throws IOException  if the file cannot be read or its header lacks a required column
+     * @throws SQLException if the database cannot be reached
+     */
+    public ImportResult importFile(Path csvFile, ProgressListener listener) throws IOException, SQLException {
+        return importFile(csvFile, listener, () -> false);
+    }
+
+    /**
+     * Same as importFile(csvFile, listener), stopping once stop returns true
+     * stop is asked after each committed chunk, so the import always ends at
+     * a chunk boundary without interrupting the thread - on a virtual thread
+     * an interrupt during a JDBC call would close the connection's socket.
+     */
+    public ImportResult importFile(Path csvFile, ProgressListener listener, BooleanSupplier stop)
+            throws IOException, SQLException {
+        long started = System.currentTimeMillis();
+        ImportResult result = new ImportResult();
+
+        try (CsvReader reader = new CsvReader(FileChannel.open(csvFile, StandardOpenOption.READ))) {
+            if (!reader.next()) {
+                throw new IOException("File is empty: " + csvFile);
+            }
+            int[] fieldOf = mapHeader(reader);
+
+            List<Patient> chunk = new ArrayList<>(rowsPerTransaction);
+            List<Long> chunkLines = new ArrayList<>(rowsPerTransaction);
+            while (reader.next()) {
+                if (reader.isBlank()) {
+                    continue;
+                }
+                Patient patient = new Patient();
+                String error = parseRow(reader, fieldOf, patient);
+                if (error != null) {
+                    result.reject(reader.getLineNumber(), error);
+                    continue;
+                }
+                chunk.add(patient);
+                chunkLines.add(reader.getLineNumber());
+
+                if (chunk.size() == rowsPerTransaction) {
+                    insertChunk(chunk, chunkLines, result);
+                    chunk.clear();
+                    chunkLines.clear();
+                    if (listener != null) {
+                        listener.progress(reader.getBytesRead(), reader.getSize(),
+                                          result.getImportedCount(), result.getRejectedCount());
+                    }
+                    if (stop.getAsBoolean() || Thread.currentThread().isInterrupted()) {
+                        result.cancelled = true;
+                        break;
+                    }
+                }
+            }
+            if (!chunk.isEmpty() && !result.cancelled) {
+                insertChunk(chunk, chunkLines, result);
+            }
+            if (listener != null) {
+                listener.progress(reader.getBytesRead(), reader.getSize(),
+                                  result.getImportedCount(), result.getRejectedCount());
+            }
+        }
+
+        result.elapsedMillis = System.currentTimeMillis() - started;
+        System.out.println("✅ Patient import " + (result.cancelled ? "stopped: " : "finished: ") + result);
+        return result;
+    }
+
+    /**
+     * Column index in the file for each of COLUMNS (-1 if absent)
+     */
+    private int[] mapHeader(CsvReader reader) throws IOException {
+        int[] fieldOf = new int[COLUMNS.length];
+        Arrays.fill(fieldOf, -1);
+        for (int field = 0; field < reader.getFieldCount(); field++) {
+            String name = reader.getString(field).toLowerCase(Locale.ROOT).replaceAll("[\\s\\-]+", "_");
+            for (int column = 0; column < COLUMNS.length; column++) {
+                if (COLUMNS[column].equals(name) || COLUMNS[column].replace("_", "").equals(name)) {
+                    fieldOf[column] = field;
+                }
+            }
+        }
+        for (int column : new int[] {FIRST_NAME, LAST_NAME, DATE_OF_BIRTH}) {
+            if (fieldOf[column] == -1) {
+                throw new IOException("CSV header has no " + COLUMNS[column] + " column");
+            }
+        }
+        return fieldOf;
+    }
+
+    /**
+     * Fill patient from the current row; returns why the row is invalid, or null
+     */
+    private String parseRow(CsvReader reader, int[] fieldOf, Patient patient) {
+        for (int column = 0; column < COLUMNS.length; column++) {
+            int field = fieldOf[column];
+            if (MAX_LENGTHS[column] > 0 && field != -1 && reader.length(field) > MAX_LENGTHS[column]
+                    && reader.getString(field).length() > MAX_LENGTHS[column]) {
+                return COLUMNS[column] + " is longer than " + MAX_LENGTHS[column] + " characters";
+            }
+        }
+
+        if (reader.length(fieldOf[FIRST_NAME]) == 0 || reader.length(fieldOf[LAST_NAME]) == 0) {
+            return "first_name and last_name are required";
+        }
+
+        Date dateOfBirth = reader.getDate(fieldOf[DATE_OF_BIRTH]);
+        if (dateOfBirth == null) {
+            return "date_of_birth must be a real date in yyyy-MM-dd form, not in the future";
+        }
+
+        String gender = null;
+        if (reader.length(fieldOf[GENDER]) > 0) {
+            gender = reader.match(fieldOf[GENDER], GENDERS, true);
+            if (gender == null) {
+                return "gender must be Male, Female or Other (or M/F/O)";
+            }
+        }
+
+        String bloodGroup = null;
+        if (reader.length(fieldOf[BLOOD_GROUP]) > 0) {
+            bloodGroup = reader.match(fieldOf[BLOOD_GROUP], BLOOD_GROUPS, false);
+            if (bloodGroup == null) {
+                return "blood_group must be one of " + String.join(", ", BLOOD_GROUPS);
+            }
+        }
+
+        patient.setFirstName(reader.getString(fieldOf[FIRST_NAME]));
+        patient.setLastName(reader.getString(fieldOf[LAST_NAME]));
+        patient.setDateOfBirth(dateOfBirth);
+        patient.setGender(gender);
+        patient.setPhone(reader.getOptionalString(fieldOf[PHONE]));
+        patient.setEmail(reader.getOptionalString(fieldOf[EMAIL]));
+        patient.setAddress(reader.getOptionalString(fieldOf[ADDRESS]));
+        patient.setBloodGroup(bloodGroup);
+        patient.setAllergies(reader.getOptionalString(fieldOf[ALLERGIES]));
+        return null;
+    }
+
+    /**
+     * Insert one chunk in one transaction, falling back to row by row if it is refused
+     */
+    private void insertChunk(List<Patient> chunk, List<Long> lines, ImportResult result) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            if (conn == null) {
+                throw new SQLException("No database connection");
+            }
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement stmt = conn.prepareStatement(PatientMapper.INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                try {
+                    for (int start = 0; start < chunk.size(); start += batchSize) {
+                        int end = Math.min(start + batchSize, chunk.size());
+                        for (int i = start; i < end; i++) {
+                            PatientMapper.bindInsert(stmt, chunk.get(i));
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                        readKeys(stmt, chunk, start);
+                    }
+                    conn.commit();
+                    imported(chunk, result);
+                    return;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    stmt.clearBatch();
+                    System.err.println("❌ Patient import chunk refused, retrying row by row: " + e.getMessage());
+                }
+
+                // A failed INSERT does not end the transaction, so good rows still commit together
+                List<Patient> inserted = new ArrayList<>(chunk.size());
+                try {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        Patient patient = chunk.get(i);
+                        try {
+                            PatientMapper.bindInsert(stmt, patient);
+                            stmt.executeUpdate();
+                            readKeys(stmt, chunk, i);
+                            inserted.add(patient);
+                        } catch (SQLException rowError) {
+                            result.reject(lines.get(i), rowError.getMessage());
+                        }
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+                imported(inserted, result);
+            }
+        }
+    }
+
+    private void readKeys(PreparedStatement stmt, List<Patient> chunk, int first) throws SQLException {
+        try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+            for (int i = first; generatedKeys.next(); i++) {
+                chunk.get(i).setPatientId(generatedKeys.getInt(1));
+            }
+        }
+    }
+
+    private void imported(List<Patient> patients, ImportResult result) {
+        for (Patient patient : patients) {
+            searchIndex.put(patient);
+        }
+        result.imported += patients.size();
+    }
+
+    /**
+     * Outcome of one import
+     */
+    public static class ImportResult {
+        private int imported;
+        private int rejected;
+        private final List<RowError> errors = new ArrayList<>();
+        private long elapsedMillis;
+        private boolean cancelled;
+
+        private void reject(long lineNumber, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(lineNumber, message));
+            }
+        }
+
+        public int getImportedCount() {
+            return imported;
+        }
+
+        public int getRejectedCount() {
+            return rejected;
+        }
+
+        /**
+         * The first rejected rows (up to 1000), in file order
+         */
+        public List<RowError> getErrors() {
+            return Collections.unmodifiableList(errors);
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedMillis == 0 ? 0.0 : imported * 1000.0 / elapsedMillis;
+        }
+
+        /**
+         * True if the import was interrupted before the end of the file
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d imported, %d rejected in %.1f s (%.0f rows/s)",
+                                 imported, rejected, elapsedMillis / 1000.0, getRowsPerSecond());
+        }
+    }
+
+    /**
+     * One rejected row
+     */
+    public static class RowError {
+        private final long lineNumber;
+        private final String message;
+
+        RowError(long lineNumber, String message) {
+            this.lineNumber = lineNumber;
+            this.message = message;
+        }
+
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "line " + lineNumber + ": " + message;
+        }
+    }
+
+    /**
+     * Streaming CSV splitter over a channel
+     * Each record's unquoted field bytes are copied into one reusable array
+     * and described by start/end offsets, so reading a row allocates nothing.
+     * UTF-8 is safe to split byte-wise: its multi-byte sequences never
+     * contain the ASCII comma, quote or line break.
+     */
+    private static final class CsvReader implements AutoCloseable {
+        private static final int READ_BUFFER_SIZE = 256 * 1024;
+
+        private final FileChannel channel;
+        private final long size;
+        private final ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private final byte[] input = buffer.array();
+        private int position;
+        private int limit;
+        private long bytesRead;
+        private boolean endOfFile;
+
+        private byte[] record = new byte[1024];
+        private int recordLength;
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private int fieldCount;
+
+        private long lineNumber;     // line the current record starts on
+        private long nextLine = 1;   // line the next record starts on
+
+        CsvReader(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+        }
+
+        /**
+         * Advance to the next record; false at end of file
+         */
+        boolean next() throws IOException {
+            recordLength = 0;
+            fieldCount = 0;
+            lineNumber = nextLine;
+
+            final int fieldStart = 0, unquoted = 1, quoted = 2, quoteInQuoted = 3;
+            int state = fieldStart;
+            int start = 0;
+            boolean any = false;
+
+            while (true) {
+                if (position == limit && !fill()) {
+                    if (!any) {
+                        return false;
+                    }
+                    endField(start);
+                    return true;
+                }
+                byte b = input[position++];
+                any = true;
+
+                if (state == quoted) {
+                    if (b == '"') {
+                        state = quoteInQuoted;
+                    } else {
+                        if (b == '\n') {
+                            nextLine++;
+                        }
+                        append(b);
+                    }
+                    continue;
+                }
+                if (b == '\r') {
+                    continue; // CRLF and stray CRs outside quotes
+                }
+                if (b == '\n') {
+                    nextLine++;
+                    endField(start);
+                    return true;
+                }
+                if (b == ',') {
+                    endField(start);
+                    start = recordLength;
+                    state = fieldStart;
+                    continue;
+                }
+                if (b == '"' && state == fieldStart) {
+                    state = quoted;
+                } else if (b == '"' && state == quoteInQuoted) {
+                    append(b); // "" inside quotes is one quote
+                    state = quoted;
+                } else {
+                    append(b);
+                    state = unquoted;
+                }
+            }
+        }
+
+        boolean isBlank() {
+            return fieldCount == 1 && length(0) == 0;
+        }
+
+        int getFieldCount() {
+            return fieldCount;
+        }
+
+        long getLineNumber() {
+            return lineNumber;
+        }
+
+        long getBytesRead() {
+            return bytesRead;
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        /**
+         * Length in bytes of a field with surrounding blanks trimmed (0 if absent)
+         */
+        int length(int field) {
+            if (field < 0 || field >= fieldCount) {
+                return 0;
+            }
+            return trimmedEnd(field) - trimmedStart(field);
+        }
+
+        String getString(int field) {
+            int start = trimmedStart(field);
+            return new String(record, start, trimmedEnd(field) - start, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * The field's text, or null if it is absent or blank
+         */
+        String getOptionalString(int field) {
+            return length(field) == 0 ? null : getString(field);
+        }
+
+        /**
+         * yyyy-MM-dd, parsed from the bytes; null unless a real past date
+         */
+        Date getDate(int field) {
+            if (length(field) != 10) {
+                return null;
+            }
+            int s = trimmedStart(field);
+            if (record[s + 4] != '-' || record[s + 7] != '-') {
+                return null;
+            }
+            int year = digits(s, 4);
+            int month = digits(s + 5, 2);
+            int day = digits(s + 8, 2);
+            if (year < 1900 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+                return null;
+            }
+            LocalDate date = LocalDate.of(year, month, day);
+            return date.isAfter(LocalDate.now()) ? null : Date.valueOf(date);
+        }
+
+        /**
+         * The allowed value the field equals (ignoring case), or null
+         * With initials, a single letter matches the value starting with it.
+         */
+        String match(int field, String[] allowed, boolean initials) {
+            int s = trimmedStart(field);
+            int length = trimmedEnd(field) - s;
+            for (String value : allowed) {
+                if (length == value.length() || (initials && length == 1)) {
+                    int i = 0;
+                    while (i < length && Character.toLowerCase((char) record[s + i])
+                                         == Character.toLowerCase(value.charAt(i))) {
+                        i++;
+                    }
+                    if (i == length) {
+                        return value;
+                    }
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private int trimmedStart(int field) {
+            int s = starts[field];
+            int e = ends[field];
+            while (s < e && (record[s] == ' ' || record[s] == '\t')) {
+                s++;
+            }
+            return s;
+        }
+
+        private int trimmedEnd(int field) {
+            int s = starts[field];
+            int e = ends[field];
+            while (e > s && (record[e - 1] == ' ' || record[e - 1] == '\t')) {
+                e--;
+            }
+            return e;
+        }
+
+        private int digits(int offset, int count) {
+            int value = 0;
+            for (int i = offset; i < offset + count; i++) {
+                int digit = record[i] - '0';
+                if (digit < 0 || digit > 9) {
+                    return -1;
+                }
+                value = value * 10 + digit;
+            }
+            return value;
+        }
+
+        private static int daysInMonth(int year, int month) {
+            if (month == 2) {
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            }
+            return (month == 4 || month == 6 || month == 9 || month == 11) ? 30 : 31;
+        }
+
+        private void append(byte b) {
+            if (recordLength == record.length) {
+                record = Arrays.copyOf(record, record.length * 2);
+            }
+            record[recordLength++] = b;
+        }
+
+        private void endField(int start) {
+            if (fieldCount == starts.length) {
+                starts = Arrays.copyOf(starts, fieldCount * 2);
+                ends = Arrays.copyOf(ends, fieldCount * 2);
+            }
+            starts[fieldCount] = start;
+            ends[fieldCount] = recordLength;
+            fieldCount++;
+        }
+
+        private boolean fill() throws IOException {
+            if (endOfFile) {
+                return false;
+            }
+            buffer.clear();
+            int read = channel.read(buffer);
+            if (read <= 0) {
+                endOfFile = true;
+                return false;
+            }
+            if (bytesRead == 0 && read >= 3 && input[0] == (byte) 0xEF
+                    && input[1] == (byte) 0xBB && input[2] == (byte) 0xBF) {
+                position = 3; // UTF-8 byte order mark
+            } else {
+                position = 0;
+            }
+            limit = read;
+            bytesRead += read;
+            return true;
+        }
+    }
+
+    /**
+     * Import a CSV file from the command line
+     * Usage: java database.PatientCsvImporter patients.csv
+     */
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.err.println("Usage: java database.PatientCsvImporter <patients.csv>");
+            System.exit(2);
+        }
+
+        System.out.println("========================================");
+        System.out.println("Importing patients from " + args[0]);
+        System.out.println("========================================\n");
+
+        try {
+            ImportResult result = new PatientCsvImporter().importFile(Paths.get(args[0]),
+                (bytesRead, totalBytes, imported, rejected) -> System.out.printf(
+                    "   %5.1f%%  %,d imported, %,d rejected%n",
+                    totalBytes == 0 ? 100.0 : bytesRead * 100.0 / totalBytes, imported, rejected));
+
+            for (RowError error : result.getErrors()) {
+                System.out.println("   ⚠ " + error);
+            }
+            if (result.getRejectedCount() > result.getErrors().size()) {
+                System.out.println("   ... and " + (result.getRejectedCount() - result.getErrors().size()) +
+                                   " more rejected rows");
+            }
+            System.out.println("\n✅ " + result);
+        } catch (IOException | SQLException e) {
+            System.err.println("❌ Patient import failed:");
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            DatabaseConnection.closeConnection();
+        }
+    }
+}
@@ -3,7 +3,9 @@ package database;
 import model.Patient;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * PatientDAO - Data Access Object for Patient operations
@@ -11,25 +13,19 @@ import java.util.List;
  */
 public class PatientDAO {
     
+    // Most patients a name search returns (best matches first)
+    public static final int MAX_SEARCH_RESULTS = Integer.getInteger("healthcare.search.maxResults", 200);
+    
+    private final PatientSearchIndex searchIndex = PatientSearchIndex.getInstance();
+    
     /**
      * CREATE - Add new patient to database
      */
     public boolean createPatient(Patient patient) {
-        String sql = "INSERT INTO patients (first_name, last_name, date_of_birth, gender, " +
-                     "phone, email, address, blood_group, allergies) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = conn.prepareStatement(PatientMapper.INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
             
-            stmt.setString(1, patient.getFirstName());
-            stmt.setString(2, patient.getLastName());
-            stmt.setDate(3, patient.getDateOfBirth());
-            stmt.setString(4, patient.getGender());
-            stmt.setString(5, patient.getPhone());
-            stmt.setString(6, patient.getEmail());
-            stmt.setString(7, patient.getAddress());
-            stmt.setString(8, patient.getBloodGroup());
-            stmt.setString(9, patient.getAllergies());
+            PatientMapper.bindInsert(stmt, patient);
             
             int rowsAffected = stmt.executeUpdate();
             
@@ -38,6 +34,7 @@ public class PatientDAO {
                 ResultSet generatedKeys = stmt.getGeneratedKeys();
                 if (generatedKeys.next()) {
                     patient.setPatientId(generatedKeys.getInt(1));
+                    searchIndex.put(patient);
                 }
                 System.out.println("✅ Patient created: " + patient.getFullName());
                 return true;
@@ -59,11 +56,12 @@ public class PatientDAO {
         String sql = "SELECT * FROM patients ORDER BY last_name, first_name";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
             
+            RowMapper.Reader<Patient> reader = PatientMapper.INSTANCE.bind(rs);
             while (rs.next()) {
-                Patient patient = extractPatientFromResultSet(rs);
+                Patient patient = reader.read(rs);
                 patients.add(patient);
             }
             
@@ -90,7 +88,7 @@ public class PatientDAO {
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                return extractPatientFromResultSet(rs);
+                return PatientMapper.INSTANCE.bind(rs).read(rs);
             }
             
         } catch (SQLException e) {
@@ -102,9 +100,79 @@ public class PatientDAO {
     }
     
     /**
-     * READ - Search patients by name
+     * READ - Search patients by name, phone or email
+     * The term is looked up in PatientSearchIndex, then only the matching
+     * patients are fetched by primary key, best match first. Falls back to
+     * a LIKE scan if the index cannot be built.
      */
     public List<Patient> searchPatientsByName(String searchTerm) {
+        List<Integer> patientIds = searchIndex.search(searchTerm, MAX_SEARCH_RESULTS);
+        if (patientIds == null) {
+            return searchPatientsByNameInDatabase(searchTerm);
+        }
+        
+        List<Patient> patients = getPatientsByIds(patientIds);
+        System.out.println("✅ Found " + patients.size() + " patients matching: " + searchTerm);
+        return patients;
+    }
+    
+    /**
+     * READ - Get patients by ID, in the order the IDs are given
+     * IDs with no patient row (deleted meanwhile) are skipped.
+     */
+    public List<Patient> getPatientsByIds(List<Integer> patientIds) {
+        List<Patient> patients = new ArrayList<>();
+        if (patientIds.isEmpty()) {
+            return patients;
+        }
+        
+        // Round the IN list up to a power of two so the statement cache only
+        // ever sees a handful of query shapes; the padding repeats the last ID
+        int slots = Integer.highestOneBit(patientIds.size());
+        if (slots < patientIds.size()) {
+            slots <<= 1;
+        }
+        StringBuilder sql = new StringBuilder("SELECT * FROM patients WHERE patient_id IN (?");
+        for (int i = 1; i < slots; i++) {
+            sql.append(", ?");
+        }
+        sql.append(")");
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            
+            for (int i = 0; i < slots; i++) {
+                stmt.setInt(i + 1, patientIds.get(Math.min(i, patientIds.size() - 1)));
+            }
+            
+            Map<Integer, Patient> byId = new HashMap<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper.Reader<Patient> reader = PatientMapper.INSTANCE.bind(rs);
+                while (rs.next()) {
+                    Patient patient = reader.read(rs);
+                    byId.put(patient.getPatientId(), patient);
+                }
+            }
+            
+            for (Integer patientId : patientIds) {
+                Patient patient = byId.get(patientId);
+                if (patient != null) {
+                    patients.add(patient);
+                }
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("❌ Error retrieving patients:");
+            e.printStackTrace();
+        }
+        
+        return patients;
+    }
+    
+    /**
+     * Search without the index - scans the whole patients table
+     */
+    private List<Patient> searchPatientsByNameInDatabase(String searchTerm) {
         List<Patient> patients = new ArrayList<>();
         String sql = "SELECT * FROM patients WHERE first_name LIKE ? OR last_name LIKE ? " +
                      "ORDER BY last_name, first_name";
@@ -118,8 +186,9 @@ public class PatientDAO {
             
             ResultSet rs = stmt.executeQuery();
             
+            RowMapper.Reader<Patient> reader = PatientMapper.INSTANCE.bind(rs);
             while (rs.next()) {
-                Patient patient = extractPatientFromResultSet(rs);
+                Patient patient = reader.read(rs);
                 patients.add(patient);
             }
             
@@ -158,6 +227,7 @@ public class PatientDAO {
             int rowsAffected = stmt.executeUpdate();
             
             if (rowsAffected > 0) {
+                searchIndex.put(patient);
                 System.out.println("✅ Patient updated: " + patient.getFullName());
                 return true;
             }
@@ -183,6 +253,7 @@ public class PatientDAO {
             int rowsAffected = stmt.executeUpdate();
             
             if (rowsAffected > 0) {
+                searchIndex.remove(patientId);
                 System.out.println("✅ Patient deleted successfully");
                 return true;
             }
@@ -195,25 +266,6 @@ public class PatientDAO {
         }
     }
     
-    /**
-     * Helper method to extract Patient object from ResultSet
-     */
-    private Patient extractPatientFromResultSet(ResultSet rs) throws SQLException {
-        Patient patient = new Patient();
-        patient.setPatientId(rs.getInt("patient_id"));
-        patient.setFirstName(rs.getString("first_name"));
-        patient.setLastName(rs.getString("last_name"));
-        patient.setDateOfBirth(rs.getDate("date_of_birth"));
-        patient.setGender(rs.getString("gender"));
-        patient.setPhone(rs.getString("phone"));
-        patient.setEmail(rs.getString("email"));
-        patient.setAddress(rs.getString("address"));
-        patient.setBloodGroup(rs.getString("blood_group"));
-        patient.setAllergies(rs.getString("allergies"));
-        patient.setCreatedDate(rs.getTimestamp("created_date"));
-        return patient;
-    }
-    
     /**
      * TEST METHOD - Test PatientDAO operations
      */
@@ -243,6 +295,16 @@ public class PatientDAO {
         }
         System.out.println();
         
+        // Test 2b: Search by phone digits - served by the in-memory index
+        System.out.println("TEST 2b: Search by phone '555'");
+        long started = System.nanoTime();
+        List<Integer> ranked = PatientSearchIndex.getInstance().search("555", MAX_SEARCH_RESULTS);
+        long micros = (System.nanoTime() - started) / 1000;
+        System.out.println("Index holds " + PatientSearchIndex.getInstance().size() + " patients; " +
+                           (ranked == null ? "index unavailable" : ranked.size() + " match(es)") +
+                           " in " + micros + " µs");
+        System.out.println();
+        
         // Test 3: Get patient by ID
         System.out.println("TEST 3: Get patient with ID = 1");
         Patient patient = patientDAO.getPatientById(1);
@@ -0,0 +1,467 @@
+package database;
+
+import model.Patient;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * PatientSearchIndex - In-memory trigram index over patient names, phones and emails
+ * A "%term%" LIKE can never use a database index, so patient search scans
+ * the whole table. This index maps every three-character slice of each
+ * patient's name, phone digits and email to the patients containing it;
+ * a search intersects the lists for the term's slices, checks the few
+ * candidates left and ranks them (whole-name and prefix matches first).
+ *
+ * Shared by every PatientDAO. It is built once from the database (call
+ * warmUp() when a screen opens so the first search does not wait), kept
+ * current by PatientDAO's create/update/delete, and rebuilt in the
+ * background every healthcare.search.refreshMinutes (default 15) to pick
+ * up patients added by other app instances. Searches keep using the old
+ * index while a rebuild runs.
+ */
+public class PatientSearchIndex {
+
+    private static final int GRAM = 3;
+
+    private static final long REFRESH_MILLIS =
+            Long.getLong("healthcare.search.refreshMinutes", 15) * 60_000L;
+
+    private static final PatientSearchIndex INSTANCE = new PatientSearchIndex();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object buildLock = new Object();
+    private final AtomicBoolean backgroundBuild = new AtomicBoolean();
+
+    private volatile Snapshot current;             // null until the first build
+    private List<Consumer<Snapshot>> pendingWrites; // non-null while a build runs
+    private volatile long builtAt;
+
+    private PatientSearchIndex() {
+    }
+
+    public static PatientSearchIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Start building the index in the background if it has not been built yet
+     */
+    public void warmUp() {
+        if (current == null) {
+            buildInBackground();
+        }
+    }
+
+    /**
+     * Build the index now if needed; false if the patients could not be loaded
+     */
+    public boolean ensureBuilt() {
+        synchronized (buildLock) {
+            return current != null || rebuild();
+        }
+    }
+
+    public boolean isBuilt() {
+        return current != null;
+    }
+
+    /**
+     * Ranked IDs of the patients whose name, phone or email contains term
+     * Returns at most limit IDs, best match first, or null if the index
+     * could not be built (the caller should fall back to a database query).
+     */
+    public List<Integer> search(String term, int limit) {
+        if (!ensureBuilt()) {
+            return null;
+        }
+        if (System.currentTimeMillis() - builtAt > REFRESH_MILLIS) {
+            buildInBackground();
+        }
+
+        String query = normalize(term);
+        if (query.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String digits = phoneDigits(term);
+
+        lock.readLock().lock();
+        try {
+            return current.search(query, digits, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add or re-index a patient (after a create or update)
+     */
+    public void put(Patient patient) {
+        final Entry entry = new Entry(patient.getPatientId(), patient.getFirstName(),
+                                      patient.getLastName(), patient.getPhone(), patient.getEmail());
+        write(snapshot -> snapshot.put(entry));
+    }
+
+    /**
+     * Drop a patient (after a delete)
+     */
+    public void remove(final int patientId) {
+        write(snapshot -> snapshot.remove(patientId));
+    }
+
+    /**
+     * Number of indexed patients (0 before the first build)
+     */
+    public int size() {
+        Snapshot snapshot = current;
+        return snapshot == null ? 0 : snapshot.entries.size();
+    }
+
+    private void write(Consumer<Snapshot> change) {
+        lock.writeLock().lock();
+        try {
+            if (current != null) {
+                change.accept(current);
+            }
+            if (pendingWrites != null) {
+                // A build is reading the table right now and may miss this change
+                pendingWrites.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void buildInBackground() {
+        if (backgroundBuild.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("patient-search-index").start(() -> {
+                try {
+                    synchronized (buildLock) {
+                        rebuild();
+                    }
+                } finally {
+                    backgroundBuild.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Load every patient into a fresh snapshot, then swap it in
+     * Called holding buildLock, so only one build runs at a time.
+     */
+    private boolean rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingWrites = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long started = System.currentTimeMillis();
+        Snapshot fresh = new Snapshot();
+        boolean loaded = false;
+        try {
+            load(fresh);
+            loaded = true;
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("❌ Error building patient search index:");
+            e.printStackTrace();
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (loaded) {
+                    for (Consumer<Snapshot> change : pendingWrites) {
+                        change.accept(fresh);
+                    }
+                    current = fresh;
+                    builtAt = System.currentTimeMillis();
+                }
+                pendingWrites = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        if (loaded) {
+            System.out.println("✅ Patient search index built: " + fresh.entries.size() +
+                               " patients in " + (System.currentTimeMillis() - started) + " ms");
+        }
+        return loaded;
+    }
+
+    private void load(Snapshot snapshot) throws SQLException {
+        String sql = "SELECT patient_id, first_name, last_name, phone, email FROM patients " +
+                     "ORDER BY patient_id";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            // Stream the rows instead of buffering the whole table in the driver
+            stmt.setFetchSize(Integer.MIN_VALUE);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    snapshot.put(new Entry(rs.getInt("patient_id"), rs.getString("first_name"),
+                                           rs.getString("last_name"), rs.getString("phone"),
+                                           rs.getString("email")));
+                }
+            }
+        }
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Digits of a phone-number-looking term ("(555) 123-4567"), else null
+     */
+    static String phoneDigits(String term) {
+        if (term == null || !term.trim().matches("[0-9+().\\- ]+")) {
+            return null;
+        }
+        String digits = term.replaceAll("[^0-9]", "");
+        return digits.isEmpty() ? null : digits;
+    }
+
+    private static long gramKey(String text, int start) {
+        return ((long) text.charAt(start) << 32)
+             | ((long) text.charAt(start + 1) << 16)
+             | text.charAt(start + 2);
+    }
+
+    /**
+     * One indexed patient - the normalized text that searches match against
+     */
+    private static final class Entry {
+        private final int patientId;
+        private final String firstName;
+        private final String lastName;
+        private final String fullName;
+        private final String reversedName; // "smith john" for surname-first searches
+        private final String phone;
+        private final String email;
+
+        Entry(int patientId, String firstName, String lastName, String phone, String email) {
+            this.patientId = patientId;
+            this.firstName = normalize(firstName);
+            this.lastName = normalize(lastName);
+            this.fullName = (this.firstName + " " + this.lastName).trim();
+            this.reversedName = (this.lastName + " " + this.firstName).trim();
+            this.phone = phone == null ? "" : phone.replaceAll("[^0-9]", "");
+            this.email = normalize(email);
+        }
+
+        String[] fields() {
+            return new String[] { fullName, reversedName, phone, email };
+        }
+
+        /**
+         * Lower is better; -1 when the term does not actually occur
+         */
+        int score(String query, String digits) {
+            if (fullName.equals(query)) {
+                return 0;
+            }
+            if (firstName.equals(query) || lastName.equals(query)) {
+                return 1;
+            }
+            if (firstName.startsWith(query) || lastName.startsWith(query) || fullName.startsWith(query)) {
+                return 2;
+            }
+            if (email.startsWith(query) || (digits != null && phone.endsWith(digits))) {
+                return 3;
+            }
+            if (fullName.contains(query) || reversedName.contains(query)) {
+                return 4;
+            }
+            if (email.contains(query) || (digits != null && phone.contains(digits))) {
+                return 5;
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Sorted, growable list of patient IDs for one trigram
+     */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                size--;
+            }
+        }
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+
+    /**
+     * The index itself; guarded by the outer read/write lock once published
+     */
+    private static final class Snapshot {
+        private final Map<Long, Postings> grams = new HashMap<>();
+        private final Map<Integer, Entry> entries = new HashMap<>();
+
+        void put(Entry entry) {
+            remove(entry.patientId);
+            entries.put(entry.patientId, entry);
+            for (String field : entry.fields()) {
+                for (int i = 0; i + GRAM <= field.length(); i++) {
+                    grams.computeIfAbsent(gramKey(field, i), k -> new Postings()).add(entry.patientId);
+                }
+            }
+        }
+
+        void remove(int patientId) {
+            Entry old = entries.remove(patientId);
+            if (old == null) {
+                return;
+            }
+            for (String field : old.fields()) {
+                for (int i = 0; i + GRAM <= field.length(); i++) {
+                    long key = gramKey(field, i);
+                    Postings postings = grams.get(key);
+                    if (postings != null) {
+                        postings.remove(patientId);
+                        if (postings.size == 0) {
+                            grams.remove(key);
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Integer> search(String query, String digits, int limit) {
+            List<Hit> hits = new ArrayList<>();
+            if (query.length() < GRAM) {
+                // Too short for a trigram - check every patient (still no database round trip)
+                for (Entry entry : entries.values()) {
+                    score(entry, query, digits, hits);
+                }
+            } else {
+                collect(query, query, digits, hits, null);
+                if (digits != null && !digits.equals(query) && digits.length() >= GRAM) {
+                    // "(555) 123" also matches the digits-only phone numbers
+                    Set<Integer> seen = new HashSet<>();
+                    for (Hit hit : hits) {
+                        seen.add(hit.entry.patientId);
+                    }
+                    collect(digits, query, digits, hits, seen);
+                }
+            }
+
+            // Keep only the best limit hits; the worst of them sits at the head
+            PriorityQueue<Hit> top = new PriorityQueue<>(Math.min(limit, hits.size()) + 1,
+                                                         Hit.BEST_FIRST.reversed());
+            for (Hit hit : hits) {
+                top.add(hit);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            List<Hit> best = new ArrayList<>(top);
+            best.sort(Hit.BEST_FIRST);
+            List<Integer> ids = new ArrayList<>(best.size());
+            for (Hit hit : best) {
+                ids.add(hit.entry.patientId);
+            }
+            return ids;
+        }
+
+        /**
+         * Score the patients holding every trigram of gramText
+         */
+        private void collect(String gramText, String query, String digits, List<Hit> hits, Set<Integer> skip) {
+            List<Postings> lists = new ArrayList<>();
+            for (int i = 0; i + GRAM <= gramText.length(); i++) {
+                Postings postings = grams.get(gramKey(gramText, i));
+                if (postings == null) {
+                    return; // some trigram occurs nowhere, so nothing matches
+                }
+                lists.add(postings);
+            }
+            // Walk the shortest list and probe the others
+            lists.sort(Comparator.comparingInt(p -> p.size));
+            Postings smallest = lists.get(0);
+
+            candidates:
+            for (int i = 0; i < smallest.size; i++) {
+                int id = smallest.ids[i];
+                for (int j = 1; j < lists.size(); j++) {
+                    if (!lists.get(j).contains(id)) {
+                        continue candidates;
+                    }
+                }
+                if (skip == null || !skip.contains(id)) {
+                    score(entries.get(id), query, digits, hits);
+                }
+            }
+        }
+
+        /**
+         * Trigrams can match out of order, so confirm the term really occurs
+         */
+        private void score(Entry entry, String query, String digits, List<Hit> hits) {
+            int score = entry.score(query, digits);
+            if (score >= 0) {
+                hits.add(new Hit(entry, score));
+            }
+        }
+    }
+
+    /**
+     * A matching patient and how well it matched
+     */
+    private static final class Hit {
+        private static final Comparator<Hit> BEST_FIRST = Comparator.<Hit>comparingInt(h -> h.score)
+                .thenComparing(h -> h.entry.lastName)
+                .thenComparing(h -> h.entry.firstName)
+                .thenComparingInt(h -> h.entry.patientId);
+
+        private final Entry entry;
+        private final int score;
+
+        Hit(Entry entry, int score) {
+            this.entry = entry;
+            this.score = score;
+        }
+    }
+}
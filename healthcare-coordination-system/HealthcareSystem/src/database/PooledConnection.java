@@ -0,0 +1,152 @@
+package database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * PooledConnection - One physical connection owned by the ConnectionPool
+ * Every borrow hands out a fresh proxy (a "lease") so a DAO that keeps a
+ * reference after close() cannot touch a connection someone else now holds.
+ */
+final class PooledConnection {
+
+    private final Connection physical;
+    private final StatementCache statementCache;
+    private final long createdAt;
+    private final int defaultIsolation;
+    private volatile long lastReturned;
+    private volatile boolean dirty; // a lease changed session state (autocommit, isolation, ...)
+
+    PooledConnection(Connection physical, int statementCacheSize,
+                     StatementCache.Stats cacheStats) throws SQLException {
+        this.physical = physical;
+        this.statementCache = new StatementCache(physical, statementCacheSize, cacheStats);
+        this.createdAt = System.currentTimeMillis();
+        this.defaultIsolation = physical.getTransactionIsolation();
+        this.lastReturned = createdAt;
+    }
+
+    Connection getPhysical() {
+        return physical;
+    }
+
+    long getLastReturned() {
+        return lastReturned;
+    }
+
+    void markReturned() {
+        lastReturned = System.currentTimeMillis();
+    }
+
+    boolean isExpired(long now, long maxLifetimeMillis) {
+        return now - createdAt >= maxLifetimeMillis;
+    }
+
+    /**
+     * @param call measures this borrow for DaoMetrics; null when metrics are off
+     */
+    Connection lease(ConnectionPool pool, DaoMetrics.Call call) {
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[] { Connection.class },
+            new Lease(pool, call));
+    }
+
+    /**
+     * Undo whatever the last borrower changed; false means the connection is unusable
+     */
+    boolean resetSessionState() {
+        try {
+            if (physical.isClosed()) {
+                return false;
+            }
+            if (dirty) {
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                physical.setReadOnly(false);
+                physical.setTransactionIsolation(defaultIsolation);
+                dirty = false;
+            }
+            physical.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    void closePhysical() {
+        try {
+            physical.close();
+        } catch (SQLException e) {
+            // Already broken - nothing left to release
+        }
+    }
+
+    /**
+     * Proxy handler for a single borrow of the physical connection
+     */
+    private final class Lease implements InvocationHandler {
+        private final ConnectionPool pool;
+        private final DaoMetrics.Call call;
+        private volatile boolean returned;
+
+        Lease(ConnectionPool pool, DaoMetrics.Call call) {
+            this.pool = pool;
+            this.call = call;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        if (call != null) {
+                            call.end();
+                        }
+                        pool.release(PooledConnection.this);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + physical + "]";
+                default:
+                    break;
+            }
+
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                if (name.equals("prepareStatement")) {
+                    return statementCache.prepare(method, args, call);
+                }
+                if (name.startsWith("set")) {
+                    dirty = true;
+                }
+                try {
+                    return method.invoke(physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            } catch (SQLException e) {
+                if (call != null) {
+                    call.failed();
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package database;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import model.PrescriptionStatus;
+
+/**
+ * PrescriptionCriteria - Which prescriptions PrescriptionDAO.findPrescriptions returns
+ * Every filter is optional and they combine with AND, e.g. "filled this
+ * week by pharmacist 4 for medication 42":
+ *
+ *   new PrescriptionCriteria()
+ *       .status(PrescriptionStatus.FILLED)
+ *       .filledBetween(monday, monday.plusWeeks(1))
+ *       .pharmacist(4)
+ *       .medication(42)
+ *       .sortBy(PrescriptionCriteria.Sort.FILLED_NEWEST);
+ *
+ * Date ranges include the first day and exclude the second; either end may
+ * be null. Without a limit every matching row is returned.
+ */
+public class PrescriptionCriteria {
+
+    /**
+     * Result order, with prescription_id breaking ties
+     */
+    public enum Sort {
+        ISSUED_NEWEST("p.issued_date DESC, p.prescription_id DESC"),
+        ISSUED_OLDEST("p.issued_date ASC, p.prescription_id ASC"),
+        FILLED_NEWEST("p.filled_date DESC, p.prescription_id DESC");
+
+        private final String orderBy;
+
+        Sort(String orderBy) {
+            this.orderBy = orderBy;
+        }
+    }
+
+    private final Set<PrescriptionStatus> statuses = EnumSet.noneOf(PrescriptionStatus.class);
+    private LocalDate issuedFrom;
+    private LocalDate issuedTo;
+    private LocalDate filledFrom;
+    private LocalDate filledTo;
+    private Integer doctorId;
+    private Integer patientId;
+    private Integer medicationId;
+    private Integer pharmacistId;
+    private Sort sort = Sort.ISSUED_NEWEST;
+    private int limit;
+
+    /**
+     * Only these statuses (replaces any set before; none = every status)
+     */
+    public PrescriptionCriteria status(PrescriptionStatus... statuses) {
+        this.statuses.clear();
+        this.statuses.addAll(Arrays.asList(statuses));
+        return this;
+    }
+
+    /**
+     * Issued on or after from and before to
+     */
+    public PrescriptionCriteria issuedBetween(LocalDate from, LocalDate to) {
+        this.issuedFrom = from;
+        this.issuedTo = to;
+        return this;
+    }
+
+    /**
+     * Filled on or after from and before to (unfilled prescriptions never match)
+     */
+    public PrescriptionCriteria filledBetween(LocalDate from, LocalDate to) {
+        this.filledFrom = from;
+        this.filledTo = to;
+        return this;
+    }
+
+    public PrescriptionCriteria doctor(int doctorId) {
+        this.doctorId = doctorId;
+        return this;
+    }
+
+    public PrescriptionCriteria patient(int patientId) {
+        this.patientId = patientId;
+        return this;
+    }
+
+    public PrescriptionCriteria medication(int medicationId) {
+        this.medicationId = medicationId;
+        return this;
+    }
+
+    /**
+     * Filled by this pharmacist
+     */
+    public PrescriptionCriteria pharmacist(int pharmacistId) {
+        this.pharmacistId = pharmacistId;
+        return this;
+    }
+
+    public PrescriptionCriteria sortBy(Sort sort) {
+        this.sort = sort;
+        return this;
+    }
+
+    /**
+     * At most this many rows (0 = no limit)
+     */
+    public PrescriptionCriteria limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must be 0 or more: " + limit);
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Add the conditions to a query, always in this order
+     */
+    void appendTo(CriteriaQuery.Filter filter) {
+        List<String> codes = new ArrayList<>(statuses.size());
+        for (PrescriptionStatus status : statuses) {
+            codes.add(status.code());
+        }
+        filter.in("p.status", codes)
+              .atLeast("p.issued_date", startOf(issuedFrom))
+              .before("p.issued_date", startOf(issuedTo))
+              .atLeast("p.filled_date", startOf(filledFrom))
+              .before("p.filled_date", startOf(filledTo))
+              .equal("p.doctor_id", doctorId)
+              .equal("p.patient_id", patientId)
+              .equal("p.medication_id", medicationId)
+              .equal("p.pharmacist_id", pharmacistId)
+              .orderBy(sort.ordinal(), sort.orderBy)
+              .limit(limit);
+    }
+
+    private static Timestamp startOf(LocalDate day) {
+        return day == null ? null : Timestamp.valueOf(day.atStartOfDay());
+    }
+}
@@ -1,9 +1,11 @@
 package database;
 
 import model.Prescription;
+import model.PrescriptionStatus;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * PrescriptionDAO - Data Access Object for Prescription operations
@@ -12,44 +14,122 @@ import java.util.List;
  */
 public class PrescriptionDAO {
     
+    // Rows sent per executeBatch() in createPrescriptions (the driver turns each into one multi-row INSERT)
+    private static final int INSERT_BATCH_SIZE = 500;
+    
+    // findPrescriptions: same columns as getAllPrescriptions, WHERE/ORDER BY from the criteria
+    private static final CriteriaQuery FIND_QUERY = new CriteriaQuery(
+            "SELECT p.*, " +
+            "CONCAT(pat.first_name, ' ', pat.last_name) as patient_name, " +
+            "doc.full_name as doctor_name, " +
+            "m.medication_name, " +
+            "pharm.full_name as pharmacist_name " +
+            "FROM prescriptions p " +
+            "JOIN patients pat ON p.patient_id = pat.patient_id " +
+            "JOIN users doc ON p.doctor_id = doc.user_id " +
+            "JOIN medications m ON p.medication_id = m.medication_id " +
+            "LEFT JOIN users pharm ON p.pharmacist_id = pharm.user_id");
+    
     /**
      * CREATE - Doctor issues new prescription
      * Work Request #2: Doctor creates prescription and sends to pharmacy
      */
     public boolean createPrescription(Prescription prescription) {
-        String sql = "INSERT INTO prescriptions (appointment_id, patient_id, doctor_id, " +
-                     "medication_id, dosage_instructions, quantity, refills, status) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-        
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = conn.prepareStatement(PrescriptionMapper.INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
             
-            stmt.setInt(1, prescription.getAppointmentId());
-            stmt.setInt(2, prescription.getPatientId());
-            stmt.setInt(3, prescription.getDoctorId());
-            stmt.setInt(4, prescription.getMedicationId());
-            stmt.setString(5, prescription.getDosageInstructions());
-            stmt.setInt(6, prescription.getQuantity());
-            stmt.setInt(7, prescription.getRefills());
-            stmt.setString(8, prescription.getStatus());
+            PrescriptionMapper.bindInsert(stmt, prescription);
             
             int rowsAffected = stmt.executeUpdate();
             
-            if (rowsAffected > 0) {
-                ResultSet generatedKeys = stmt.getGeneratedKeys();
+            if (rowsAffected == 0) {
+                return false;
+            }
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
                 if (generatedKeys.next()) {
                     prescription.setPrescriptionId(generatedKeys.getInt(1));
                 }
-                System.out.println("✅ Prescription created and sent to pharmacy");
-                return true;
             }
-            return false;
             
         } catch (SQLException e) {
             System.err.println("❌ Error creating prescription:");
             e.printStackTrace();
             return false;
         }
+        
+        // After the connection is back in the pool - publishing borrows another
+        System.out.println("✅ Prescription created and sent to pharmacy");
+        publishCreated(List.of(prescription.getPrescriptionId()));
+        return true;
+    }
+    
+    /**
+     * CREATE - Doctor issues several prescriptions at once (e.g. one per drug for a visit)
+     * All rows go in one transaction as batched inserts, so either every
+     * prescription is saved or none is. On success each prescription's ID is
+     * set from the generated keys, in list order.
+     */
+    public boolean createPrescriptions(List<Prescription> prescriptions) {
+        if (prescriptions.isEmpty()) {
+            return true;
+        }
+        
+        List<Integer> createdIds = new ArrayList<>(prescriptions.size());
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(PrescriptionMapper.INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                
+                for (int start = 0; start < prescriptions.size(); start += INSERT_BATCH_SIZE) {
+                    List<Prescription> chunk =
+                        prescriptions.subList(start, Math.min(start + INSERT_BATCH_SIZE, prescriptions.size()));
+                    for (Prescription prescription : chunk) {
+                        PrescriptionMapper.bindInsert(stmt, prescription);
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                    
+                    try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                        while (generatedKeys.next()) {
+                            createdIds.add(generatedKeys.getInt(1));
+                        }
+                    }
+                }
+                if (createdIds.size() != prescriptions.size()) {
+                    throw new SQLException("Expected " + prescriptions.size() +
+                                           " generated keys, got " + createdIds.size());
+                }
+                
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("❌ Error creating prescriptions:");
+            e.printStackTrace();
+            return false;
+        }
+        
+        for (int i = 0; i < prescriptions.size(); i++) {
+            prescriptions.get(i).setPrescriptionId(createdIds.get(i));
+        }
+        System.out.println("✅ " + prescriptions.size() + " prescriptions created and sent to pharmacy");
+        publishCreated(createdIds);
+        return true;
+    }
+    
+    /**
+     * Tell open pharmacist dashboards about new prescriptions
+     * Re-reads them for the joined names; skipped when nobody is listening.
+     */
+    private void publishCreated(List<Integer> prescriptionIds) {
+        PrescriptionEventBus bus = PrescriptionEventBus.getInstance();
+        if (!bus.hasSubscribers()) {
+            return;
+        }
+        bus.publish(new ChangeSet<>(getPrescriptionsByIds(prescriptionIds), List.of(), null));
     }
     
     /**
@@ -70,11 +150,12 @@ public class PrescriptionDAO {
                      "ORDER BY p.issued_date DESC";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
             
+            RowMapper.Reader<Prescription> reader = PrescriptionMapper.INSTANCE.bind(rs);
             while (rs.next()) {
-                Prescription prescription = extractPrescriptionFromResultSet(rs);
+                Prescription prescription = reader.read(rs);
                 prescriptions.add(prescription);
             }
             
@@ -88,6 +169,131 @@ public class PrescriptionDAO {
         return prescriptions;
     }
     
+    /**
+     * READ - One page of prescription history, newest first
+     * Keyset pagination on (issued_date, prescription_id): pass null for the
+     * first page, then the previous page's getLast() to continue. Memory stays
+     * at one page however large the table grows. Returns null on error, so a
+     * paged table can tell a failed read from the end of the history.
+     */
+    public Page<Prescription> getPrescriptionsPage(Prescription after, int pageSize) {
+        int limit = Page.clampPageSize(pageSize);
+        List<Prescription> prescriptions = new ArrayList<>(limit + 1);
+        String sql = "SELECT p.*, " +
+                     "CONCAT(pat.first_name, ' ', pat.last_name) as patient_name, " +
+                     "doc.full_name as doctor_name, " +
+                     "m.medication_name, " +
+                     "pharm.full_name as pharmacist_name " +
+                     "FROM prescriptions p " +
+                     "JOIN patients pat ON p.patient_id = pat.patient_id " +
+                     "JOIN users doc ON p.doctor_id = doc.user_id " +
+                     "JOIN medications m ON p.medication_id = m.medication_id " +
+                     "LEFT JOIN users pharm ON p.pharmacist_id = pharm.user_id " +
+                     (after == null ? "" :
+                     "WHERE p.issued_date < ? OR (p.issued_date = ? AND p.prescription_id < ?) ") +
+                     "ORDER BY p.issued_date DESC, p.prescription_id DESC " +
+                     "LIMIT ?";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            if (after != null) {
+                stmt.setTimestamp(index++, after.getIssuedDate());
+                stmt.setTimestamp(index++, after.getIssuedDate());
+                stmt.setInt(index++, after.getPrescriptionId());
+            }
+            // One extra row tells us whether another page follows
+            stmt.setInt(index, limit + 1);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper.Reader<Prescription> reader = PrescriptionMapper.INSTANCE.bind(rs);
+                while (rs.next()) {
+                    prescriptions.add(reader.read(rs));
+                }
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("❌ Error retrieving prescription page:");
+            e.printStackTrace();
+            return null;
+        }
+        
+        boolean hasMore = prescriptions.size() > limit;
+        if (hasMore) {
+            prescriptions.remove(limit);
+        }
+        return new Page<>(prescriptions, hasMore);
+    }
+    
+    /**
+     * READ - Prescription history rows offset..offset+pageSize-1, newest first
+     * Same order as getPrescriptionsPage(); used when a table jumps straight
+     * into the middle of the history and has no cursor row to seek from.
+     * Returns null on error.
+     */
+    public List<Prescription> getPrescriptionsAt(int offset, int pageSize) {
+        int limit = Page.clampPageSize(pageSize);
+        List<Prescription> prescriptions = new ArrayList<>(limit);
+        String sql = "SELECT p.*, " +
+                     "CONCAT(pat.first_name, ' ', pat.last_name) as patient_name, " +
+                     "doc.full_name as doctor_name, " +
+                     "m.medication_name, " +
+                     "pharm.full_name as pharmacist_name " +
+                     "FROM (SELECT prescription_id FROM prescriptions " +
+                     "      ORDER BY issued_date DESC, prescription_id DESC " +
+                     "      LIMIT ? OFFSET ?) page " +
+                     "JOIN prescriptions p ON p.prescription_id = page.prescription_id " +
+                     "JOIN patients pat ON p.patient_id = pat.patient_id " +
+                     "JOIN users doc ON p.doctor_id = doc.user_id " +
+                     "JOIN medications m ON p.medication_id = m.medication_id " +
+                     "LEFT JOIN users pharm ON p.pharmacist_id = pharm.user_id " +
+                     "ORDER BY p.issued_date DESC, p.prescription_id DESC";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, limit);
+            stmt.setInt(2, Math.max(0, offset));
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper.Reader<Prescription> reader = PrescriptionMapper.INSTANCE.bind(rs);
+                while (rs.next()) {
+                    prescriptions.add(reader.read(rs));
+                }
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("❌ Error retrieving prescriptions at offset " + offset + ":");
+            e.printStackTrace();
+            return null;
+        }
+        
+        return prescriptions;
+    }
+    
+    /**
+     * READ - Number of prescriptions (row count for paged tables)
+     */
+    public int countPrescriptions() {
+        String sql = "SELECT COUNT(*) FROM prescriptions";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("❌ Error counting prescriptions:");
+            e.printStackTrace();
+        }
+        
+        return 0;
+    }
+    
     /**
      * READ - Get pending prescriptions for pharmacy
      * Pharmacists use this to see what needs to be filled
@@ -106,11 +312,12 @@ public class PrescriptionDAO {
                      "ORDER BY p.issued_date ASC";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
             
+            RowMapper.Reader<Prescription> reader = PrescriptionMapper.INSTANCE.bind(rs);
             while (rs.next()) {
-                Prescription prescription = extractPrescriptionFromResultSet(rs);
+                Prescription prescription = reader.read(rs);
                 prescriptions.add(prescription);
             }
             
@@ -149,8 +356,9 @@ public class PrescriptionDAO {
             stmt.setInt(1, doctorId);
             ResultSet rs = stmt.executeQuery();
             
+            RowMapper.Reader<Prescription> reader = PrescriptionMapper.INSTANCE.bind(rs);
             while (rs.next()) {
-                Prescription prescription = extractPrescriptionFromResultSet(rs);
+                Prescription prescription = reader.read(rs);
                 prescriptions.add(prescription);
             }
             
@@ -188,8 +396,9 @@ public class PrescriptionDAO {
             stmt.setInt(1, patientId);
             ResultSet rs = stmt.executeQuery();
             
+            RowMapper.Reader<Prescription> reader = PrescriptionMapper.INSTANCE.bind(rs);
             while (rs.next()) {
-                Prescription prescription = extractPrescriptionFromResultSet(rs);
+                Prescription prescription = reader.read(rs);
                 prescriptions.add(prescription);
             }
             
@@ -203,6 +412,34 @@ public class PrescriptionDAO {
         return prescriptions;
     }
     
+    /**
+     * READ - Prescriptions matching a criteria object, filtered and sorted by the database
+     * One parameterized query per combination of filters used, so each
+     * combination is prepared once per connection and can use the status,
+     * doctor, patient, medication and pharmacist indexes.
+     */
+    public List<Prescription> findPrescriptions(PrescriptionCriteria criteria) {
+        List<Prescription> prescriptions = new ArrayList<>();
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = FIND_QUERY.prepare(conn, criteria::appendTo);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            RowMapper.Reader<Prescription> reader = PrescriptionMapper.INSTANCE.bind(rs);
+            while (rs.next()) {
+                prescriptions.add(reader.read(rs));
+            }
+            
+            System.out.println("✅ Found " + prescriptions.size() + " prescriptions");
+            
+        } catch (SQLException e) {
+            System.err.println("❌ Error finding prescriptions:");
+            e.printStackTrace();
+        }
+        
+        return prescriptions;
+    }
+    
     /**
      * READ - Get prescription by ID
      */
@@ -226,7 +463,7 @@ public class PrescriptionDAO {
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                return extractPrescriptionFromResultSet(rs);
+                return PrescriptionMapper.INSTANCE.bind(rs).read(rs);
             }
             
         } catch (SQLException e) {
@@ -237,134 +474,428 @@ public class PrescriptionDAO {
         return null;
     }
     
+    /**
+     * READ - Get prescriptions by ID with full details, in ID order
+     */
+    public List<Prescription> getPrescriptionsByIds(List<Integer> prescriptionIds) {
+        List<Prescription> prescriptions = new ArrayList<>();
+        if (prescriptionIds.isEmpty()) {
+            return prescriptions;
+        }
+        
+        // Round the IN list up to a power of two so the statement cache only
+        // ever sees a handful of query shapes; the padding repeats the last ID
+        int slots = Integer.highestOneBit(prescriptionIds.size());
+        if (slots < prescriptionIds.size()) {
+            slots <<= 1;
+        }
+        StringBuilder sql = new StringBuilder("SELECT p.*, " +
+                     "CONCAT(pat.first_name, ' ', pat.last_name) as patient_name, " +
+                     "doc.full_name as doctor_name, " +
+                     "m.medication_name, " +
+                     "pharm.full_name as pharmacist_name " +
+                     "FROM prescriptions p " +
+                     "JOIN patients pat ON p.patient_id = pat.patient_id " +
+                     "JOIN users doc ON p.doctor_id = doc.user_id " +
+                     "JOIN medications m ON p.medication_id = m.medication_id " +
+                     "LEFT JOIN users pharm ON p.pharmacist_id = pharm.user_id " +
+                     "WHERE p.prescription_id IN (?");
+        for (int i = 1; i < slots; i++) {
+            sql.append(", ?");
+        }
+        sql.append(") ORDER BY p.prescription_id");
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            
+            for (int i = 0; i < slots; i++) {
+                stmt.setInt(i + 1, prescriptionIds.get(Math.min(i, prescriptionIds.size() - 1)));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper.Reader<Prescription> reader = PrescriptionMapper.INSTANCE.bind(rs);
+                while (rs.next()) {
+                    prescriptions.add(reader.read(rs));
+                }
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("❌ Error retrieving prescriptions:");
+            e.printStackTrace();
+        }
+        
+        return prescriptions;
+    }
+    
     /**
      * UPDATE - Pharmacist fills prescription
      * Work Request #2: Pharmacy responds to clinic's prescription
+     * One transaction locks the prescription, takes the quantity out of the
+     * medication's inventory lots - earliest-expiring first, across as many
+     * lots as it needs (MedicationDAO.takeStock) - and marks the prescription
+     * FILLED, so both happen or neither does.
+     * Returns false, changing nothing, if the prescription is no longer
+     * PENDING, is claimed by another pharmacist (see claimPendingPrescriptions),
+     * or its lots together hold too little. A medication with no inventory
+     * rows at all is not stock-tracked and is filled without touching inventory.
      */
     public boolean fillPrescription(int prescriptionId, int pharmacistId, String notes) {
-        String sql = "UPDATE prescriptions SET status = 'FILLED', pharmacist_id = ?, " +
-                     "pharmacist_notes = ?, filled_date = CURRENT_TIMESTAMP WHERE prescription_id = ?";
+        String lockSql = "SELECT medication_id, quantity FROM prescriptions " +
+                         "WHERE prescription_id = ? AND status = 'PENDING' " +
+                         "AND (claimed_by IS NULL OR claimed_by = ? OR claimed_until < CURRENT_TIMESTAMP) " +
+                         "FOR UPDATE";
+        String fillSql = "UPDATE prescriptions SET status = 'FILLED', pharmacist_id = ?, pharmacist_notes = ?, " +
+                         "filled_date = CURRENT_TIMESTAMP, claimed_by = NULL, claimed_until = NULL " +
+                         "WHERE prescription_id = ? AND status = 'PENDING'";
+        
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int medicationId;
+                int quantity;
+                try (PreparedStatement lock = conn.prepareStatement(lockSql)) {
+                    lock.setInt(1, prescriptionId);
+                    lock.setInt(2, pharmacistId);
+                    try (ResultSet rs = lock.executeQuery()) {
+                        if (!rs.next()) {
+                            conn.rollback();
+                            System.err.println("❌ Prescription " + prescriptionId +
+                                               " not filled: no longer pending or claimed by someone else");
+                            return false;
+                        }
+                        medicationId = rs.getInt("medication_id");
+                        quantity = rs.getInt("quantity");
+                    }
+                }
+                
+                int lots = MedicationDAO.takeStock(conn, medicationId, quantity);
+                if (lots < 0) {
+                    conn.rollback();
+                    System.err.println("❌ Prescription " + prescriptionId +
+                                       " not filled: fewer than " + quantity + " units in stock");
+                    return false;
+                }
+                
+                try (PreparedStatement fill = conn.prepareStatement(fillSql)) {
+                    fill.setInt(1, pharmacistId);
+                    fill.setString(2, notes);
+                    fill.setInt(3, prescriptionId);
+                    fill.executeUpdate();
+                }
+                conn.commit();
+                
+                System.out.println(lots > 0
+                        ? "✅ Prescription filled by pharmacist (" + lots + " inventory lots updated)"
+                        : "✅ Prescription filled by pharmacist (medication has no inventory rows)");
+                return true;
+                
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error filling prescription:");
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    /**
+     * WORK QUEUE - Claim up to count pending prescriptions for one pharmacist
+     * Rows another pharmacist is claiming at the same moment are skipped
+     * (FOR UPDATE SKIP LOCKED) rather than waited on, and rows with a live
+     * claim are left alone, so pharmacists pulling work concurrently never
+     * get the same prescription. Claims expire after leaseSeconds unless
+     * renewed; an abandoned claim simply becomes claimable again.
+     * Returns the number of prescriptions newly claimed.
+     */
+    public int claimPendingPrescriptions(int pharmacistId, int count, int leaseSeconds) {
+        String selectSql = "SELECT prescription_id FROM prescriptions " +
+                           "WHERE status = 'PENDING' " +
+                           "AND (claimed_until IS NULL OR claimed_until < CURRENT_TIMESTAMP) " +
+                           "ORDER BY issued_date ASC, prescription_id ASC " +
+                           "LIMIT ? " +
+                           "FOR UPDATE SKIP LOCKED";
+        String claimSql = "UPDATE prescriptions SET claimed_by = ?, " +
+                          "claimed_until = CURRENT_TIMESTAMP + INTERVAL ? SECOND " +
+                          "WHERE prescription_id = ?";
+        
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement select = conn.prepareStatement(selectSql);
+                 PreparedStatement claim = conn.prepareStatement(claimSql)) {
+                
+                select.setInt(1, Math.max(1, count));
+                int claimed = 0;
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        claim.setInt(1, pharmacistId);
+                        claim.setInt(2, leaseSeconds);
+                        claim.setInt(3, rs.getInt("prescription_id"));
+                        claim.addBatch();
+                        claimed++;
+                    }
+                }
+                if (claimed > 0) {
+                    claim.executeBatch();
+                }
+                conn.commit();
+                
+                System.out.println("✅ Claimed " + claimed + " prescriptions for pharmacist " + pharmacistId);
+                return claimed;
+                
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error claiming prescriptions:");
+            e.printStackTrace();
+            return 0;
+        }
+    }
+    
+    /**
+     * WORK QUEUE - Prescriptions this pharmacist currently holds a live claim on
+     */
+    public List<Prescription> getClaimedPrescriptions(int pharmacistId) {
+        List<Prescription> prescriptions = new ArrayList<>();
+        String sql = "SELECT p.*, " +
+                     "CONCAT(pat.first_name, ' ', pat.last_name) as patient_name, " +
+                     "doc.full_name as doctor_name, " +
+                     "m.medication_name " +
+                     "FROM prescriptions p " +
+                     "JOIN patients pat ON p.patient_id = pat.patient_id " +
+                     "JOIN users doc ON p.doctor_id = doc.user_id " +
+                     "JOIN medications m ON p.medication_id = m.medication_id " +
+                     "WHERE p.claimed_by = ? AND p.status = 'PENDING' " +
+                     "AND p.claimed_until >= CURRENT_TIMESTAMP " +
+                     "ORDER BY p.issued_date ASC";
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, pharmacistId);
-            stmt.setString(2, notes);
-            stmt.setInt(3, prescriptionId);
-            
-            int rowsAffected = stmt.executeUpdate();
             
-            if (rowsAffected > 0) {
-                System.out.println("✅ Prescription filled by pharmacist");
-                
-                // Also update medication inventory (reduce stock)
-                Prescription prescription = getPrescriptionById(prescriptionId);
-                if (prescription != null) {
-                    MedicationDAO medDAO = new MedicationDAO();
-                    medDAO.updateMedicationStock(prescription.getMedicationId(), 
-                                                 -prescription.getQuantity()); // Negative = reduce
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper.Reader<Prescription> reader = PrescriptionMapper.INSTANCE.bind(rs);
+                while (rs.next()) {
+                    prescriptions.add(reader.read(rs));
                 }
-                
-                return true;
             }
-            return false;
+            
+            System.out.println("✅ Retrieved " + prescriptions.size() + " claimed prescriptions");
             
         } catch (SQLException e) {
-            System.err.println("❌ Error filling prescription:");
+            System.err.println("❌ Error retrieving claimed prescriptions:");
             e.printStackTrace();
-            return false;
         }
+        
+        return prescriptions;
     }
     
     /**
-     * UPDATE - Update prescription status
+     * WORK QUEUE - Extend the lease on everything this pharmacist still holds
+     * Returns the number of claims renewed.
      */
-    public boolean updatePrescriptionStatus(int prescriptionId, String status) {
-        String sql = "UPDATE prescriptions SET status = ? WHERE prescription_id = ?";
+    public int renewClaims(int pharmacistId, int leaseSeconds) {
+        String sql = "UPDATE prescriptions SET claimed_until = CURRENT_TIMESTAMP + INTERVAL ? SECOND " +
+                     "WHERE claimed_by = ? AND status = 'PENDING' " +
+                     "AND claimed_until >= CURRENT_TIMESTAMP";
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, status);
-            stmt.setInt(2, prescriptionId);
+            stmt.setInt(1, leaseSeconds);
+            stmt.setInt(2, pharmacistId);
+            
+            return stmt.executeUpdate();
+            
+        } catch (SQLException e) {
+            System.err.println("❌ Error renewing prescription claims:");
+            e.printStackTrace();
+            return 0;
+        }
+    }
+    
+    /**
+     * WORK QUEUE - Put one claimed prescription back in the shared queue
+     */
+    public boolean releaseClaim(int prescriptionId, int pharmacistId) {
+        String sql = "UPDATE prescriptions SET claimed_by = NULL, claimed_until = NULL " +
+                     "WHERE prescription_id = ? AND claimed_by = ?";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, prescriptionId);
+            stmt.setInt(2, pharmacistId);
             
             int rowsAffected = stmt.executeUpdate();
             
             if (rowsAffected > 0) {
-                System.out.println("✅ Prescription status updated to: " + status);
+                System.out.println("✅ Prescription returned to the queue");
                 return true;
             }
             return false;
             
         } catch (SQLException e) {
-            System.err.println("❌ Error updating prescription status:");
+            System.err.println("❌ Error releasing prescription claim:");
             e.printStackTrace();
             return false;
         }
     }
     
     /**
-     * DELETE - Delete prescription
+     * WORK QUEUE - Release every claim a pharmacist holds (logout / window closed)
+     * Returns the number of prescriptions returned to the queue.
      */
-    public boolean deletePrescription(int prescriptionId) {
-        String sql = "DELETE FROM prescriptions WHERE prescription_id = ?";
+    public int releaseAllClaims(int pharmacistId) {
+        String sql = "UPDATE prescriptions SET claimed_by = NULL, claimed_until = NULL " +
+                     "WHERE claimed_by = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setInt(1, prescriptionId);
+            stmt.setInt(1, pharmacistId);
+            
+            int released = stmt.executeUpdate();
+            System.out.println("✅ Released " + released + " prescription claims");
+            return released;
+            
+        } catch (SQLException e) {
+            System.err.println("❌ Error releasing prescription claims:");
+            e.printStackTrace();
+            return 0;
+        }
+    }
+    
+    /**
+     * UPDATE - Move a prescription to a new status
+     * Only the moves PrescriptionStatus allows are made: the UPDATE matches the row only
+     * while it is in a status it may leave for this one, so a stale screen
+     * cannot push it back. Returns false if it was not in such a status.
+     */
+    public boolean updatePrescriptionStatus(int prescriptionId, PrescriptionStatus status) {
+        Set<PrescriptionStatus> previous = status.previous();
+        if (previous.isEmpty()) {
+            System.err.println("❌ No prescription can be moved to " + status);
+            return false;
+        }
+        StringBuilder sql = new StringBuilder("UPDATE prescriptions SET status = ? WHERE prescription_id = ? AND status IN (?");
+        for (int i = 1; i < previous.size(); i++) {
+            sql.append(", ?");
+        }
+        sql.append(")");
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            
+            stmt.setString(1, status.code());
+            stmt.setInt(2, prescriptionId);
+            int index = 3;
+            for (PrescriptionStatus from : previous) {
+                stmt.setString(index++, from.code());
+            }
+            
             int rowsAffected = stmt.executeUpdate();
             
             if (rowsAffected > 0) {
-                System.out.println("✅ Prescription deleted successfully");
+                System.out.println("✅ Prescription status updated to: " + status);
                 return true;
             }
             return false;
             
         } catch (SQLException e) {
-            System.err.println("❌ Error deleting prescription:");
+            System.err.println("❌ Error updating prescription status:");
             e.printStackTrace();
             return false;
         }
     }
     
     /**
-     * Helper method to extract Prescription from ResultSet
+     * READ - Prescriptions created, updated or deleted since a watermark
+     * Pass the watermark of the previous ChangeSet (or DatabaseConnection.getServerTime()
+     * taken before a full load). Changed rows are returned whatever their status,
+     * so callers can drop rows that no longer match their view. Returns null on error.
      */
-    private Prescription extractPrescriptionFromResultSet(ResultSet rs) throws SQLException {
-        Prescription prescription = new Prescription();
-        prescription.setPrescriptionId(rs.getInt("prescription_id"));
-        prescription.setAppointmentId(rs.getInt("appointment_id"));
-        prescription.setPatientId(rs.getInt("patient_id"));
-        prescription.setDoctorId(rs.getInt("doctor_id"));
-        prescription.setMedicationId(rs.getInt("medication_id"));
-        prescription.setDosageInstructions(rs.getString("dosage_instructions"));
-        prescription.setQuantity(rs.getInt("quantity"));
-        prescription.setRefills(rs.getInt("refills"));
-        prescription.setStatus(rs.getString("status"));
-        prescription.setIssuedDate(rs.getTimestamp("issued_date"));
-        prescription.setFilledDate(rs.getTimestamp("filled_date"));
-        
-        // Handle nullable pharmacist_id
-        int pharmacistId = rs.getInt("pharmacist_id");
-        if (!rs.wasNull()) {
-            prescription.setPharmacistId(pharmacistId);
-        }
-        
-        prescription.setPharmacistNotes(rs.getString("pharmacist_notes"));
-        
-        // Set display names (from JOINs)
-        prescription.setPatientName(rs.getString("patient_name"));
-        prescription.setDoctorName(rs.getString("doctor_name"));
-        prescription.setMedicationName(rs.getString("medication_name"));
-        
-        try {
-            prescription.setPharmacistName(rs.getString("pharmacist_name"));
+    public ChangeSet<Prescription> getChangedSince(Timestamp since) {
+        List<Prescription> changed = new ArrayList<>();
+        String sql = "SELECT p.*, " +
+                     "CONCAT(pat.first_name, ' ', pat.last_name) as patient_name, " +
+                     "doc.full_name as doctor_name, " +
+                     "m.medication_name, " +
+                     "pharm.full_name as pharmacist_name " +
+                     "FROM prescriptions p " +
+                     "JOIN patients pat ON p.patient_id = pat.patient_id " +
+                     "JOIN users doc ON p.doctor_id = doc.user_id " +
+                     "JOIN medications m ON p.medication_id = m.medication_id " +
+                     "LEFT JOIN users pharm ON p.pharmacist_id = pharm.user_id " +
+                     "WHERE p.last_updated >= ? " +
+                     "ORDER BY p.last_updated";
+        
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            if (conn == null) {
+                throw new SQLException("No database connection");
+            }
+            
+            Timestamp watermark = ChangeLog.serverTime(conn);
+            
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setTimestamp(1, ChangeLog.lookback(since));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    RowMapper.Reader<Prescription> reader = PrescriptionMapper.INSTANCE.bind(rs);
+                    while (rs.next()) {
+                        changed.add(reader.read(rs));
+                    }
+                }
+            }
+            List<Integer> deletedIds = ChangeLog.deletedSince(conn, "prescriptions", since);
+            
+            System.out.println("✅ " + changed.size() + " prescriptions changed, " +
+                               deletedIds.size() + " deleted since " + since);
+            return new ChangeSet<>(changed, deletedIds, watermark);
+            
         } catch (SQLException e) {
-            // pharmacist_name might not exist in all queries
+            System.err.println("❌ Error retrieving changed prescriptions:");
+            e.printStackTrace();
+            return null;
         }
+    }
+    
+    /**
+     * DELETE - Delete prescription
+     */
+    public boolean deletePrescription(int prescriptionId) {
+        String sql = "DELETE FROM prescriptions WHERE prescription_id = ?";
         
-        return prescription;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                stmt.setInt(1, prescriptionId);
+                int rowsAffected = stmt.executeUpdate();
+                
+                if (rowsAffected > 0) {
+                    // Tombstone so incremental refreshes drop the row as well
+                    ChangeLog.recordDelete(conn, "prescriptions", prescriptionId);
+                }
+                conn.commit();
+                
+                if (rowsAffected > 0) {
+                    System.out.println("✅ Prescription deleted successfully");
+                    return true;
+                }
+                return false;
+                
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error deleting prescription:");
+            e.printStackTrace();
+            return false;
+        }
     }
     
     /**
@@ -393,18 +924,51 @@ public class PrescriptionDAO {
             System.out.println();
         }
         
+        // Test 1b: Walk the history a page at a time
+        System.out.println("TEST 1b: Page through prescription history (keyset, 2 per page)");
+        Page<Prescription> page = prescriptionDAO.getPrescriptionsPage(null, 2);
+        int pageNumber = 1;
+        while (page != null) {
+            System.out.println("   Page " + pageNumber + ": " + page.size() + " prescriptions");
+            if (!page.hasMore()) {
+                break;
+            }
+            page = prescriptionDAO.getPrescriptionsPage(page.getLast(), 2);
+            pageNumber++;
+        }
+        System.out.println();
+        
         // Test 2: Get pending prescriptions (what pharmacy needs to fill)
         System.out.println("TEST 2: Get pending prescriptions for pharmacy");
         List<Prescription> pending = prescriptionDAO.getPendingPrescriptions();
         System.out.println("Found " + pending.size() + " pending prescriptions waiting to be filled");
         System.out.println();
         
+        // Test 2b: Claim work from the shared queue as pharmacist ID=4, then give it back
+        System.out.println("TEST 2b: Claim pending prescriptions for Pharmacist ID=4");
+        int claimed = prescriptionDAO.claimPendingPrescriptions(4, 5, 300);
+        System.out.println("Claimed " + claimed + ", holding " +
+                           prescriptionDAO.getClaimedPrescriptions(4).size());
+        prescriptionDAO.releaseAllClaims(4);
+        System.out.println();
+        
         // Test 3: Get prescriptions by doctor
         System.out.println("TEST 3: Get prescriptions issued by Doctor ID=1");
         List<Prescription> doctorPrescriptions = prescriptionDAO.getPrescriptionsByDoctor(1);
         System.out.println("Doctor has issued " + doctorPrescriptions.size() + " prescriptions");
         System.out.println();
         
+        // Test 4: Filter in the database - filled by Pharmacist ID=4 in the last 7 days
+        System.out.println("TEST 4: Find prescriptions filled this week by Pharmacist ID=4");
+        List<Prescription> filledThisWeek = prescriptionDAO.findPrescriptions(new PrescriptionCriteria()
+            .status(PrescriptionStatus.FILLED, PrescriptionStatus.READY_FOR_PICKUP, PrescriptionStatus.COMPLETED)
+            .filledBetween(java.time.LocalDate.now().minusDays(6), null)
+            .pharmacist(4)
+            .sortBy(PrescriptionCriteria.Sort.FILLED_NEWEST)
+            .limit(20));
+        System.out.println("Pharmacist filled " + filledThisWeek.size() + " prescriptions this week");
+        System.out.println();
+        
         System.out.println("========================================");
         System.out.println("✅ Inter-enterprise communication working!");
         System.out.println("Clinic (Doctor) → Pharmacy (Pharmacist) flow verified");
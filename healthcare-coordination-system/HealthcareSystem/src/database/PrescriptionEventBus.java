@@ -0,0 +1,159 @@
+package database;
+
+import model.Prescription;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * PrescriptionEventBus - Pushes prescription changes to open dashboards
+ * Two sources feed it:
+ *  - PrescriptionDAO.createPrescription publishes each new prescription as
+ *    soon as it is saved, so a dashboard in the same app sees it at once.
+ *  - One change-feed poller per JVM asks getChangedSince() every
+ *    healthcare.events.pollSeconds (default 5) and publishes what other app
+ *    instances wrote. It runs only while someone is subscribed, so however
+ *    many dashboards are open the database sees one small query per interval.
+ *    About once an hour it also prunes old delete tombstones.
+ *
+ * A row can arrive from both sources (and twice from the poller, which looks
+ * back a little) - apply events as upserts keyed by ID, as TableSync does.
+ * Listeners run on the publishing thread, never the EDT; a ChangeSet with a
+ * null watermark is a local event, not a poll result.
+ */
+public class PrescriptionEventBus {
+
+    private static final long POLL_MILLIS =
+            Long.getLong("healthcare.events.pollSeconds", 5) * 1000L;
+
+    private static final long PRUNE_MILLIS = 60 * 60 * 1000L;
+
+    private static final PrescriptionEventBus INSTANCE = new PrescriptionEventBus();
+
+    private final List<Consumer<ChangeSet<Prescription>>> listeners = new CopyOnWriteArrayList<>();
+
+    // Guarded by this
+    private ScheduledExecutorService poller;
+    private Timestamp watermark;
+    private long lastPruned = System.currentTimeMillis(); // startup prunes once already
+
+    private PrescriptionEventBus() {
+    }
+
+    public static PrescriptionEventBus getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Receive every prescription change from now on; the first subscriber
+     * starts the poller
+     */
+    public synchronized void subscribe(Consumer<ChangeSet<Prescription>> listener) {
+        listeners.add(listener);
+        if (poller == null) {
+            startPoller();
+        }
+    }
+
+    /**
+     * Stop receiving changes; the last one out stops the poller
+     */
+    public synchronized void unsubscribe(Consumer<ChangeSet<Prescription>> listener) {
+        listeners.remove(listener);
+        if (listeners.isEmpty() && poller != null) {
+            poller.shutdownNow();
+            poller = null;
+            System.out.println("✅ Prescription change feed stopped");
+        }
+    }
+
+    public boolean hasSubscribers() {
+        return !listeners.isEmpty();
+    }
+
+    /**
+     * Hand a change set to every listener
+     * One failing listener does not keep the others from hearing about it.
+     */
+    public void publish(ChangeSet<Prescription> changes) {
+        if (changes == null || changes.isEmpty()) {
+            return;
+        }
+        for (Consumer<ChangeSet<Prescription>> listener : listeners) {
+            try {
+                listener.accept(changes);
+            } catch (RuntimeException e) {
+                System.err.println("❌ Error delivering prescription event:");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void startPoller() {
+        watermark = null; // read the clock on the first poll, not while holding the lock
+        poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "prescription-change-feed");
+            t.setDaemon(true);
+            return t;
+        });
+        ScheduledExecutorService owner = poller;
+        poller.scheduleWithFixedDelay(() -> poll(owner), 0, POLL_MILLIS, TimeUnit.MILLISECONDS);
+        System.out.println("✅ Prescription change feed started (every " + POLL_MILLIS / 1000 + "s)");
+    }
+
+    /**
+     * One poll: publish what changed since the last one
+     * owner is the executor running it, so a poll that outlives its poller
+     * (unsubscribe, then subscribe again) does not move the new one's watermark.
+     */
+    private void poll(ScheduledExecutorService owner) {
+        try {
+            Timestamp since;
+            synchronized (this) {
+                if (poller != owner) {
+                    return;
+                }
+                since = watermark;
+            }
+
+            if (since == null) {
+                // First poll only sets the starting point; dashboards load the rest themselves
+                Timestamp now = DatabaseConnection.getServerTime();
+                synchronized (this) {
+                    if (poller == owner) {
+                        watermark = now;
+                    }
+                }
+                return;
+            }
+
+            ChangeSet<Prescription> changes = new PrescriptionDAO().getChangedSince(since);
+            if (changes == null) {
+                return; // try again from the same point next time
+            }
+            boolean prune;
+            synchronized (this) {
+                if (poller != owner) {
+                    return;
+                }
+                watermark = changes.getWatermark();
+                prune = System.currentTimeMillis() - lastPruned >= PRUNE_MILLIS;
+                if (prune) {
+                    lastPruned = System.currentTimeMillis();
+                }
+            }
+            publish(changes);
+            if (prune) {
+                ChangeLog.pruneDeletes();
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel every later run of the scheduled poll
+            System.err.println("❌ Error polling prescription changes:");
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,453 @@
+package database;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BooleanSupplier;
+import java.util.zip.GZIPOutputStream;
+import model.PrescriptionStatus;
+
+/**
+ * PrescriptionExporter - Streams prescription history to a CSV or NDJSON file
+ * For reporting on the full history without loading it into memory: rows
+ * are read through a streaming, forward-only cursor and written straight
+ * into a byte buffer that is flushed to a FileChannel (through gzip if
+ * asked), so memory use stays the same whether the export has a hundred
+ * rows or ten million.
+ *
+ * The file is written under a temporary name and renamed when complete, so
+ * a failed or cancelled export never leaves a truncated file behind.
+ */
+public class PrescriptionExporter {
+
+    public enum Format {
+        CSV, NDJSON;
+
+        /**
+         * NDJSON for .ndjson/.jsonl names (before any .gz), CSV otherwise
+         */
+        public static Format forFileName(String fileName) {
+            String name = fileName.toLowerCase(Locale.ROOT);
+            if (name.endsWith(".gz")) {
+                name = name.substring(0, name.length() - 3);
+            }
+            return name.endsWith(".ndjson") || name.endsWith(".jsonl") ? NDJSON : CSV;
+        }
+    }
+
+    /**
+     * Told every PROGRESS_INTERVAL rows (on the exporting thread)
+     */
+    public interface ProgressListener {
+        void progress(long rowsWritten);
+    }
+
+    private static final int PROGRESS_INTERVAL = 10_000;
+    private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+
+    // Exported columns: header name / whether NDJSON writes it as a number
+    private static final String[] COLUMNS = {
+        "prescription_id", "appointment_id", "patient_id", "patient_name", "doctor_id", "doctor_name",
+        "medication_id", "medication_name", "dosage_instructions", "quantity", "refills", "status",
+        "issued_date", "filled_date", "pharmacist_id", "pharmacist_name", "pharmacist_notes"
+    };
+    private static final boolean[] NUMERIC = {
+        true, true, true, false, true, false,
+        true, false, false, true, true, false,
+        false, false, true, false, false
+    };
+
+    private static final String SELECT_SQL =
+            "SELECT p.prescription_id, p.appointment_id, p.patient_id, " +
+            "CONCAT(pat.first_name, ' ', pat.last_name) as patient_name, " +
+            "p.doctor_id, doc.full_name as doctor_name, " +
+            "p.medication_id, m.medication_name, " +
+            "p.dosage_instructions, p.quantity, p.refills, p.status, " +
+            "p.issued_date, p.filled_date, " +
+            "p.pharmacist_id, pharm.full_name as pharmacist_name, p.pharmacist_notes " +
+            "FROM prescriptions p " +
+            "JOIN patients pat ON p.patient_id = pat.patient_id " +
+            "JOIN users doc ON p.doctor_id = doc.user_id " +
+            "JOIN medications m ON p.medication_id = m.medication_id " +
+            "LEFT JOIN users pharm ON p.pharmacist_id = pharm.user_id";
+
+    /**
+     * Export the prescriptions issued in [from, to) with the given status,
+     * oldest first
+     *
+     * @param from     first issue day included, or null for no lower bound
+     * @param to       first issue day excluded, or null for no upper bound
+     * @param status   e.g. FILLED, or null for every status
+     * @param listener may be null
+     * @return rows written
+     * @throws IOException  if the file cannot be written, or the thread was interrupted
+     * @throws SQLException if the query fails
+     */
+    public long export(Path file, Format format, boolean gzip, LocalDate from, LocalDate to,
+                       PrescriptionStatus status, ProgressListener listener) throws IOException, SQLException {
+        return export(file, format, gzip, from, to, status, listener, () -> false);
+    }
+
+    /**
+     * Same as the export above, giving up once stop returns true
+     * stop is asked every PROGRESS_INTERVAL rows, alongside the interrupt
+     * check, and the export then fails with an IOException and leaves no
+     * file behind. Unlike an interrupt it never reaches the connection.
+     */
+    public long export(Path file, Format format, boolean gzip, LocalDate from, LocalDate to,
+                       PrescriptionStatus status, ProgressListener listener, BooleanSupplier stop)
+            throws IOException, SQLException {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT_SQL).append(" WHERE 1 = 1");
+        if (from != null) {
+            sql.append(" AND p.issued_date >= ?");
+            params.add(Timestamp.valueOf(from.atStartOfDay()));
+        }
+        if (to != null) {
+            sql.append(" AND p.issued_date < ?");
+            params.add(Timestamp.valueOf(to.atStartOfDay()));
+        }
+        if (status != null) {
+            sql.append(" AND p.status = ?");
+            params.add(status.code());
+        }
+        sql.append(" ORDER BY p.issued_date, p.prescription_id");
+
+        long started = System.currentTimeMillis();
+        Path target = file.toAbsolutePath();
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        long rows = 0;
+        boolean complete = false;
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            if (conn == null) {
+                throw new SQLException("No database connection");
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql.toString(),
+                         ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                for (int i = 0; i < params.size(); i++) {
+                    stmt.setObject(i + 1, params.get(i));
+                }
+
+                // Stream the rows instead of buffering the whole result in the driver
+                stmt.setFetchSize(Integer.MIN_VALUE);
+
+                try (ResultSet rs = stmt.executeQuery();
+                     RowWriter out = new RowWriter(open(partial, gzip))) {
+
+                    if (format == Format.CSV) {
+                        writeCsvHeader(out);
+                    }
+                    while (rs.next()) {
+                        if (format == Format.CSV) {
+                            writeCsvRow(rs, out);
+                        } else {
+                            writeJsonRow(rs, out);
+                        }
+                        rows++;
+
+                        if (rows % PROGRESS_INTERVAL == 0) {
+                            if (stop.getAsBoolean() || Thread.currentThread().isInterrupted()) {
+                                throw new IOException("Export cancelled after " + rows + " rows");
+                            }
+                            if (listener != null) {
+                                listener.progress(rows);
+                            }
+                        }
+                    }
+                }
+            }
+
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            complete = true;
+        } finally {
+            if (!complete) {
+                Files.deleteIfExists(partial);
+            }
+        }
+
+        if (listener != null) {
+            listener.progress(rows);
+        }
+        System.out.println("✅ Exported " + rows + " prescriptions to " + target + " in " +
+                           (System.currentTimeMillis() - started) + " ms");
+        return rows;
+    }
+
+    private static WritableByteChannel open(Path file, boolean gzip) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                                               StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        if (!gzip) {
+            return channel;
+        }
+        OutputStream compressed = new GZIPOutputStream(Channels.newOutputStream(channel), WRITE_BUFFER_SIZE);
+        return Channels.newChannel(compressed);
+    }
+
+    private static void writeCsvHeader(RowWriter out) throws IOException {
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.writeText(COLUMNS[i]);
+        }
+        out.write('\n');
+    }
+
+    private static void writeCsvRow(ResultSet rs, RowWriter out) throws SQLException, IOException {
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            String value = rs.getString(i + 1);
+            if (value != null) {
+                if (NUMERIC[i]) {
+                    out.writeText(value);
+                } else {
+                    out.writeCsvField(value);
+                }
+            }
+        }
+        out.write('\n');
+    }
+
+    private static void writeJsonRow(ResultSet rs, RowWriter out) throws SQLException, IOException {
+        out.write('{');
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write('"');
+            out.writeText(COLUMNS[i]);
+            out.write('"');
+            out.write(':');
+            String value = rs.getString(i + 1);
+            if (value == null) {
+                out.writeText("null");
+            } else if (NUMERIC[i]) {
+                out.writeText(value);
+            } else {
+                out.writeJsonString(value);
+            }
+        }
+        out.write('}');
+        out.write('\n');
+    }
+
+    /**
+     * Encodes text as UTF-8 straight into a reusable buffer, flushed to the
+     * channel when full
+     */
+    private static final class RowWriter implements AutoCloseable {
+        private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+
+        RowWriter(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        void write(char ascii) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put((byte) ascii);
+        }
+
+        void writeText(String text) throws IOException {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    write(c);
+                } else {
+                    i = writeNonAscii(text, i);
+                }
+            }
+        }
+
+        /**
+         * Quoted (with quotes doubled) only when the value needs it
+         */
+        void writeCsvField(String value) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writeText(value);
+                return;
+            }
+            write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    write('"');
+                    write('"');
+                } else if (c < 0x80) {
+                    write(c);
+                } else {
+                    i = writeNonAscii(value, i);
+                }
+            }
+            write('"');
+        }
+
+        void writeJsonString(String value) throws IOException {
+            write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    write('\\');
+                    write(c);
+                } else if (c == '\n') {
+                    write('\\');
+                    write('n');
+                } else if (c == '\r') {
+                    write('\\');
+                    write('r');
+                } else if (c == '\t') {
+                    write('\\');
+                    write('t');
+                } else if (c < 0x20) {
+                    write('\\');
+                    write('u');
+                    write('0');
+                    write('0');
+                    write(HEX[c >> 4]);
+                    write(HEX[c & 0xF]);
+                } else if (c < 0x80) {
+                    write(c);
+                } else {
+                    i = writeNonAscii(value, i);
+                }
+            }
+            write('"');
+        }
+
+        /**
+         * UTF-8 bytes of the character at i; returns the index of its last char
+         */
+        private int writeNonAscii(String text, int i) throws IOException {
+            int codePoint = text.codePointAt(i);
+            if (Character.isSurrogate(text.charAt(i)) && !Character.isSupplementaryCodePoint(codePoint)) {
+                codePoint = '?'; // unpaired surrogate
+            }
+            if (buffer.remaining() < 4) {
+                flush();
+            }
+            if (codePoint < 0x80) {
+                buffer.put((byte) codePoint);
+            } else if (codePoint < 0x800) {
+                buffer.put((byte) (0xC0 | (codePoint >> 6)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (codePoint < 0x10000) {
+                buffer.put((byte) (0xE0 | (codePoint >> 12)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else {
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+                return i + 1;
+            }
+            return i;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close(); // finishes the gzip stream too
+            }
+        }
+    }
+
+    /**
+     * Export prescription history from the command line
+     * Usage: java database.PrescriptionExporter <file> [--format csv|ndjson] [--gzip]
+     *        [--from yyyy-MM-dd] [--to yyyy-MM-dd] [--status STATUS]
+     * The format defaults from the file name (.ndjson/.jsonl), and a .gz name turns on gzip.
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: java database.PrescriptionExporter <file> [--format csv|ndjson] [--gzip]");
+            System.err.println("       [--from yyyy-MM-dd] [--to yyyy-MM-dd] [--status PENDING|FILLED|READY_FOR_PICKUP|COMPLETED]");
+            System.exit(2);
+        }
+
+        Path file = Paths.get(args[0]);
+        Format format = Format.forFileName(args[0]);
+        boolean gzip = args[0].toLowerCase(Locale.ROOT).endsWith(".gz");
+        LocalDate from = null;
+        LocalDate to = null;
+        PrescriptionStatus status = null;
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--format":
+                        format = Format.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                        break;
+                    case "--gzip":
+                        gzip = true;
+                        break;
+                    case "--from":
+                        from = LocalDate.parse(args[++i]);
+                        break;
+                    case "--to":
+                        to = LocalDate.parse(args[++i]);
+                        break;
+                    case "--status":
+                        status = PrescriptionStatus.fromCode(args[++i].toUpperCase(Locale.ROOT));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("❌ Invalid arguments: " + e.getMessage());
+            System.exit(2);
+        }
+
+        try {
+            long rows = new PrescriptionExporter().export(file, format, gzip, from, to, status,
+                written -> System.out.printf("   %,d rows written%n", written));
+            System.out.println("\n✅ " + rows + " prescriptions exported to " + file);
+        } catch (IOException | SQLException e) {
+            System.err.println("❌ Prescription export failed:");
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            DatabaseConnection.closeConnection();
+        }
+    }
+}
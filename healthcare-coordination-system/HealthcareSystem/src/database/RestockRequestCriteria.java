@@ -0,0 +1,117 @@
+package database;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import model.RestockStatus;
+
+/**
+ * RestockRequestCriteria - Which requests RestockRequestDAO.findRestockRequests returns
+ * Unset filters are left out of the query. For example, everything still
+ * open for one medication:
+ *
+ *   new RestockRequestCriteria()
+ *       .medication(42)
+ *       .status(RestockStatus.PENDING, RestockStatus.APPROVED, RestockStatus.ORDERED);
+ *
+ * requestedBetween covers [from, to) by request date.
+ */
+public class RestockRequestCriteria {
+
+    /**
+     * Result order by request date
+     */
+    public enum Sort {
+        NEWEST("rr.requested_date DESC, rr.request_id DESC"),
+        OLDEST("rr.requested_date ASC, rr.request_id ASC");
+
+        private final String orderBy;
+
+        Sort(String orderBy) {
+            this.orderBy = orderBy;
+        }
+    }
+
+    private final Set<RestockStatus> statuses = EnumSet.noneOf(RestockStatus.class);
+    private LocalDate requestedFrom;
+    private LocalDate requestedTo;
+    private Integer medicationId;
+    private Integer requestedBy;
+    private Integer approvedBy;
+    private Sort sort = Sort.NEWEST;
+    private int limit;
+
+    /**
+     * Only these statuses (replaces any set before; none = every status)
+     */
+    public RestockRequestCriteria status(RestockStatus... statuses) {
+        this.statuses.clear();
+        this.statuses.addAll(Arrays.asList(statuses));
+        return this;
+    }
+
+    public RestockRequestCriteria requestedBetween(LocalDate from, LocalDate to) {
+        this.requestedFrom = from;
+        this.requestedTo = to;
+        return this;
+    }
+
+    public RestockRequestCriteria medication(int medicationId) {
+        this.medicationId = medicationId;
+        return this;
+    }
+
+    /**
+     * Requested by this pharmacist
+     */
+    public RestockRequestCriteria requestedBy(int pharmacistId) {
+        this.requestedBy = pharmacistId;
+        return this;
+    }
+
+    /**
+     * Approved by this manager
+     */
+    public RestockRequestCriteria approvedBy(int managerId) {
+        this.approvedBy = managerId;
+        return this;
+    }
+
+    public RestockRequestCriteria sortBy(Sort sort) {
+        this.sort = sort;
+        return this;
+    }
+
+    /**
+     * At most this many rows (0 = no limit)
+     */
+    public RestockRequestCriteria limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must be 0 or more: " + limit);
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Add the conditions to a query, always in this order
+     */
+    void appendTo(CriteriaQuery.Filter filter) {
+        List<String> codes = new ArrayList<>(statuses.size());
+        for (RestockStatus status : statuses) {
+            codes.add(status.code());
+        }
+        filter.in("rr.status", codes)
+              .atLeast("rr.requested_date", requestedFrom == null ? null : Timestamp.valueOf(requestedFrom.atStartOfDay()))
+              .before("rr.requested_date", requestedTo == null ? null : Timestamp.valueOf(requestedTo.atStartOfDay()))
+              .equal("rr.medication_id", medicationId)
+              .equal("rr.requested_by", requestedBy)
+              .equal("rr.approved_by", approvedBy)
+              .orderBy(sort.ordinal(), sort.orderBy)
+              .limit(limit);
+    }
+}
@@ -1,9 +1,11 @@
 package database;
 
 import model.RestockRequest;
+import model.RestockStatus;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * RestockRequestDAO - Data Access Object for RestockRequest operations
@@ -12,25 +14,26 @@ import java.util.List;
  */
 public class RestockRequestDAO {
     
+    // findRestockRequests: columns of getAllRestockRequests, conditions from the criteria
+    private static final CriteriaQuery FIND_QUERY = new CriteriaQuery(
+            "SELECT rr.*, " +
+            "m.medication_name, " +
+            "requester.full_name as requester_name, " +
+            "approver.full_name as approver_name " +
+            "FROM restock_requests rr " +
+            "JOIN medications m ON rr.medication_id = m.medication_id " +
+            "JOIN users requester ON rr.requested_by = requester.user_id " +
+            "LEFT JOIN users approver ON rr.approved_by = approver.user_id");
+    
     /**
      * CREATE - Pharmacist creates restock request
      * Work Request #4: Pharmacist requests more inventory from manager
      */
     public boolean createRestockRequest(RestockRequest request) {
-        String sql = "INSERT INTO restock_requests (medication_id, requested_quantity, " +
-                     "current_stock, priority, reason, status, requested_by) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, ?)";
-        
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = conn.prepareStatement(RestockRequestMapper.INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
             
-            stmt.setInt(1, request.getMedicationId());
-            stmt.setInt(2, request.getRequestedQuantity());
-            stmt.setInt(3, request.getCurrentStock());
-            stmt.setString(4, request.getPriority());
-            stmt.setString(5, request.getReason());
-            stmt.setString(6, request.getStatus());
-            stmt.setInt(7, request.getRequestedBy());
+            RestockRequestMapper.bindInsert(stmt, request);
             
             int rowsAffected = stmt.executeUpdate();
             
@@ -67,11 +70,12 @@ public class RestockRequestDAO {
                      "ORDER BY rr.requested_date DESC";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
             
+            RowMapper.Reader<RestockRequest> reader = RestockRequestMapper.INSTANCE.bind(rs);
             while (rs.next()) {
-                RestockRequest request = extractRestockRequestFromResultSet(rs);
+                RestockRequest request = reader.read(rs);
                 requests.add(request);
             }
             
@@ -106,11 +110,12 @@ public class RestockRequestDAO {
                      "END, rr.requested_date ASC";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
             
+            RowMapper.Reader<RestockRequest> reader = RestockRequestMapper.INSTANCE.bind(rs);
             while (rs.next()) {
-                RestockRequest request = extractRestockRequestFromResultSet(rs);
+                RestockRequest request = reader.read(rs);
                 requests.add(request);
             }
             
@@ -146,8 +151,9 @@ public class RestockRequestDAO {
             stmt.setInt(1, pharmacistId);
             ResultSet rs = stmt.executeQuery();
             
+            RowMapper.Reader<RestockRequest> reader = RestockRequestMapper.INSTANCE.bind(rs);
             while (rs.next()) {
-                RestockRequest request = extractRestockRequestFromResultSet(rs);
+                RestockRequest request = reader.read(rs);
                 requests.add(request);
             }
             
@@ -161,6 +167,32 @@ public class RestockRequestDAO {
         return requests;
     }
     
+    /**
+     * READ - Restock requests matching a criteria object
+     * Filtered in the database rather than in the dashboard; see CriteriaQuery.
+     */
+    public List<RestockRequest> findRestockRequests(RestockRequestCriteria criteria) {
+        List<RestockRequest> requests = new ArrayList<>();
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = FIND_QUERY.prepare(conn, criteria::appendTo);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            RowMapper.Reader<RestockRequest> reader = RestockRequestMapper.INSTANCE.bind(rs);
+            while (rs.next()) {
+                requests.add(reader.read(rs));
+            }
+            
+            System.out.println("✅ Found " + requests.size() + " restock requests");
+            
+        } catch (SQLException e) {
+            System.err.println("❌ Error finding restock requests:");
+            e.printStackTrace();
+        }
+        
+        return requests;
+    }
+    
     /**
      * READ - Get restock request by ID
      */
@@ -182,7 +214,7 @@ public class RestockRequestDAO {
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                return extractRestockRequestFromResultSet(rs);
+                return RestockRequestMapper.INSTANCE.bind(rs).read(rs);
             }
             
         } catch (SQLException e) {
@@ -196,10 +228,12 @@ public class RestockRequestDAO {
     /**
      * UPDATE - Manager approves restock request
      * Work Request #4: Manager responds to pharmacist's request
+     * Only a PENDING request is approved, so approving twice cannot add the stock twice.
      */
     public boolean approveRestockRequest(int requestId, int managerId, String managerNotes) {
         String sql = "UPDATE restock_requests SET status = 'APPROVED', approved_by = ?, " +
-                     "manager_notes = ?, approved_date = CURRENT_TIMESTAMP WHERE request_id = ?";
+                     "manager_notes = ?, approved_date = CURRENT_TIMESTAMP " +
+                     "WHERE request_id = ? AND status = 'PENDING'";
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -234,15 +268,31 @@ public class RestockRequestDAO {
     
     /**
      * UPDATE - Update restock request status
+     * Follows RestockStatus: PENDING -> APPROVED / REJECTED, APPROVED -> ORDERED
+     * -> RECEIVED. Returns false when the request is not in a status that
+     * may move to this one (e.g. it was already rejected).
      */
-    public boolean updateRestockRequestStatus(int requestId, String status) {
-        String sql = "UPDATE restock_requests SET status = ? WHERE request_id = ?";
+    public boolean updateRestockRequestStatus(int requestId, RestockStatus status) {
+        Set<RestockStatus> previous = status.previous();
+        if (previous.isEmpty()) {
+            System.err.println("❌ No restock request can be moved to " + status);
+            return false;
+        }
+        StringBuilder sql = new StringBuilder("UPDATE restock_requests SET status = ? WHERE request_id = ? AND status IN (?");
+        for (int i = 1; i < previous.size(); i++) {
+            sql.append(", ?");
+        }
+        sql.append(")");
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
             
-            stmt.setString(1, status);
+            stmt.setString(1, status.code());
             stmt.setInt(2, requestId);
+            int index = 3;
+            for (RestockStatus from : previous) {
+                stmt.setString(index++, from.code());
+            }
             
             int rowsAffected = stmt.executeUpdate();
             
@@ -260,65 +310,84 @@ public class RestockRequestDAO {
     }
     
     /**
-     * DELETE - Delete restock request
+     * READ - Restock requests created, updated or deleted since a watermark
+     * Pass the watermark of the previous ChangeSet (or DatabaseConnection.getServerTime()
+     * taken before a full load). Changed rows are returned whatever their status,
+     * so callers can drop rows that no longer match their view. Returns null on error.
      */
-    public boolean deleteRestockRequest(int requestId) {
-        String sql = "DELETE FROM restock_requests WHERE request_id = ?";
+    public ChangeSet<RestockRequest> getChangedSince(Timestamp since) {
+        List<RestockRequest> changed = new ArrayList<>();
+        String sql = "SELECT rr.*, " +
+                     "m.medication_name, " +
+                     "requester.full_name as requester_name, " +
+                     "approver.full_name as approver_name " +
+                     "FROM restock_requests rr " +
+                     "JOIN medications m ON rr.medication_id = m.medication_id " +
+                     "JOIN users requester ON rr.requested_by = requester.user_id " +
+                     "LEFT JOIN users approver ON rr.approved_by = approver.user_id " +
+                     "WHERE rr.last_updated >= ? " +
+                     "ORDER BY rr.last_updated";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
             
-            stmt.setInt(1, requestId);
-            int rowsAffected = stmt.executeUpdate();
+            Timestamp watermark = ChangeLog.serverTime(conn);
             
-            if (rowsAffected > 0) {
-                System.out.println("✅ Restock request deleted successfully");
-                return true;
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setTimestamp(1, ChangeLog.lookback(since));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    RowMapper.Reader<RestockRequest> reader = RestockRequestMapper.INSTANCE.bind(rs);
+                    while (rs.next()) {
+                        changed.add(reader.read(rs));
+                    }
+                }
             }
-            return false;
+            List<Integer> deletedIds = ChangeLog.deletedSince(conn, "restock_requests", since);
+            
+            System.out.println("✅ " + changed.size() + " restock requests changed, " +
+                               deletedIds.size() + " deleted since " + since);
+            return new ChangeSet<>(changed, deletedIds, watermark);
             
         } catch (SQLException e) {
-            System.err.println("❌ Error deleting restock request:");
+            System.err.println("❌ Error retrieving changed restock requests:");
             e.printStackTrace();
-            return false;
+            return null;
         }
     }
     
     /**
-     * Helper method to extract RestockRequest from ResultSet
+     * DELETE - Delete restock request
      */
-    private RestockRequest extractRestockRequestFromResultSet(ResultSet rs) throws SQLException {
-        RestockRequest request = new RestockRequest();
-        request.setRequestId(rs.getInt("request_id"));
-        request.setMedicationId(rs.getInt("medication_id"));
-        request.setRequestedQuantity(rs.getInt("requested_quantity"));
-        request.setCurrentStock(rs.getInt("current_stock"));
-        request.setPriority(rs.getString("priority"));
-        request.setReason(rs.getString("reason"));
-        request.setStatus(rs.getString("status"));
-        request.setRequestedBy(rs.getInt("requested_by"));
-        request.setRequestedDate(rs.getTimestamp("requested_date"));
-        
-        // Handle nullable approved_by
-        int approvedBy = rs.getInt("approved_by");
-        if (!rs.wasNull()) {
-            request.setApprovedBy(approvedBy);
-        }
-        
-        request.setApprovedDate(rs.getTimestamp("approved_date"));
-        request.setManagerNotes(rs.getString("manager_notes"));
-        
-        // Set display names (from JOINs)
-        request.setMedicationName(rs.getString("medication_name"));
-        request.setRequesterName(rs.getString("requester_name"));
+    public boolean deleteRestockRequest(int requestId) {
+        String sql = "DELETE FROM restock_requests WHERE request_id = ?";
         
-        try {
-            request.setApproverName(rs.getString("approver_name"));
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                stmt.setInt(1, requestId);
+                int rowsAffected = stmt.executeUpdate();
+                
+                if (rowsAffected > 0) {
+                    // Tombstone so incremental refreshes drop the row as well
+                    ChangeLog.recordDelete(conn, "restock_requests", requestId);
+                }
+                conn.commit();
+                
+                if (rowsAffected > 0) {
+                    System.out.println("✅ Restock request deleted successfully");
+                    return true;
+                }
+                return false;
+                
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
-            // approver_name might not exist if not yet approved
+            System.err.println("❌ Error deleting restock request:");
+            e.printStackTrace();
+            return false;
         }
-        
-        return request;
     }
     
     /**
@@ -356,6 +425,14 @@ public class RestockRequestDAO {
         System.out.println("Found " + pending.size() + " pending requests awaiting approval");
         System.out.println();
         
+        // Test 3: Open requests for medication ID=1, filtered in the database
+        System.out.println("TEST 3: Find open restock requests for Medication ID=1");
+        List<RestockRequest> open = restockDAO.findRestockRequests(new RestockRequestCriteria()
+            .medication(1)
+            .status(RestockStatus.PENDING, RestockStatus.APPROVED, RestockStatus.ORDERED));
+        System.out.println("Found " + open.size() + " open requests for this medication");
+        System.out.println();
+        
         System.out.println("========================================");
         System.out.println("✅ Intra-enterprise workflow working!");
         System.out.println("Pharmacist → Manager flow verified");
@@ -0,0 +1,91 @@
+package database;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * RowMapper - Turns result set rows into model objects by column position
+ * Reading a column by name makes the driver search the result set's labels
+ * on every call, and reading one the query did not select throws (stack
+ * trace and all) - once per row. A mapper looks its columns up once per
+ * result set instead: bind() resolves them against the metadata and returns
+ * a Reader that reads every row by index. Columns a query may leave out are
+ * looked up with Columns.find() and skipped when absent.
+ *
+ * The model mappers (PrescriptionMapper etc.) are generated at build time
+ * from the model's @Mapped/@Column annotations; see model.Mapped.
+ *
+ * Usage in a DAO:
+ *   RowMapper.Reader<Prescription> reader = PrescriptionMapper.INSTANCE.bind(rs);
+ *   while (rs.next()) {
+ *       prescriptions.add(reader.read(rs));
+ *   }
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * Look up the columns this mapper reads and return a reader for them
+     */
+    Reader<T> bind(Columns columns) throws SQLException;
+
+    /**
+     * Bind to one result set; the reader is only valid for that result set
+     * The rows it reads count towards DaoMetrics for the DAO call that
+     * borrowed the current connection.
+     */
+    default Reader<T> bind(ResultSet rs) throws SQLException {
+        Reader<T> reader = bind(Columns.of(rs));
+        DaoMetrics.Call call = DaoMetrics.current();
+        return call == null ? reader : call.count(reader);
+    }
+
+    /**
+     * Reads the current row with column positions resolved by bind()
+     */
+    @FunctionalInterface
+    interface Reader<T> {
+        T read(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Column positions of one result set, by label (case-insensitive)
+     * When two columns share a label the first one wins, as with
+     * ResultSet.findColumn().
+     */
+    final class Columns {
+        private final Map<String, Integer> positions = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        private Columns(ResultSetMetaData metaData) throws SQLException {
+            for (int i = metaData.getColumnCount(); i >= 1; i--) {
+                positions.put(metaData.getColumnLabel(i), i);
+            }
+        }
+
+        public static Columns of(ResultSet rs) throws SQLException {
+            return new Columns(rs.getMetaData());
+        }
+
+        /**
+         * 1-based position of a column the query may not select, or 0 if it did not
+         */
+        public int find(String label) {
+            Integer position = positions.get(label);
+            return position == null ? 0 : position;
+        }
+
+        /**
+         * 1-based position of a column every query of this mapper selects
+         */
+        public int require(String label) throws SQLException {
+            Integer position = positions.get(label);
+            if (position == null) {
+                throw new SQLException("Column '" + label + "' not found.");
+            }
+            return position;
+        }
+    }
+}
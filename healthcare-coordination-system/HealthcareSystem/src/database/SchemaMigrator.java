@@ -0,0 +1,245 @@
+package database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.sql.DataSource;
+
+/**
+ * SchemaMigrator - Applies numbered schema migrations at startup
+ * Each migration runs once per database and is recorded in schema_version.
+ * DatabaseConnection runs this when the pool starts, so an existing database
+ * picks up new indexes and columns without re-running database_schema.sql.
+ *
+ * Migrations only ever get appended - never edit or renumber one that has
+ * shipped. A statement that fails because its column or index already
+ * exists (e.g. on a database created from the current database_schema.sql)
+ * counts as applied.
+ */
+public class SchemaMigrator {
+
+    // MySQL errors meaning "this change is already in place"
+    private static final int ER_DUP_FIELDNAME = 1060;
+    private static final int ER_DUP_KEYNAME = 1061;
+    private static final int ER_FK_DUP_NAME = 1826;
+
+    // Serialises migrations when several app instances start at once
+    private static final String LOCK_NAME = "healthcare_schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+    private static final List<Migration> MIGRATIONS = Collections.unmodifiableList(Arrays.asList(
+        new Migration(1, "Indexes for the dashboard list queries",
+            // getPendingPrescriptions + work queue claim: status filter, oldest first
+            "CREATE INDEX idx_prescriptions_status ON prescriptions (status, issued_date, prescription_id)",
+            // getPrescriptionsByDoctor / ByPatient: newest first per person
+            "CREATE INDEX idx_prescriptions_doctor ON prescriptions (doctor_id, issued_date)",
+            "CREATE INDEX idx_prescriptions_patient ON prescriptions (patient_id, issued_date)",
+            // getAppointmentsByDoctor / ByPatient: ordered by date and time
+            "CREATE INDEX idx_appointments_doctor ON appointments (doctor_id, appointment_date, appointment_time)",
+            "CREATE INDEX idx_appointments_patient ON appointments (patient_id, appointment_date, appointment_time)",
+            // getPendingRestockRequests / ByPharmacist / getAllRestockRequests
+            "CREATE INDEX idx_restock_status ON restock_requests (status, requested_date)",
+            "CREATE INDEX idx_restock_requester ON restock_requests (requested_by, requested_date)",
+            "CREATE INDEX idx_restock_requested ON restock_requests (requested_date)",
+            // getUsersByRole, getAllPatients, getAllMedications sort orders
+            "CREATE INDEX idx_users_role ON users (role, full_name)",
+            "CREATE INDEX idx_patients_name ON patients (last_name, first_name)",
+            "CREATE INDEX idx_medications_name ON medications (medication_name)"),
+        new Migration(2, "Keyset pagination indexes",
+            "CREATE INDEX idx_prescriptions_seek ON prescriptions (issued_date, prescription_id)",
+            "CREATE INDEX idx_appointments_seek ON appointments (appointment_date, appointment_time, appointment_id)"),
+        new Migration(3, "Pharmacist work queue claims",
+            "ALTER TABLE prescriptions ADD COLUMN claimed_by INT NULL",
+            "ALTER TABLE prescriptions ADD COLUMN claimed_until TIMESTAMP NULL",
+            "ALTER TABLE prescriptions ADD CONSTRAINT fk_prescriptions_claimed_by " +
+            "FOREIGN KEY (claimed_by) REFERENCES users(user_id)"),
+        new Migration(4, "Change tracking for incremental table refresh",
+            "ALTER TABLE prescriptions ADD COLUMN last_updated TIMESTAMP(3) NOT NULL " +
+            "DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3)",
+            "ALTER TABLE appointments ADD COLUMN last_updated TIMESTAMP(3) NOT NULL " +
+            "DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3)",
+            "ALTER TABLE restock_requests ADD COLUMN last_updated TIMESTAMP(3) NOT NULL " +
+            "DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3)",
+            "CREATE INDEX idx_prescriptions_updated ON prescriptions (last_updated)",
+            "CREATE INDEX idx_appointments_updated ON appointments (last_updated)",
+            "CREATE INDEX idx_restock_updated ON restock_requests (last_updated)",
+            "CREATE TABLE IF NOT EXISTS deleted_rows (" +
+            "table_name VARCHAR(40) NOT NULL, " +
+            "row_id INT NOT NULL, " +
+            "deleted_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3), " +
+            "PRIMARY KEY (table_name, row_id), " +
+            "INDEX idx_deleted_rows_since (table_name, deleted_at))"),
+        new Migration(5, "Indexes for criteria queries",
+            // findPrescriptions by pharmacist (filled date range) or by medication (issued date range)
+            "CREATE INDEX idx_prescriptions_pharmacist ON prescriptions (pharmacist_id, filled_date)",
+            "CREATE INDEX idx_prescriptions_medication ON prescriptions (medication_id, issued_date)",
+            // findAppointments by status and date
+            "CREATE INDEX idx_appointments_status ON appointments (status, appointment_date, appointment_time)",
+            // findRestockRequests by medication
+            "CREATE INDEX idx_restock_medication ON restock_requests (medication_id, requested_date)"),
+        new Migration(6, "Index for one doctor's appointment changes",
+            // AppointmentDAO.getChangedSince(doctorId, since)
+            "CREATE INDEX idx_appointments_doctor_updated ON appointments (doctor_id, last_updated)")
+    ));
+
+    private final DataSource dataSource;
+
+    public SchemaMigrator(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Apply every migration newer than the database's current version
+     * Returns the number of migrations applied.
+     */
+    public int migrate() throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            if (!acquireLock(conn)) {
+                throw new SQLException("Timed out waiting for another instance to finish migrating");
+            }
+            try {
+                createVersionTable(conn);
+                int current = getCurrentVersion(conn);
+                int applied = 0;
+
+                for (Migration migration : MIGRATIONS) {
+                    if (migration.version <= current) {
+                        continue;
+                    }
+                    apply(conn, migration);
+                    applied++;
+                    System.out.println("✅ Applied schema migration " + migration.version +
+                                       ": " + migration.description);
+                }
+                return applied;
+            } finally {
+                releaseLock(conn);
+            }
+        }
+    }
+
+    /**
+     * Highest migration recorded in schema_version (0 for a fresh database)
+     */
+    public int getCurrentVersion() throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            createVersionTable(conn);
+            return getCurrentVersion(conn);
+        }
+    }
+
+    /**
+     * Newest migration this build knows about
+     */
+    public static int getLatestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+    }
+
+    private void apply(Connection conn, Migration migration) throws SQLException {
+        // MySQL commits each DDL statement on its own, so there is no transaction to
+        // roll back - a half-applied migration is finished by the duplicate checks below
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : migration.statements) {
+                try {
+                    stmt.execute(sql);
+                } catch (SQLException e) {
+                    if (!isAlreadyApplied(e)) {
+                        throw e;
+                    }
+                }
+            }
+        }
+
+        String sql = "INSERT INTO schema_version (version, description) VALUES (?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, migration.version);
+            stmt.setString(2, migration.description);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static boolean isAlreadyApplied(SQLException e) {
+        int code = e.getErrorCode();
+        return code == ER_DUP_FIELDNAME || code == ER_DUP_KEYNAME || code == ER_FK_DUP_NAME;
+    }
+
+    private void createVersionTable(Connection conn) throws SQLException {
+        String sql = "CREATE TABLE IF NOT EXISTS schema_version (" +
+                     "version INT PRIMARY KEY, " +
+                     "description VARCHAR(200) NOT NULL, " +
+                     "applied_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP)";
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private int getCurrentVersion(Connection conn) throws SQLException {
+        String sql = "SELECT COALESCE(MAX(version), 0) FROM schema_version";
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private boolean acquireLock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private void releaseLock(Connection conn) {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.executeQuery().close();
+        } catch (SQLException e) {
+            // The lock is dropped with the session anyway
+        }
+    }
+
+    /**
+     * One numbered schema change
+     */
+    private static final class Migration {
+        private final int version;
+        private final String description;
+        private final String[] statements;
+
+        Migration(int version, String description, String... statements) {
+            this.version = version;
+            this.description = description;
+            this.statements = statements;
+        }
+    }
+
+    /**
+     * TEST METHOD - also usable to migrate a database by hand
+     */
+    public static void main(String[] args) {
+        System.out.println("========================================");
+        System.out.println("Running Schema Migrations");
+        System.out.println("========================================\n");
+
+        try {
+            SchemaMigrator migrator = new SchemaMigrator(DatabaseConnection.getDataSource());
+            int applied = migrator.migrate();
+            System.out.println("Applied " + applied + " migration(s); schema is at version " +
+                               migrator.getCurrentVersion() + " of " + getLatestVersion());
+        } catch (ClassNotFoundException | SQLException e) {
+            System.err.println("❌ Schema migration failed:");
+            e.printStackTrace();
+        } finally {
+            DatabaseConnection.closeConnection();
+        }
+
+        System.out.println("========================================");
+    }
+}
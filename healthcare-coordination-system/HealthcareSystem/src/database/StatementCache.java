@@ -0,0 +1,325 @@
+package database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * StatementCache - LRU cache of prepared statements for one pooled connection
+ * Keyed by SQL text (plus generated-keys / result set options). A DAO's
+ * stmt.close() hands the statement back here, so the next call with the same
+ * SQL skips the parse/prepare round trip. With useServerPrepStmts=true the
+ * server-side statement handle stays prepared for the life of the connection.
+ */
+final class StatementCache {
+
+    /**
+     * Hit/miss counters shared by every connection in a pool
+     * Per-SQL hit counts are kept for the first MAX_TRACKED_SQL statements
+     * only; generated SQL (padded IN-lists, criteria shapes) would otherwise
+     * add keys for the life of the JVM. The totals count everything.
+     */
+    static final class Stats {
+        static final int MAX_TRACKED_SQL = 128;
+
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private final Map<String, LongAdder> hitsBySql = new ConcurrentHashMap<>();
+
+        long getHits() {
+            return hits.sum();
+        }
+
+        long getMisses() {
+            return misses.sum();
+        }
+
+        long getEvictions() {
+            return evictions.sum();
+        }
+
+        long getHits(String sql) {
+            LongAdder adder = hitsBySql.get(sql);
+            return adder == null ? 0 : adder.sum();
+        }
+
+        private void hit(String sql) {
+            hits.increment();
+            LongAdder adder = hitsBySql.get(sql);
+            if (adder == null) {
+                if (hitsBySql.size() >= MAX_TRACKED_SQL) {
+                    return;
+                }
+                adder = hitsBySql.computeIfAbsent(sql, k -> new LongAdder());
+            }
+            adder.increment();
+        }
+    }
+
+    private final Connection physical;
+    private final int maxSize;
+    private final Stats stats;
+    private final LinkedHashMap<Key, Entry> entries;
+
+    StatementCache(Connection physical, int maxSize, Stats stats) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.stats = stats;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() <= StatementCache.this.maxSize) {
+                    return false;
+                }
+                eldest.getValue().evict();
+                StatementCache.this.stats.evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Serve Connection.prepareStatement(...) from the cache
+     * args are exactly the arguments the DAO passed to prepareStatement;
+     * call (null when metrics are off) counts the statement's errors and
+     * update counts; result sets are returned unwrapped.
+     */
+    synchronized PreparedStatement prepare(Method method, Object[] args, DaoMetrics.Call call) throws SQLException {
+        String sql = (String) args[0];
+        Key key = new Key(sql, Arrays.copyOfRange(args, 1, args.length));
+
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.inUse) {
+            stats.hit(sql);
+            return entry.checkout(call);
+        }
+
+        stats.misses.increment();
+        PreparedStatement stmt = invoke(method, args);
+        if (entry != null || maxSize == 0) {
+            // Same SQL already checked out (nested DAO call) - hand out a one-off
+            Entry oneOff = new Entry(stmt);
+            oneOff.evicted = true;
+            return oneOff.checkout(call);
+        }
+        entry = new Entry(stmt);
+        entries.put(key, entry);
+        return entry.checkout(call);
+    }
+
+    private PreparedStatement invoke(Method method, Object[] args) throws SQLException {
+        try {
+            return (PreparedStatement) method.invoke(physical, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            throw new SQLException(cause);
+        } catch (IllegalAccessException e) {
+            throw new SQLException(e);
+        }
+    }
+
+    /**
+     * Cache key - SQL text plus any extra prepareStatement arguments
+     */
+    private static final class Key {
+        private final String sql;
+        private final Object[] options;
+        private final int hash;
+
+        Key(String sql, Object[] options) {
+            this.sql = sql;
+            this.options = options;
+            this.hash = 31 * sql.hashCode() + Arrays.deepHashCode(options);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash && sql.equals(other.sql) && Arrays.deepEquals(options, other.options);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * One physical statement; checked out to at most one DAO call at a time
+     */
+    private final class Entry {
+        private final PreparedStatement physicalStmt;
+        private boolean inUse;
+        private boolean evicted;
+
+        Entry(PreparedStatement physicalStmt) {
+            this.physicalStmt = physicalStmt;
+        }
+
+        PreparedStatement checkout(DaoMetrics.Call call) {
+            inUse = true;
+            return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class },
+                new Checkout(this, call));
+        }
+
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly();
+            }
+        }
+
+        void checkin(boolean reusable) {
+            synchronized (StatementCache.this) {
+                inUse = false;
+                if (evicted || !reusable) {
+                    evicted = true;
+                    entries.values().remove(this);
+                    closeQuietly();
+                }
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                physicalStmt.close();
+            } catch (SQLException e) {
+                // Statement is gone either way
+            }
+        }
+    }
+
+    /**
+     * Proxy handed to the DAO; close() returns the statement to the cache
+     */
+    private final class Checkout implements InvocationHandler {
+        private final Entry entry;
+        private final DaoMetrics.Call call;
+        private final List<ResultSet> openResults = new ArrayList<>(1);
+        private boolean closed;
+        private boolean batched;
+        private boolean tuned; // fetch size / max rows / timeout changed
+
+        Checkout(Entry entry, DaoMetrics.Call call) {
+            this.entry = entry;
+            this.call = call;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        entry.checkin(reset());
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "getConnection":
+                    throw new SQLException("Use the connection the statement was prepared on");
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached[" + entry.physicalStmt + "]";
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("Statement is closed");
+            }
+            if (name.equals("addBatch")) {
+                batched = true;
+            } else if (name.equals("setFetchSize") || name.equals("setMaxRows") ||
+                       name.equals("setQueryTimeout") || name.equals("setFetchDirection") ||
+                       name.equals("setLargeMaxRows")) {
+                tuned = true;
+            }
+
+            Object result;
+            try {
+                result = method.invoke(entry.physicalStmt, args);
+            } catch (InvocationTargetException e) {
+                if (call != null) {
+                    call.failed();
+                }
+                throw e.getCause();
+            }
+            if (result instanceof ResultSet) {
+                openResults.add((ResultSet) result);
+            } else if (call != null && name.startsWith("execute")) {
+                countUpdates(result);
+            }
+            return result;
+        }
+
+        /**
+         * Add the rows an executeUpdate / executeBatch changed to the call
+         */
+        private void countUpdates(Object result) {
+            if (result instanceof Integer || result instanceof Long) {
+                call.rows(Math.max(0, ((Number) result).longValue()));
+            } else if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    call.rows(Math.max(0, count)); // SUCCESS_NO_INFO is -2
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    call.rows(Math.max(0, count));
+                }
+            }
+        }
+
+        /**
+         * Put the statement back the way prepareStatement() left it
+         */
+        private boolean reset() {
+            try {
+                for (ResultSet rs : openResults) {
+                    rs.close();
+                }
+                openResults.clear();
+                PreparedStatement stmt = entry.physicalStmt;
+                stmt.clearParameters();
+                if (batched) {
+                    stmt.clearBatch();
+                }
+                if (tuned) {
+                    stmt.setFetchSize(0);
+                    stmt.setMaxRows(0);
+                    stmt.setQueryTimeout(0);
+                    stmt.setFetchDirection(ResultSet.FETCH_FORWARD);
+                }
+                stmt.clearWarnings();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+    }
+}
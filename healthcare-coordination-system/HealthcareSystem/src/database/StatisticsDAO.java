@@ -0,0 +1,87 @@
+package database;
+
+import model.ClinicStatistics;
+import java.sql.*;
+
+/**
+ * StatisticsDAO - Data Access Object for dashboard counters
+ * Counts are computed in the database (COUNT / conditional SUM) so a
+ * dashboard refresh is one small round trip however big the tables get.
+ */
+public class StatisticsDAO {
+    
+    /**
+     * READ - All clinic admin dashboard counters in one query
+     * Returns an all-zero object if the query fails.
+     */
+    public ClinicStatistics getClinicStatistics() {
+        ClinicStatistics stats = new ClinicStatistics();
+        String sql = "SELECT u.doctors, u.clinic_admins, pa.patients, " +
+                     "a.appointments, a.scheduled_appointments, a.completed_appointments, " +
+                     "p.prescriptions, p.pending_prescriptions, p.filled_prescriptions, p.completed_prescriptions " +
+                     "FROM (SELECT COALESCE(SUM(role = 'DOCTOR'), 0) as doctors, " +
+                     "             COALESCE(SUM(role = 'CLINIC_ADMIN'), 0) as clinic_admins " +
+                     "      FROM users) u " +
+                     "CROSS JOIN (SELECT COUNT(*) as patients FROM patients) pa " +
+                     "CROSS JOIN (SELECT COUNT(*) as appointments, " +
+                     "                   COALESCE(SUM(status = 'SCHEDULED'), 0) as scheduled_appointments, " +
+                     "                   COALESCE(SUM(status = 'COMPLETED'), 0) as completed_appointments " +
+                     "            FROM appointments) a " +
+                     "CROSS JOIN (SELECT COUNT(*) as prescriptions, " +
+                     "                   COALESCE(SUM(status = 'PENDING'), 0) as pending_prescriptions, " +
+                     "                   COALESCE(SUM(status = 'FILLED'), 0) as filled_prescriptions, " +
+                     "                   COALESCE(SUM(status = 'COMPLETED'), 0) as completed_prescriptions " +
+                     "            FROM prescriptions) p";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            if (rs.next()) {
+                stats.setTotalDoctors(rs.getInt("doctors"));
+                stats.setTotalClinicAdmins(rs.getInt("clinic_admins"));
+                stats.setTotalPatients(rs.getInt("patients"));
+                stats.setTotalAppointments(rs.getInt("appointments"));
+                stats.setScheduledAppointments(rs.getInt("scheduled_appointments"));
+                stats.setCompletedAppointments(rs.getInt("completed_appointments"));
+                stats.setTotalPrescriptions(rs.getInt("prescriptions"));
+                stats.setPendingPrescriptions(rs.getInt("pending_prescriptions"));
+                stats.setFilledPrescriptions(rs.getInt("filled_prescriptions"));
+                stats.setCompletedPrescriptions(rs.getInt("completed_prescriptions"));
+            }
+            
+            System.out.println("✅ Retrieved clinic statistics");
+            
+        } catch (SQLException e) {
+            System.err.println("❌ Error retrieving clinic statistics:");
+            e.printStackTrace();
+        }
+        
+        return stats;
+    }
+    
+    /**
+     * TEST METHOD
+     */
+    public static void main(String[] args) {
+        System.out.println("========================================");
+        System.out.println("Testing StatisticsDAO Operations");
+        System.out.println("========================================\n");
+        
+        StatisticsDAO statisticsDAO = new StatisticsDAO();
+        
+        System.out.println("TEST 1: Get clinic statistics (single query)");
+        ClinicStatistics stats = statisticsDAO.getClinicStatistics();
+        System.out.println("   Doctors: " + stats.getTotalDoctors());
+        System.out.println("   Clinic admins: " + stats.getTotalClinicAdmins());
+        System.out.println("   Patients: " + stats.getTotalPatients());
+        System.out.println("   Appointments: " + stats.getTotalAppointments());
+        System.out.println("   Prescriptions: " + stats.getTotalPrescriptions() +
+                           " (" + stats.getPendingPrescriptions() + " pending)");
+        System.out.println();
+        
+        System.out.println("========================================");
+        System.out.println("All StatisticsDAO tests completed!");
+        System.out.println("========================================");
+    }
+}
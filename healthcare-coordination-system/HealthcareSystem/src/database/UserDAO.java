@@ -28,16 +28,7 @@ public class UserDAO {
             
             if (rs.next()) {
                 // User found - create User object from database data
-                User user = new User();
-                user.setUserId(rs.getInt("user_id"));
-                user.setUsername(rs.getString("username"));
-                user.setPassword(rs.getString("password"));
-                user.setFullName(rs.getString("full_name"));
-                user.setRole(rs.getString("role"));
-                user.setEnterpriseType(rs.getString("enterprise_type"));
-                user.setEmail(rs.getString("email"));
-                user.setPhone(rs.getString("phone"));
-                user.setCreatedDate(rs.getTimestamp("created_date"));
+                User user = UserMapper.INSTANCE.bind(rs).read(rs);
                 
                 System.out.println("✅ Login successful: " + user.getFullName());
                 return user;
@@ -57,19 +48,10 @@ public class UserDAO {
      * CREATE - Add new user to database
      */
     public boolean createUser(User user) {
-        String sql = "INSERT INTO users (username, password, full_name, role, enterprise_type, email, phone) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, ?)";
-        
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(UserMapper.INSERT_SQL)) {
             
-            stmt.setString(1, user.getUsername());
-            stmt.setString(2, user.getPassword());
-            stmt.setString(3, user.getFullName());
-            stmt.setString(4, user.getRole());
-            stmt.setString(5, user.getEnterpriseType());
-            stmt.setString(6, user.getEmail());
-            stmt.setString(7, user.getPhone());
+            UserMapper.bindInsert(stmt, user);
             
             int rowsAffected = stmt.executeUpdate();
             
@@ -94,22 +76,12 @@ public class UserDAO {
         String sql = "SELECT * FROM users ORDER BY full_name";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
             
+            RowMapper.Reader<User> reader = UserMapper.INSTANCE.bind(rs);
             while (rs.next()) {
-                User user = new User();
-                user.setUserId(rs.getInt("user_id"));
-                user.setUsername(rs.getString("username"));
-                user.setPassword(rs.getString("password"));
-                user.setFullName(rs.getString("full_name"));
-                user.setRole(rs.getString("role"));
-                user.setEnterpriseType(rs.getString("enterprise_type"));
-                user.setEmail(rs.getString("email"));
-                user.setPhone(rs.getString("phone"));
-                user.setCreatedDate(rs.getTimestamp("created_date"));
-                
-                users.add(user);
+                users.add(reader.read(rs));
             }
             
             System.out.println("✅ Retrieved " + users.size() + " users from database");
@@ -127,7 +99,8 @@ public class UserDAO {
      */
     public List<User> getUsersByRole(String role) {
         List<User> users = new ArrayList<>();
-        String sql = "SELECT * FROM users WHERE role = ? ORDER BY full_name";
+        String sql = "SELECT user_id, username, full_name, role, enterprise_type, email, phone " +
+                     "FROM users WHERE role = ? ORDER BY full_name";
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -135,17 +108,9 @@ public class UserDAO {
             stmt.setString(1, role);
             ResultSet rs = stmt.executeQuery();
             
+            RowMapper.Reader<User> reader = UserMapper.INSTANCE.bind(rs);
             while (rs.next()) {
-                User user = new User();
-                user.setUserId(rs.getInt("user_id"));
-                user.setUsername(rs.getString("username"));
-                user.setFullName(rs.getString("full_name"));
-                user.setRole(rs.getString("role"));
-                user.setEnterpriseType(rs.getString("enterprise_type"));
-                user.setEmail(rs.getString("email"));
-                user.setPhone(rs.getString("phone"));
-                
-                users.add(user);
+                users.add(reader.read(rs));
             }
             
             System.out.println("✅ Retrieved " + users.size() + " users with role: " + role);
@@ -171,18 +136,7 @@ public class UserDAO {
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                User user = new User();
-                user.setUserId(rs.getInt("user_id"));
-                user.setUsername(rs.getString("username"));
-                user.setPassword(rs.getString("password"));
-                user.setFullName(rs.getString("full_name"));
-                user.setRole(rs.getString("role"));
-                user.setEnterpriseType(rs.getString("enterprise_type"));
-                user.setEmail(rs.getString("email"));
-                user.setPhone(rs.getString("phone"));
-                user.setCreatedDate(rs.getTimestamp("created_date"));
-                
-                return user;
+                return UserMapper.INSTANCE.bind(rs).read(rs);
             }
             
         } catch (SQLException e) {
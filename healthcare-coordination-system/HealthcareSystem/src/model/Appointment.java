@@ -8,20 +8,33 @@ import java.sql.Timestamp;
  * Appointment model class - represents appointments table in database
  * Work Request #1: Appointment booking within clinic
  */
+@Mapped(table = "appointments")
 public class Appointment {
+    @Column(value = "appointment_id", insertable = false)
     private int appointmentId;
+    @Column("patient_id")
     private int patientId;
+    @Column("doctor_id")
     private int doctorId;
+    @Column("appointment_date")
     private Date appointmentDate;
+    @Column("appointment_time")
     private Time appointmentTime;
+    @Column("reason")
     private String reason;
-    private String status;  // SCHEDULED, COMPLETED, CANCELLED
+    @Column("status")
+    private AppointmentStatus status;
+    @Column(value = "diagnosis", insertable = false)
     private String diagnosis;
+    @Column(value = "notes", insertable = false)
     private String notes;
-    private Timestamp createdDate;
+    @Column(value = "created_date", insertable = false, epochMillis = true)
+    private long createdDateMillis;  // epoch millis, 0 when NULL
     
     // For display purposes (not in database)
+    @Column(value = "patient_name", insertable = false)
     private String patientName;
+    @Column(value = "doctor_name", insertable = false)
     private String doctorName;
     
     // Empty constructor
@@ -35,7 +48,7 @@ public class Appointment {
         this.appointmentDate = appointmentDate;
         this.appointmentTime = appointmentTime;
         this.reason = reason;
-        this.status = "SCHEDULED"; // Default status
+        this.status = AppointmentStatus.SCHEDULED; // Default status
     }
 
     // Getters and Setters
@@ -87,11 +100,11 @@ public class Appointment {
         this.reason = reason;
     }
 
-    public String getStatus() {
+    public AppointmentStatus getStatus() {
         return status;
     }
 
-    public void setStatus(String status) {
+    public void setStatus(AppointmentStatus status) {
         this.status = status;
     }
 
@@ -111,12 +124,20 @@ public class Appointment {
         this.notes = notes;
     }
 
+    public long getCreatedDateMillis() {
+        return createdDateMillis;
+    }
+
+    public void setCreatedDateMillis(long createdDateMillis) {
+        this.createdDateMillis = createdDateMillis;
+    }
+
     public Timestamp getCreatedDate() {
-        return createdDate;
+        return createdDateMillis == 0L ? null : new Timestamp(createdDateMillis);
     }
 
     public void setCreatedDate(Timestamp createdDate) {
-        this.createdDate = createdDate;
+        this.createdDateMillis = createdDate == null ? 0L : createdDate.getTime();
     }
 
     public String getPatientName() {
@@ -0,0 +1,58 @@
+package model;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * AppointmentStatus - State of a booked appointment
+ * Stored in appointments.status as code(). Only a SCHEDULED appointment
+ * can change: it is either COMPLETED by the doctor or CANCELLED.
+ */
+public enum AppointmentStatus {
+    SCHEDULED,
+    COMPLETED,
+    CANCELLED;
+
+    /**
+     * Value stored in the status column
+     */
+    public String code() {
+        return name();
+    }
+
+    /**
+     * Status for a status column value (null for NULL)
+     * @throws IllegalArgumentException for a value no status uses
+     */
+    public static AppointmentStatus fromCode(String code) {
+        if (code == null) {
+            return null;
+        }
+        switch (code) {
+            case "SCHEDULED": return SCHEDULED;
+            case "COMPLETED": return COMPLETED;
+            case "CANCELLED": return CANCELLED;
+            default: throw new IllegalArgumentException("Unknown appointment status: " + code);
+        }
+    }
+
+    /**
+     * Whether an appointment in this status may be moved to next
+     */
+    public boolean canTransitionTo(AppointmentStatus next) {
+        return this == SCHEDULED && (next == COMPLETED || next == CANCELLED);
+    }
+
+    /**
+     * Statuses an appointment may be moved to this one from
+     */
+    public Set<AppointmentStatus> previous() {
+        Set<AppointmentStatus> previous = EnumSet.noneOf(AppointmentStatus.class);
+        for (AppointmentStatus status : values()) {
+            if (status.canTransitionTo(this)) {
+                previous.add(status);
+            }
+        }
+        return previous;
+    }
+}
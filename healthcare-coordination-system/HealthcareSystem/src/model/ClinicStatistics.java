@@ -0,0 +1,115 @@
+package model;
+
+/**
+ * ClinicStatistics model class - counters for the clinic admin dashboard
+ * Filled by StatisticsDAO from a single aggregate query
+ */
+public class ClinicStatistics {
+    private int totalDoctors;
+    private int totalClinicAdmins;
+    private int totalPatients;
+    private int totalAppointments;
+    private int scheduledAppointments;
+    private int completedAppointments;
+    private int totalPrescriptions;
+    private int pendingPrescriptions;
+    private int filledPrescriptions;
+    private int completedPrescriptions;
+
+    // Empty constructor
+    public ClinicStatistics() {
+    }
+
+    // Getters and Setters
+    public int getTotalDoctors() {
+        return totalDoctors;
+    }
+
+    public void setTotalDoctors(int totalDoctors) {
+        this.totalDoctors = totalDoctors;
+    }
+
+    public int getTotalClinicAdmins() {
+        return totalClinicAdmins;
+    }
+
+    public void setTotalClinicAdmins(int totalClinicAdmins) {
+        this.totalClinicAdmins = totalClinicAdmins;
+    }
+
+    public int getTotalPatients() {
+        return totalPatients;
+    }
+
+    public void setTotalPatients(int totalPatients) {
+        this.totalPatients = totalPatients;
+    }
+
+    public int getTotalAppointments() {
+        return totalAppointments;
+    }
+
+    public void setTotalAppointments(int totalAppointments) {
+        this.totalAppointments = totalAppointments;
+    }
+
+    public int getScheduledAppointments() {
+        return scheduledAppointments;
+    }
+
+    public void setScheduledAppointments(int scheduledAppointments) {
+        this.scheduledAppointments = scheduledAppointments;
+    }
+
+    public int getCompletedAppointments() {
+        return completedAppointments;
+    }
+
+    public void setCompletedAppointments(int completedAppointments) {
+        this.completedAppointments = completedAppointments;
+    }
+
+    public int getTotalPrescriptions() {
+        return totalPrescriptions;
+    }
+
+    public void setTotalPrescriptions(int totalPrescriptions) {
+        this.totalPrescriptions = totalPrescriptions;
+    }
+
+    public int getPendingPrescriptions() {
+        return pendingPrescriptions;
+    }
+
+    public void setPendingPrescriptions(int pendingPrescriptions) {
+        this.pendingPrescriptions = pendingPrescriptions;
+    }
+
+    public int getFilledPrescriptions() {
+        return filledPrescriptions;
+    }
+
+    public void setFilledPrescriptions(int filledPrescriptions) {
+        this.filledPrescriptions = filledPrescriptions;
+    }
+
+    public int getCompletedPrescriptions() {
+        return completedPrescriptions;
+    }
+
+    public void setCompletedPrescriptions(int completedPrescriptions) {
+        this.completedPrescriptions = completedPrescriptions;
+    }
+
+    // Doctors plus clinic administrators
+    public int getClinicStaff() {
+        return totalDoctors + totalClinicAdmins;
+    }
+
+    // Share of prescriptions the pharmacy has filled or completed
+    public double getFulfillmentRate() {
+        return totalPrescriptions > 0
+            ? (filledPrescriptions + completedPrescriptions) * 100.0 / totalPrescriptions
+            : 0;
+    }
+}
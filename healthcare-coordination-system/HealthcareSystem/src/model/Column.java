@@ -0,0 +1,35 @@
+package model;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Column - The result set column a field of a @Mapped class is read from
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface Column {
+
+    /**
+     * Column label, as selected (table column or alias)
+     */
+    String value();
+
+    /**
+     * Some queries leave this column out; the field is then left unset
+     */
+    boolean optional() default false;
+
+    /**
+     * Part of the generated INSERT (false for generated keys, database
+     * defaults, columns set later and display names from JOINs)
+     */
+    boolean insertable() default true;
+
+    /**
+     * A TIMESTAMP column held in a long field as epoch millis (0 for NULL)
+     */
+    boolean epochMillis() default false;
+}
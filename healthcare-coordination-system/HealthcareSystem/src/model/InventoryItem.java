@@ -0,0 +1,61 @@
+package model;
+
+import java.sql.Date;
+
+/**
+ * InventoryItem model class - a medication joined with its pharmacy_inventory lots
+ * Work Request #3: Stock levels for the inventory tabs, loaded in one query
+ */
+@Mapped
+public class InventoryItem extends Medication {
+    @Column("quantity_available")
+    private int quantityAvailable;
+    @Column("reorder_level")
+    private int reorderLevel;
+    @Column("expiry_date")
+    private Date expiryDate;
+    @Column("last_restocked")
+    private Date lastRestocked;
+
+    // Empty constructor
+    public InventoryItem() {
+    }
+
+    // Getters and Setters
+    public int getQuantityAvailable() {
+        return quantityAvailable;
+    }
+
+    public void setQuantityAvailable(int quantityAvailable) {
+        this.quantityAvailable = quantityAvailable;
+    }
+
+    public int getReorderLevel() {
+        return reorderLevel;
+    }
+
+    public void setReorderLevel(int reorderLevel) {
+        this.reorderLevel = reorderLevel;
+    }
+
+    public Date getExpiryDate() {
+        return expiryDate;
+    }
+
+    public void setExpiryDate(Date expiryDate) {
+        this.expiryDate = expiryDate;
+    }
+
+    public Date getLastRestocked() {
+        return lastRestocked;
+    }
+
+    public void setLastRestocked(Date lastRestocked) {
+        this.lastRestocked = lastRestocked;
+    }
+
+    // Stock is at or below the level where a restock should be requested
+    public boolean isBelowReorderLevel() {
+        return quantityAvailable <= reorderLevel;
+    }
+}
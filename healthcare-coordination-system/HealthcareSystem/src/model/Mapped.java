@@ -0,0 +1,24 @@
+package model;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Mapped - Marks a model class whose rows are read and written by generated code
+ * At compile time RowMapperProcessor writes database.<Class>Mapper: a
+ * RowMapper reading every @Column field by index and, when table is set,
+ * INSERT_SQL plus a bindInsert() that sets its parameters. Every instance
+ * field (inherited ones included) must carry @Column or be transient, so a
+ * field added without a mapping fails the build instead of staying empty.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface Mapped {
+
+    /**
+     * Table the generated INSERT writes to ("" = read-only, e.g. a join)
+     */
+    String table() default "";
+}
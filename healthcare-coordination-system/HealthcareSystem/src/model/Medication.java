@@ -5,14 +5,23 @@ import java.math.BigDecimal;
 /**
  * Medication model class - represents medications table in database
  */
+@Mapped(table = "medications")
 public class Medication {
+    @Column(value = "medication_id", insertable = false)
     private int medicationId;
+    @Column("medication_name")
     private String medicationName;
+    @Column("generic_name")
     private String genericName;
+    @Column("category")
     private String category;
+    @Column("dosage_form")
     private String dosageForm;
+    @Column("strength")
     private String strength;
+    @Column("manufacturer")
     private String manufacturer;
+    @Column("unit_price")
     private BigDecimal unitPrice;
     
     // Empty constructor
@@ -6,18 +6,30 @@ import java.sql.Timestamp;
 /**
  * Patient model class - represents patients table in database
  */
+@Mapped(table = "patients")
 public class Patient {
+    @Column(value = "patient_id", insertable = false)
     private int patientId;
+    @Column("first_name")
     private String firstName;
+    @Column("last_name")
     private String lastName;
+    @Column("date_of_birth")
     private Date dateOfBirth;
+    @Column("gender")
     private String gender;
+    @Column("phone")
     private String phone;
+    @Column("email")
     private String email;
+    @Column("address")
     private String address;
+    @Column("blood_group")
     private String bloodGroup;
+    @Column("allergies")
     private String allergies;
-    private Timestamp createdDate;
+    @Column(value = "created_date", insertable = false, epochMillis = true)
+    private long createdDateMillis;  // epoch millis, 0 when NULL
     
     // Empty constructor
     public Patient() {
@@ -112,12 +124,20 @@ public class Patient {
         this.allergies = allergies;
     }
 
+    public long getCreatedDateMillis() {
+        return createdDateMillis;
+    }
+
+    public void setCreatedDateMillis(long createdDateMillis) {
+        this.createdDateMillis = createdDateMillis;
+    }
+
     public Timestamp getCreatedDate() {
-        return createdDate;
+        return createdDateMillis == 0L ? null : new Timestamp(createdDateMillis);
     }
 
     public void setCreatedDate(Timestamp createdDate) {
-        this.createdDate = createdDate;
+        this.createdDateMillis = createdDate == null ? 0L : createdDate.getTime();
     }
     
     // Helper method to get full name
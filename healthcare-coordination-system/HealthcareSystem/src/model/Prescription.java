@@ -6,25 +6,47 @@ import java.sql.Timestamp;
  * Prescription model class - represents prescriptions table in database
  * Work Request #2: Inter-enterprise communication (Clinic → Pharmacy)
  */
+@Mapped(table = "prescriptions")
 public class Prescription {
+    @Column(value = "prescription_id", insertable = false)
     private int prescriptionId;
+    @Column("appointment_id")
     private int appointmentId;
+    @Column("patient_id")
     private int patientId;
+    @Column("doctor_id")
     private int doctorId;
+    @Column("medication_id")
     private int medicationId;
+    @Column("dosage_instructions")
     private String dosageInstructions;
+    @Column("quantity")
     private int quantity;
+    @Column("refills")
     private int refills;
-    private String status;  // PENDING, FILLED, READY_FOR_PICKUP, COMPLETED
-    private Timestamp issuedDate;
-    private Timestamp filledDate;
+    @Column("status")
+    private PrescriptionStatus status;
+    @Column(value = "issued_date", insertable = false, epochMillis = true)
+    private long issuedDateMillis;  // epoch millis, 0 when NULL
+    @Column(value = "filled_date", insertable = false, epochMillis = true)
+    private long filledDateMillis;  // epoch millis, 0 when NULL
+    @Column(value = "pharmacist_id", insertable = false)
     private Integer pharmacistId;
+    @Column(value = "pharmacist_notes", insertable = false)
     private String pharmacistNotes;
+    @Column(value = "claimed_by", insertable = false)
+    private Integer claimedBy;       // pharmacist holding it in their work queue
+    @Column(value = "claimed_until", insertable = false, epochMillis = true)
+    private long claimedUntilMillis;  // claim lease expiry, epoch millis (0 when unclaimed)
     
     // For display purposes
+    @Column(value = "patient_name", insertable = false)
     private String patientName;
+    @Column(value = "doctor_name", insertable = false)
     private String doctorName;
+    @Column(value = "medication_name", insertable = false)
     private String medicationName;
+    @Column(value = "pharmacist_name", optional = true, insertable = false)
     private String pharmacistName;
     
     // Empty constructor
@@ -40,7 +62,7 @@ public class Prescription {
         this.medicationId = medicationId;
         this.dosageInstructions = dosageInstructions;
         this.quantity = quantity;
-        this.status = "PENDING"; // Default status
+        this.status = PrescriptionStatus.PENDING; // Default status
         this.refills = 0;
     }
 
@@ -109,28 +131,44 @@ public class Prescription {
         this.refills = refills;
     }
 
-    public String getStatus() {
+    public PrescriptionStatus getStatus() {
         return status;
     }
 
-    public void setStatus(String status) {
+    public void setStatus(PrescriptionStatus status) {
         this.status = status;
     }
 
+    public long getIssuedDateMillis() {
+        return issuedDateMillis;
+    }
+
+    public void setIssuedDateMillis(long issuedDateMillis) {
+        this.issuedDateMillis = issuedDateMillis;
+    }
+
     public Timestamp getIssuedDate() {
-        return issuedDate;
+        return issuedDateMillis == 0L ? null : new Timestamp(issuedDateMillis);
     }
 
     public void setIssuedDate(Timestamp issuedDate) {
-        this.issuedDate = issuedDate;
+        this.issuedDateMillis = issuedDate == null ? 0L : issuedDate.getTime();
+    }
+
+    public long getFilledDateMillis() {
+        return filledDateMillis;
+    }
+
+    public void setFilledDateMillis(long filledDateMillis) {
+        this.filledDateMillis = filledDateMillis;
     }
 
     public Timestamp getFilledDate() {
-        return filledDate;
+        return filledDateMillis == 0L ? null : new Timestamp(filledDateMillis);
     }
 
     public void setFilledDate(Timestamp filledDate) {
-        this.filledDate = filledDate;
+        this.filledDateMillis = filledDate == null ? 0L : filledDate.getTime();
     }
 
     public Integer getPharmacistId() {
@@ -141,6 +179,30 @@ public class Prescription {
         this.pharmacistId = pharmacistId;
     }
 
+    public Integer getClaimedBy() {
+        return claimedBy;
+    }
+
+    public void setClaimedBy(Integer claimedBy) {
+        this.claimedBy = claimedBy;
+    }
+
+    public long getClaimedUntilMillis() {
+        return claimedUntilMillis;
+    }
+
+    public void setClaimedUntilMillis(long claimedUntilMillis) {
+        this.claimedUntilMillis = claimedUntilMillis;
+    }
+
+    public Timestamp getClaimedUntil() {
+        return claimedUntilMillis == 0L ? null : new Timestamp(claimedUntilMillis);
+    }
+
+    public void setClaimedUntil(Timestamp claimedUntil) {
+        this.claimedUntilMillis = claimedUntil == null ? 0L : claimedUntil.getTime();
+    }
+
     public String getPharmacistNotes() {
         return pharmacistNotes;
     }
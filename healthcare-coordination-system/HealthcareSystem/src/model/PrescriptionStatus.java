@@ -0,0 +1,65 @@
+package model;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * PrescriptionStatus - Where a prescription is between the doctor and the patient
+ * Stored in prescriptions.status as code(). A prescription only moves forward:
+ * PENDING -> FILLED -> READY_FOR_PICKUP -> COMPLETED (pickup may be skipped).
+ */
+public enum PrescriptionStatus {
+    PENDING,
+    FILLED,
+    READY_FOR_PICKUP,
+    COMPLETED;
+
+    /**
+     * Value stored in the status column
+     */
+    public String code() {
+        return name();
+    }
+
+    /**
+     * Status for a status column value (null for NULL)
+     * @throws IllegalArgumentException for a value no status uses
+     */
+    public static PrescriptionStatus fromCode(String code) {
+        if (code == null) {
+            return null;
+        }
+        switch (code) {
+            case "PENDING": return PENDING;
+            case "FILLED": return FILLED;
+            case "READY_FOR_PICKUP": return READY_FOR_PICKUP;
+            case "COMPLETED": return COMPLETED;
+            default: throw new IllegalArgumentException("Unknown prescription status: " + code);
+        }
+    }
+
+    /**
+     * Whether a prescription in this status may be moved to next
+     */
+    public boolean canTransitionTo(PrescriptionStatus next) {
+        switch (this) {
+            case PENDING: return next == FILLED;
+            case FILLED: return next == READY_FOR_PICKUP || next == COMPLETED;
+            case READY_FOR_PICKUP: return next == COMPLETED;
+            default: return false;
+        }
+    }
+
+    /**
+     * Statuses a prescription may be moved to this one from
+     */
+    public Set<PrescriptionStatus> previous() {
+        Set<PrescriptionStatus> previous = EnumSet.noneOf(PrescriptionStatus.class);
+        for (PrescriptionStatus status : values()) {
+            if (status.canTransitionTo(this)) {
+                previous.add(status);
+            }
+        }
+        return previous;
+    }
+}
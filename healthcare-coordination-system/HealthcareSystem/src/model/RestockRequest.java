@@ -6,23 +6,39 @@ import java.sql.Timestamp;
  * RestockRequest model class - represents restock_requests table in database
  * Work Request #4: Inventory restocking within pharmacy
  */
+@Mapped(table = "restock_requests")
 public class RestockRequest {
+    @Column(value = "request_id", insertable = false)
     private int requestId;
+    @Column("medication_id")
     private int medicationId;
+    @Column("requested_quantity")
     private int requestedQuantity;
+    @Column("current_stock")
     private int currentStock;
+    @Column("priority")
     private String priority;  // LOW, MEDIUM, HIGH, URGENT
+    @Column("reason")
     private String reason;
-    private String status;  // PENDING, APPROVED, ORDERED, RECEIVED
+    @Column("status")
+    private RestockStatus status;
+    @Column("requested_by")
     private int requestedBy;
-    private Timestamp requestedDate;
+    @Column(value = "requested_date", insertable = false, epochMillis = true)
+    private long requestedDateMillis;  // epoch millis, 0 when NULL
+    @Column(value = "approved_by", insertable = false)
     private Integer approvedBy;
-    private Timestamp approvedDate;
+    @Column(value = "approved_date", insertable = false, epochMillis = true)
+    private long approvedDateMillis;  // epoch millis, 0 when NULL
+    @Column(value = "manager_notes", insertable = false)
     private String managerNotes;
     
     // For display purposes
+    @Column(value = "medication_name", insertable = false)
     private String medicationName;
+    @Column(value = "requester_name", insertable = false)
     private String requesterName;
+    @Column(value = "approver_name", optional = true, insertable = false)
     private String approverName;
     
     // Empty constructor
@@ -38,7 +54,7 @@ public class RestockRequest {
         this.priority = priority;
         this.reason = reason;
         this.requestedBy = requestedBy;
-        this.status = "PENDING"; // Default status
+        this.status = RestockStatus.PENDING; // Default status
     }
 
     // Getters and Setters
@@ -90,11 +106,11 @@ public class RestockRequest {
         this.reason = reason;
     }
 
-    public String getStatus() {
+    public RestockStatus getStatus() {
         return status;
     }
 
-    public void setStatus(String status) {
+    public void setStatus(RestockStatus status) {
         this.status = status;
     }
 
@@ -106,12 +122,20 @@ public class RestockRequest {
         this.requestedBy = requestedBy;
     }
 
+    public long getRequestedDateMillis() {
+        return requestedDateMillis;
+    }
+
+    public void setRequestedDateMillis(long requestedDateMillis) {
+        this.requestedDateMillis = requestedDateMillis;
+    }
+
     public Timestamp getRequestedDate() {
-        return requestedDate;
+        return requestedDateMillis == 0L ? null : new Timestamp(requestedDateMillis);
     }
 
     public void setRequestedDate(Timestamp requestedDate) {
-        this.requestedDate = requestedDate;
+        this.requestedDateMillis = requestedDate == null ? 0L : requestedDate.getTime();
     }
 
     public Integer getApprovedBy() {
@@ -122,12 +146,20 @@ public class RestockRequest {
         this.approvedBy = approvedBy;
     }
 
+    public long getApprovedDateMillis() {
+        return approvedDateMillis;
+    }
+
+    public void setApprovedDateMillis(long approvedDateMillis) {
+        this.approvedDateMillis = approvedDateMillis;
+    }
+
     public Timestamp getApprovedDate() {
-        return approvedDate;
+        return approvedDateMillis == 0L ? null : new Timestamp(approvedDateMillis);
     }
 
     public void setApprovedDate(Timestamp approvedDate) {
-        this.approvedDate = approvedDate;
+        this.approvedDateMillis = approvedDate == null ? 0L : approvedDate.getTime();
     }
 
     public String getManagerNotes() {
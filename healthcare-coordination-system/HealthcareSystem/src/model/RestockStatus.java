@@ -0,0 +1,67 @@
+package model;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * RestockStatus - Progress of a pharmacist's restock request
+ * Stored in restock_requests.status as code(). The manager APPROVES or
+ * REJECTS a PENDING request; an approved one is then ORDERED and RECEIVED.
+ */
+public enum RestockStatus {
+    PENDING,
+    APPROVED,
+    REJECTED,
+    ORDERED,
+    RECEIVED;
+
+    /**
+     * Value stored in the status column
+     */
+    public String code() {
+        return name();
+    }
+
+    /**
+     * Status for a status column value (null for NULL)
+     * @throws IllegalArgumentException for a value no status uses
+     */
+    public static RestockStatus fromCode(String code) {
+        if (code == null) {
+            return null;
+        }
+        switch (code) {
+            case "PENDING": return PENDING;
+            case "APPROVED": return APPROVED;
+            case "REJECTED": return REJECTED;
+            case "ORDERED": return ORDERED;
+            case "RECEIVED": return RECEIVED;
+            default: throw new IllegalArgumentException("Unknown restock request status: " + code);
+        }
+    }
+
+    /**
+     * Whether a request in this status may be moved to next
+     */
+    public boolean canTransitionTo(RestockStatus next) {
+        switch (this) {
+            case PENDING: return next == APPROVED || next == REJECTED;
+            case APPROVED: return next == ORDERED;
+            case ORDERED: return next == RECEIVED;
+            default: return false;
+        }
+    }
+
+    /**
+     * Statuses a request may be moved to this one from
+     */
+    public Set<RestockStatus> previous() {
+        Set<RestockStatus> previous = EnumSet.noneOf(RestockStatus.class);
+        for (RestockStatus status : values()) {
+            if (status.canTransitionTo(this)) {
+                previous.add(status);
+            }
+        }
+        return previous;
+    }
+}
@@ -6,17 +6,27 @@ import java.sql.Timestamp;
  * User model class - represents users table in database
  * This includes doctors, pharmacists, clinic admins, and pharmacy managers
  */
+@Mapped(table = "users")
 public class User {
     // Fields - these match the columns in the 'users' table
+    @Column(value = "user_id", insertable = false)
     private int userId;
+    @Column("username")
     private String username;
+    @Column(value = "password", optional = true)
     private String password;
+    @Column("full_name")
     private String fullName;
+    @Column("role")
     private String role;  // DOCTOR, PHARMACIST, CLINIC_ADMIN, PHARMACY_MANAGER
+    @Column("enterprise_type")
     private String enterpriseType;  // CLINIC or PHARMACY
+    @Column("email")
     private String email;
+    @Column("phone")
     private String phone;
-    private Timestamp createdDate;
+    @Column(value = "created_date", optional = true, insertable = false, epochMillis = true)
+    private long createdDateMillis;  // epoch millis, 0 when NULL
     
     // Empty constructor - needed for creating new User objects
     public User() {
@@ -98,12 +108,20 @@ public class User {
         this.phone = phone;
     }
 
+    public long getCreatedDateMillis() {
+        return createdDateMillis;
+    }
+
+    public void setCreatedDateMillis(long createdDateMillis) {
+        this.createdDateMillis = createdDateMillis;
+    }
+
     public Timestamp getCreatedDate() {
-        return createdDate;
+        return createdDateMillis == 0L ? null : new Timestamp(createdDateMillis);
     }
 
     public void setCreatedDate(Timestamp createdDate) {
-        this.createdDate = createdDate;
+        this.createdDateMillis = createdDate == null ? 0L : createdDate.getTime();
     }
     
     // toString method - useful for displaying user in dropdowns and lists
@@ -0,0 +1,425 @@
+package ui;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Window;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.swing.BorderFactory;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+import javax.swing.table.DefaultTableModel;
+
+/**
+ * BackgroundLoader - Runs a window's database loads off the Event Dispatch Thread
+ * Each load is a SwingWorker executed on a virtual thread. Results come back
+ * to the EDT (table rows in batches), a status bar shows what is still
+ * loading, and closing the window cancels the loads still in flight.
+ *
+ * Loads are keyed by task name: starting a task again (e.g. Refresh clicked
+ * twice) cancels the earlier run so stale rows never overwrite fresh ones.
+ * prefetch() groups the loads a dashboard starts on open under one deadline;
+ * loads past it are flagged in the status bar but still fill their tabs.
+ * Cancelling never interrupts the thread - on a virtual thread that would
+ * close the pooled connection's socket - so a cancelled query runs to the
+ * end and its result is dropped.
+ *
+ * Writes go through submit() instead: they are never cancelled, and
+ * submitting a write task that is still running is ignored.
+ * All methods must be called on the EDT.
+ */
+public class BackgroundLoader {
+
+    // Rows handed to the EDT per batch
+    private static final int BATCH_SIZE = 200;
+
+    // One virtual thread per load; blocking JDBC calls park them cheaply
+    private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("dashboard-loader-", 0).factory());
+
+    // Deadline for the loads a dashboard starts when it opens
+    public static final Duration DEFAULT_PREFETCH_DEADLINE =
+            Duration.ofSeconds(Long.getLong("healthcare.ui.prefetchDeadlineSeconds", 15));
+
+    private final Map<String, SwingWorker<?, ?>> running = new LinkedHashMap<>();
+    private final Map<String, SwingWorker<?, ?>> writes = new LinkedHashMap<>();
+    private final Set<SwingWorker<?, ?>> untracked = new HashSet<>(); // execute()d workers
+    private Map<String, SwingWorker<?, ?>> prefetchGroup; // non-null while prefetch() collects
+    private final Set<String> overdue = new LinkedHashSet<>(); // running past their prefetch deadline
+    private final JPanel statusBar;
+    private final JLabel statusLabel;
+    private boolean closed;
+
+    public BackgroundLoader(Window owner) {
+        statusLabel = new JLabel();
+        statusLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+
+        JProgressBar progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        progressBar.setPreferredSize(new Dimension(150, 14));
+
+        statusBar = new JPanel(new BorderLayout(10, 0));
+        statusBar.setBorder(BorderFactory.createEmptyBorder(2, 5, 2, 5));
+        statusBar.add(statusLabel, BorderLayout.CENTER);
+        statusBar.add(progressBar, BorderLayout.EAST);
+        statusBar.setVisible(false);
+
+        owner.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                closed = true;
+                cancelAll();
+            }
+        });
+    }
+
+    /**
+     * Status bar showing the loads in progress (hidden when idle)
+     */
+    public JComponent getStatusBar() {
+        return statusBar;
+    }
+
+    /**
+     * Run query in the background and hand its result to onLoaded on the EDT
+     */
+    public <T> void run(String task, Supplier<T> query, Consumer<T> onLoaded) {
+        run(task, query, onLoaded, null);
+    }
+
+    /**
+     * Same as run(), with onFailed called on the EDT if the query throws
+     */
+    public <T> void run(String task, final Supplier<T> query,
+                        final Consumer<T> onLoaded, final Consumer<Throwable> onFailed) {
+        start(task, new SwingWorker<T, Void>() {
+            @Override
+            protected T doInBackground() {
+                return query.get();
+            }
+
+            @Override
+            protected void done() {
+                if (!finish(task, this)) {
+                    return;
+                }
+                try {
+                    onLoaded.accept(get());
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = report("loading " + task, e);
+                    if (onFailed != null) {
+                        onFailed.accept(cause);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Run a database write in the background and hand its result to onDone on the EDT
+     * @return false (and nothing runs) if this task is still running
+     */
+    public <T> boolean submit(String task, Supplier<T> write, Consumer<T> onDone) {
+        return submit(task, write, onDone, null);
+    }
+
+    /**
+     * Same as submit(), with onFailed called on the EDT if the write throws
+     * The write is not cancelled by anything, including closing the window,
+     * and its callbacks still run afterwards (e.g. to exit once claims are released).
+     */
+    public <T> boolean submit(final String task, final Supplier<T> write,
+                              final Consumer<T> onDone, final Consumer<Throwable> onFailed) {
+        if (writes.containsKey(task)) {
+            return false;
+        }
+        SwingWorker<T, Void> worker = new SwingWorker<T, Void>() {
+            @Override
+            protected T doInBackground() {
+                return write.get();
+            }
+
+            @Override
+            protected void done() {
+                writes.remove(task);
+                updateStatus();
+                try {
+                    onDone.accept(get());
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = report("saving " + task, e);
+                    if (onFailed != null) {
+                        onFailed.accept(cause);
+                    }
+                }
+            }
+        };
+        writes.put(task, worker);
+        updateStatus();
+        EXECUTOR.execute(worker);
+        return true;
+    }
+
+    /**
+     * True while a load or write with this task name is running
+     */
+    public boolean isRunning(String task) {
+        return running.containsKey(task) || writes.containsKey(task);
+    }
+
+    /**
+     * Replace the rows of model with the query's results, mapped off the EDT
+     * The old rows stay visible until the first batch arrives.
+     */
+    public <T> void loadRows(String task, Supplier<List<T>> query,
+                             Function<T, Object[]> rowMapper, DefaultTableModel model) {
+        loadRows(task, query, rowMapper, model, null);
+    }
+
+    /**
+     * Same as loadRows(), then onLoaded gets the full list (e.g. to update a count)
+     */
+    public <T> void loadRows(String task, final Supplier<List<T>> query,
+                             final Function<T, Object[]> rowMapper,
+                             final DefaultTableModel model, final Consumer<List<T>> onLoaded) {
+        start(task, new SwingWorker<List<T>, Integer>() {
+            // Mapped rows waiting for the EDT; publish() only signals that some arrived
+            private final Queue<Object[]> ready = new ConcurrentLinkedQueue<>();
+            private boolean cleared;
+
+            @Override
+            protected List<T> doInBackground() {
+                List<T> items = query.get();
+                int batched = 0;
+                for (T item : items) {
+                    if (isCancelled()) {
+                        break;
+                    }
+                    ready.add(rowMapper.apply(item));
+                    if (++batched == BATCH_SIZE) {
+                        publish(batched);
+                        batched = 0;
+                    }
+                }
+                return items;
+            }
+
+            @Override
+            protected void process(List<Integer> chunks) {
+                if (running.get(task) == this && !isCancelled()) {
+                    drain();
+                }
+            }
+
+            @Override
+            protected void done() {
+                if (!finish(task, this)) {
+                    return;
+                }
+                try {
+                    List<T> items = get();
+                    drain(); // rows not yet picked up by process()
+                    if (onLoaded != null) {
+                        onLoaded.accept(items);
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    report("loading " + task, e);
+                }
+            }
+
+            /**
+             * Move every mapped row into the model with a single insert event
+             */
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            private void drain() {
+                if (!cleared) {
+                    model.setRowCount(0);
+                    cleared = true;
+                }
+                Vector data = model.getDataVector();
+                int first = data.size();
+                Object[] row;
+                while ((row = ready.poll()) != null) {
+                    data.add(new Vector<>(Arrays.asList(row)));
+                }
+                if (data.size() > first) {
+                    model.fireTableRowsInserted(first, data.size() - 1);
+                }
+            }
+        });
+    }
+
+    /**
+     * Start a group of independent loads together under the default deadline
+     */
+    public void prefetch(Runnable loads) {
+        prefetch(DEFAULT_PREFETCH_DEADLINE, loads);
+    }
+
+    /**
+     * Start a group of independent loads together under one shared deadline
+     * Every task started by loads runs concurrently on its own virtual
+     * thread and fills its tab as soon as its query returns, so the dashboard
+     * is ready after the slowest query rather than the sum of them. Tasks
+     * still running at the deadline are reported and shown as "still waiting"
+     * in the status bar. They are not cancelled: that would not stop the query
+     * or free its connection, only throw away a result that is on its way.
+     */
+    public void prefetch(Duration deadline, Runnable loads) {
+        final Map<String, SwingWorker<?, ?>> group = new LinkedHashMap<>();
+        prefetchGroup = group;
+        try {
+            loads.run();
+        } finally {
+            prefetchGroup = null;
+        }
+        if (group.isEmpty()) {
+            return;
+        }
+
+        Timer watchdog = new Timer((int) Math.min(Integer.MAX_VALUE, deadline.toMillis()), e -> {
+            for (Map.Entry<String, SwingWorker<?, ?>> entry : group.entrySet()) {
+                // Only flag the run this prefetch started, not a later refresh
+                if (running.get(entry.getKey()) == entry.getValue()) {
+                    System.err.println("❌ Loading " + entry.getKey() + " still running after " +
+                                       deadline.toMillis() + " ms");
+                    overdue.add(entry.getKey());
+                }
+            }
+            updateStatus();
+        });
+        watchdog.setRepeats(false);
+        watchdog.start();
+    }
+
+    /**
+     * Cancel one load if it is still running (writes are not cancelled)
+     */
+    public void cancel(String task) {
+        SwingWorker<?, ?> worker = running.remove(task);
+        if (worker != null) {
+            overdue.remove(task);
+            worker.cancel(false);
+            updateStatus();
+        }
+    }
+
+    /**
+     * Cancel every load still running (the window is going away)
+     */
+    public void cancelAll() {
+        for (SwingWorker<?, ?> worker : running.values()) {
+            worker.cancel(false);
+        }
+        running.clear();
+        overdue.clear();
+        for (SwingWorker<?, ?> worker : untracked) {
+            worker.cancel(false);
+        }
+        untracked.clear();
+        updateStatus();
+    }
+
+    public boolean isLoading() {
+        return !running.isEmpty() || !writes.isEmpty();
+    }
+
+    /**
+     * Run a worker on the loader threads without a task name (used by
+     * PagedTableModel); it is not replaced by later runs, only cancelled
+     * when the window closes
+     */
+    void execute(final SwingWorker<?, ?> worker) {
+        if (closed) {
+            return;
+        }
+        untracked.add(worker);
+        worker.addPropertyChangeListener(e -> {
+            if (e.getNewValue() == SwingWorker.StateValue.DONE) {
+                untracked.remove(worker);
+            }
+        });
+        EXECUTOR.execute(worker);
+    }
+
+    private void start(String task, SwingWorker<?, ?> worker) {
+        if (closed) {
+            return;
+        }
+        SwingWorker<?, ?> previous = running.put(task, worker);
+        overdue.remove(task);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        if (prefetchGroup != null) {
+            prefetchGroup.put(task, worker);
+        }
+        updateStatus();
+        EXECUTOR.execute(worker);
+    }
+
+    /**
+     * Called from done(); false if the worker was cancelled or replaced
+     */
+    private boolean finish(String task, SwingWorker<?, ?> worker) {
+        boolean current = running.get(task) == worker;
+        if (current) {
+            running.remove(task);
+            overdue.remove(task);
+            updateStatus();
+        }
+        return current && !worker.isCancelled();
+    }
+
+    private Throwable report(String what, Exception e) {
+        Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+        System.err.println("❌ Error " + what + ":");
+        cause.printStackTrace();
+        return cause;
+    }
+
+    private void updateStatus() {
+        if (running.isEmpty() && writes.isEmpty()) {
+            statusBar.setVisible(false);
+            return;
+        }
+        StringBuilder text = new StringBuilder();
+        if (!writes.isEmpty()) {
+            text.append("Saving ").append(String.join(", ", writes.keySet())).append("...");
+        }
+        Set<String> loading = new LinkedHashSet<>(running.keySet());
+        loading.removeAll(overdue);
+        if (!loading.isEmpty()) {
+            text.append(text.length() > 0 ? "  " : "")
+                .append("Loading ").append(String.join(", ", loading)).append("...");
+        }
+        if (!overdue.isEmpty()) {
+            text.append(text.length() > 0 ? "  " : "")
+                .append("Still waiting for ").append(String.join(", ", overdue))
+                .append(" - the database is slow to answer");
+        }
+        statusLabel.setText(text.toString());
+        statusBar.setVisible(true);
+    }
+}
@@ -19,7 +19,11 @@ public class LoginFrame extends JFrame {
     private JButton loginButton;
     private JLabel statusLabel;
     
+    // Runs the login query off the EDT
+    private BackgroundLoader loader;
+    
     public LoginFrame() {
+        loader = new BackgroundLoader(this);
         initializeUI();
     }
     
@@ -165,6 +169,10 @@ public class LoginFrame extends JFrame {
     }
     
     private void handleLogin() {
+        if (!loginButton.isEnabled()) {
+            return; // already logging in
+        }
+        
         String username = usernameField.getText().trim();
         String password = new String(passwordField.getPassword());
         
@@ -178,19 +186,23 @@ public class LoginFrame extends JFrame {
         loginButton.setEnabled(false);
         
         UserDAO userDAO = new UserDAO();
-        User user = userDAO.login(username, password);
-        
-        if (user != null) {
-            statusLabel.setForeground(new Color(0, 128, 0));
-            statusLabel.setText("Login successful! Welcome " + user.getFullName());
-            openDashboard(user);
-            dispose();
-        } else {
+        loader.run("login", () -> userDAO.login(username, password), user -> {
+            if (user != null) {
+                statusLabel.setForeground(new Color(0, 128, 0));
+                statusLabel.setText("Login successful! Welcome " + user.getFullName());
+                openDashboard(user);
+                dispose();
+            } else {
+                statusLabel.setForeground(Color.RED);
+                statusLabel.setText("Invalid username or password. Please try again.");
+                loginButton.setEnabled(true);
+                passwordField.setText("");
+            }
+        }, error -> {
             statusLabel.setForeground(Color.RED);
-            statusLabel.setText("Invalid username or password. Please try again.");
+            statusLabel.setText("Could not reach the database. Please try again.");
             loginButton.setEnabled(true);
-            passwordField.setText("");
-        }
+        });
     }
     
     private void openDashboard(User user) {
@@ -0,0 +1,225 @@
+package ui;
+
+import database.MedicationPrefixIndex;
+import model.Medication;
+import java.awt.Component;
+import java.awt.Insets;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.Collections;
+import java.util.List;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.DefaultListModel;
+import javax.swing.JList;
+import javax.swing.JPopupMenu;
+import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.ListSelectionModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+/**
+ * MedicationTypeAhead - Text field that suggests medications as you type
+ * Each keystroke looks the text up in a MedicationPrefixIndex (in memory,
+ * no database call) and shows the best matches in a popup under the field.
+ * Up/Down move through the suggestions, Enter or a click picks one,
+ * Escape closes the list. Until setIndex() is called the field just
+ * shows no suggestions.
+ */
+public class MedicationTypeAhead extends JTextField {
+
+    // Suggestions shown at once
+    private static final int MAX_SUGGESTIONS = 10;
+
+    private final DefaultListModel<Medication> suggestions = new DefaultListModel<>();
+    private final JList<Medication> suggestionList = new JList<>(suggestions);
+    private final JScrollPane scrollPane = new JScrollPane(suggestionList);
+    private final JPopupMenu popup = new JPopupMenu();
+
+    private MedicationPrefixIndex index;
+    private Medication selected;
+    private boolean choosing; // true while setText() shows the chosen medication
+
+    public MedicationTypeAhead(int columns) {
+        super(columns);
+
+        suggestionList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        suggestionList.setFocusable(false);
+        suggestionList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+                setText(describe((Medication) value));
+                return this;
+            }
+        });
+        suggestionList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                choose(suggestionList.getSelectedValue());
+            }
+        });
+
+        scrollPane.setBorder(null);
+        popup.setFocusable(false);
+        popup.add(scrollPane);
+
+        getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                textChanged();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                textChanged();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                textChanged();
+            }
+        });
+
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (!popup.isVisible()) {
+                    return;
+                }
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_DOWN:
+                        moveSelection(1);
+                        e.consume();
+                        break;
+                    case KeyEvent.VK_UP:
+                        moveSelection(-1);
+                        e.consume();
+                        break;
+                    case KeyEvent.VK_ENTER:
+                        choose(suggestionList.getSelectedValue());
+                        e.consume();
+                        break;
+                    case KeyEvent.VK_ESCAPE:
+                        popup.setVisible(false);
+                        e.consume();
+                        break;
+                    default:
+                        break;
+                }
+            }
+        });
+
+        addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent e) {
+                popup.setVisible(false);
+            }
+        });
+    }
+
+    /**
+     * Catalog to suggest from (load it with MedicationDAO.getMedicationPrefixIndex())
+     */
+    public void setIndex(MedicationPrefixIndex index) {
+        this.index = index;
+        if (hasFocus() && selected == null) {
+            showSuggestions();
+        }
+    }
+
+    /**
+     * The medication picked from the suggestions, or null if the text was
+     * typed but not picked
+     */
+    public Medication getSelectedMedication() {
+        return selected;
+    }
+
+    /**
+     * Clear the text and the picked medication
+     */
+    public void clearSelection() {
+        setText("");
+    }
+
+    /**
+     * How a medication is shown in the list and in the field once picked
+     */
+    public static String describe(Medication medication) {
+        StringBuilder text = new StringBuilder(medication.getMedicationName());
+        if (medication.getStrength() != null) {
+            text.append(' ').append(medication.getStrength());
+        }
+        if (medication.getGenericName() != null && !medication.getGenericName().isEmpty()) {
+            text.append(" (").append(medication.getGenericName()).append(')');
+        }
+        if (medication.getCategory() != null) {
+            text.append(" - ").append(medication.getCategory());
+        }
+        return text.toString();
+    }
+
+    private void textChanged() {
+        if (choosing) {
+            return;
+        }
+        Medication previous = selected;
+        selected = null;
+        firePropertyChange("selectedMedication", previous, null);
+        showSuggestions();
+    }
+
+    private void showSuggestions() {
+        List<Medication> matches = index == null
+                ? Collections.<Medication>emptyList()
+                : index.search(getText(), MAX_SUGGESTIONS);
+
+        suggestions.clear();
+        if (matches.isEmpty() || !isShowing()) {
+            popup.setVisible(false);
+            return;
+        }
+        for (Medication medication : matches) {
+            suggestions.addElement(medication);
+        }
+        suggestionList.setSelectedIndex(0);
+        suggestionList.setVisibleRowCount(matches.size());
+
+        // As wide as the field, as tall as the rows shown (resizes an open popup too)
+        Insets insets = popup.getInsets();
+        popup.setPopupSize(getWidth(), scrollPane.getPreferredSize().height + insets.top + insets.bottom);
+        if (!popup.isVisible()) {
+            popup.show(this, 0, getHeight());
+        }
+    }
+
+    private void moveSelection(int step) {
+        int next = suggestionList.getSelectedIndex() + step;
+        if (next >= 0 && next < suggestions.size()) {
+            suggestionList.setSelectedIndex(next);
+            suggestionList.ensureIndexIsVisible(next);
+        }
+    }
+
+    private void choose(Medication medication) {
+        if (medication == null) {
+            return;
+        }
+        Medication previous = selected;
+        choosing = true;
+        try {
+            setText(describe(medication));
+        } finally {
+            choosing = false;
+        }
+        selected = medication;
+        popup.setVisible(false);
+        firePropertyChange("selectedMedication", previous, medication);
+    }
+}
@@ -0,0 +1,220 @@
+package ui;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import javax.swing.SwingWorker;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * PagedTableModel - Virtual JTable model that loads rows a page at a time
+ * The row count comes from a COUNT query; pages are fetched through the
+ * window's BackgroundLoader the first time the table paints one of their
+ * rows, and only the most recently viewed pages are kept. Rows not loaded
+ * yet show as blank until their page arrives. A page that fails is not
+ * kept, so the next repaint of those rows tries again. A page shorter than
+ * the count says it should be means rows were deleted since the count: it
+ * is kept and the table ends after it.
+ */
+public class PagedTableModel<T> extends AbstractTableModel {
+
+    /**
+     * Where the rows come from - usually a DAO
+     * The fetch methods throw (any RuntimeException) when the rows cannot
+     * be read; a short or empty list means the table has no more rows.
+     */
+    public interface PageSource<T> {
+        /** Total number of rows */
+        int count();
+
+        /** Rows offset..offset+limit-1 (used when jumping into the middle) */
+        List<T> fetchAt(int offset, int limit);
+
+        /** The limit rows following last (keyset seek, used when scrolling on) */
+        List<T> fetchAfter(T last, int limit);
+    }
+
+    private final BackgroundLoader loader;
+    private final String[] columns;
+    private final Function<T, Object[]> rowMapper;
+    private final PageSource<T> source;
+    private final int pageSize;
+
+    private final Map<Integer, LoadedPage<T>> pages; // LRU by page number
+    private final Set<Integer> loading = new HashSet<>();
+    private int rowCount;
+    private int generation; // bumped by refresh() so late pages are dropped
+
+    /**
+     * @param loader        the window's loader; closing the window cancels page loads
+     * @param rowMapper     turns one entity into the table's column values
+     * @param pageSize      rows per fetch
+     * @param maxCachedPages pages kept in memory before the least recently used is dropped
+     */
+    public PagedTableModel(BackgroundLoader loader, String[] columns, Function<T, Object[]> rowMapper,
+                           PageSource<T> source, int pageSize, final int maxCachedPages) {
+        this.loader = loader;
+        this.columns = columns.clone();
+        this.rowMapper = rowMapper;
+        this.source = source;
+        this.pageSize = pageSize;
+        this.pages = new LinkedHashMap<Integer, LoadedPage<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, LoadedPage<T>> eldest) {
+                return size() > maxCachedPages;
+            }
+        };
+    }
+
+    /**
+     * Drop every cached page and re-count; visible rows reload as they repaint
+     */
+    public void refresh() {
+        final int requested = ++generation;
+        pages.clear();
+        loading.clear();
+
+        loader.execute(new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() {
+                return source.count();
+            }
+
+            @Override
+            protected void done() {
+                if (requested != generation || isCancelled()) {
+                    return;
+                }
+                try {
+                    rowCount = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    System.err.println("❌ Error counting table rows:");
+                    e.printStackTrace();
+                    rowCount = 0;
+                }
+                fireTableDataChanged();
+            }
+        });
+    }
+
+    /**
+     * The entity behind a row, or null if its page is not loaded yet
+     */
+    public T getItemAt(int rowIndex) {
+        LoadedPage<T> page = pageFor(rowIndex);
+        return page == null ? null : page.items.get(rowIndex % pageSize);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        LoadedPage<T> page = pageFor(rowIndex);
+        return page == null ? null : page.rows[rowIndex % pageSize][columnIndex];
+    }
+
+    /**
+     * Cached page holding rowIndex; starts loading it (once) when missing
+     */
+    private LoadedPage<T> pageFor(int rowIndex) {
+        int pageNumber = rowIndex / pageSize;
+        LoadedPage<T> page = pages.get(pageNumber);
+        if (page != null && rowIndex % pageSize < page.rows.length) {
+            return page;
+        }
+        if (page == null) {
+            load(pageNumber);
+        }
+        return null;
+    }
+
+    private void load(final int pageNumber) {
+        if (!loading.add(pageNumber)) {
+            return;
+        }
+        final int requested = generation;
+        // Scrolling down: seek past the last row of the page above instead of using OFFSET
+        LoadedPage<T> previous = pageNumber > 0 ? pages.get(pageNumber - 1) : null;
+        final T after = previous != null && previous.items.size() == pageSize
+                ? previous.items.get(pageSize - 1) : null;
+
+        loader.execute(new SwingWorker<LoadedPage<T>, Void>() {
+            @Override
+            protected LoadedPage<T> doInBackground() {
+                List<T> items = after != null
+                        ? source.fetchAfter(after, pageSize)
+                        : source.fetchAt(pageNumber * pageSize, pageSize);
+                Object[][] rows = new Object[items.size()][];
+                for (int i = 0; i < rows.length; i++) {
+                    rows[i] = rowMapper.apply(items.get(i));
+                }
+                return new LoadedPage<>(items, rows);
+            }
+
+            @Override
+            protected void done() {
+                if (requested != generation || isCancelled()) {
+                    return;
+                }
+                loading.remove(pageNumber);
+                LoadedPage<T> page;
+                try {
+                    page = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    System.err.println("❌ Error loading table page " + pageNumber + ":");
+                    e.printStackTrace();
+                    return;
+                }
+
+                int first = pageNumber * pageSize;
+                int last = Math.min(first + page.rows.length, rowCount) - 1;
+                pages.put(pageNumber, page);
+                if (last >= first) {
+                    fireTableRowsUpdated(first, last);
+                }
+                if (page.rows.length < pageSize && first + page.rows.length < rowCount) {
+                    // Rows deleted since the count - the table now ends with this page
+                    int oldCount = rowCount;
+                    rowCount = first + page.rows.length;
+                    pages.keySet().removeIf(number -> number > pageNumber);
+                    fireTableRowsDeleted(rowCount, oldCount - 1);
+                }
+            }
+        });
+    }
+
+    /**
+     * One fetched page: the entities plus their mapped cell values
+     */
+    private static final class LoadedPage<T> {
+        private final List<T> items;
+        private final Object[][] rows;
+
+        LoadedPage(List<T> items, Object[][] rows) {
+            this.items = items;
+            this.rows = rows;
+        }
+    }
+}
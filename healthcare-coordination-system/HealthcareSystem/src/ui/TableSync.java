@@ -0,0 +1,209 @@
+package ui;
+
+import database.ChangeSet;
+import database.DatabaseConnection;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import javax.swing.table.DefaultTableModel;
+
+/**
+ * TableSync - Keeps a table model current by applying change deltas
+ * The first refresh loads the whole view (through BackgroundLoader.loadRows)
+ * and notes the database time it started. Every later refresh asks the DAO
+ * only for rows changed since then and patches the model row by row:
+ * changed cells are updated in place, new rows are inserted at their sorted
+ * position, and rows deleted or no longer matching the view are removed.
+ * Because the model is never cleared, the selection and scroll position
+ * survive a refresh. A watermark older than ChangeSet.MAX_WATERMARK_AGE_MILLIS
+ * may have missed pruned deletes, so that refresh is a full load again.
+ * All methods must be called on the EDT.
+ */
+public class TableSync<T> {
+
+    private final DefaultTableModel model;
+    private final Function<T, Integer> idOf;
+    private final Function<T, Object[]> rowMapper;
+    private final Predicate<T> belongs;
+    private final Comparator<T> order;
+
+    private final List<T> items = new ArrayList<>(); // one per model row, same order
+    private Timestamp watermark;                     // null until a full load completes
+    private long watermarkSetAt;                     // local clock when watermark last moved
+
+    /**
+     * @param idOf      primary key of a row (matched against ChangeSet.getDeletedIds())
+     * @param rowMapper turns one entity into the table's column values
+     * @param belongs   whether a changed row still belongs in this view (e.g. still PENDING)
+     * @param order     the view's sort order, for placing new rows; null appends them
+     */
+    public TableSync(DefaultTableModel model, Function<T, Integer> idOf, Function<T, Object[]> rowMapper,
+                     Predicate<T> belongs, Comparator<T> order) {
+        this.model = model;
+        this.idOf = idOf;
+        this.rowMapper = rowMapper;
+        this.belongs = belongs;
+        this.order = order;
+    }
+
+    /**
+     * Bring the table up to date: a full load the first time, deltas after that
+     * onLoaded (may be null) gets the rows now shown, e.g. to update a count.
+     */
+    public void refresh(BackgroundLoader loader, String task, Supplier<List<T>> fullQuery,
+                        Function<Timestamp, ChangeSet<T>> changedSince, Consumer<List<T>> onLoaded) {
+        if (watermark == null ||
+                System.currentTimeMillis() - watermarkSetAt > ChangeSet.MAX_WATERMARK_AGE_MILLIS) {
+            // The load clears and refills the model while items still holds the
+            // old rows; pushes must not patch by those row indexes until it is done
+            watermark = null;
+            // Read the clock before the query so nothing changed during it is skipped
+            final Timestamp[] startedAt = new Timestamp[1];
+            loader.loadRows(task, () -> {
+                startedAt[0] = DatabaseConnection.getServerTime();
+                return fullQuery.get();
+            }, rowMapper, model, loaded -> {
+                items.clear();
+                items.addAll(loaded);
+                watermark = startedAt[0];
+                watermarkSetAt = System.currentTimeMillis();
+                notifyLoaded(onLoaded);
+            });
+            return;
+        }
+
+        final Timestamp since = watermark;
+        loader.run(task, () -> changedSince.apply(since), changes -> {
+            if (changes != null && watermark != null) {
+                apply(changes);
+            }
+            notifyLoaded(onLoaded);
+        });
+    }
+
+    /**
+     * Patch the table with changes pushed from elsewhere (e.g. PrescriptionEventBus)
+     * Ignored until a full load (the first, or one after the watermark grew
+     * too old) has finished - that load shows them anyway. The watermark
+     * does not move, so the next refresh() still catches anything the push
+     * missed.
+     *
+     * @return whether the table was patched
+     */
+    public boolean applyChanges(ChangeSet<T> changes) {
+        if (watermark == null) {
+            return false;
+        }
+        patch(changes);
+        return true;
+    }
+
+    /**
+     * Patch the model with one change set and move the watermark past it
+     */
+    void apply(ChangeSet<T> changes) {
+        patch(changes);
+        watermark = changes.getWatermark();
+        watermarkSetAt = System.currentTimeMillis();
+    }
+
+    private void patch(ChangeSet<T> changes) {
+        Map<Integer, Integer> rowOf = new HashMap<>();
+        for (int row = 0; row < items.size(); row++) {
+            rowOf.put(idOf.apply(items.get(row)), row);
+        }
+
+        Set<Integer> removed = new TreeSet<>(Collections.reverseOrder());
+        List<T> added = new ArrayList<>();
+
+        for (Integer id : changes.getDeletedIds()) {
+            Integer row = rowOf.get(id);
+            if (row != null) {
+                removed.add(row);
+            }
+        }
+        for (T item : changes.getChanged()) {
+            Integer row = rowOf.get(idOf.apply(item));
+            if (!belongs.test(item)) {
+                if (row != null) {
+                    removed.add(row);
+                }
+            } else if (row == null) {
+                added.add(item);
+            } else if (!fitsAt(row, item)) {
+                // Its sort key changed - move it
+                removed.add(row);
+                added.add(item);
+            } else {
+                update(row, item);
+            }
+        }
+
+        // Highest row first, so the lower row numbers stay valid
+        for (int row : removed) {
+            items.remove(row);
+            model.removeRow(row);
+        }
+        for (T item : added) {
+            insert(item);
+        }
+    }
+
+    private boolean fitsAt(int row, T item) {
+        if (order == null) {
+            return true;
+        }
+        return (row == 0 || order.compare(items.get(row - 1), item) <= 0)
+            && (row == items.size() - 1 || order.compare(item, items.get(row + 1)) <= 0);
+    }
+
+    /**
+     * Overwrite only the cells whose value changed
+     */
+    private void update(int row, T item) {
+        items.set(row, item);
+        Object[] values = rowMapper.apply(item);
+        for (int column = 0; column < values.length; column++) {
+            if (!Objects.equals(model.getValueAt(row, column), values[column])) {
+                model.setValueAt(values[column], row, column);
+            }
+        }
+    }
+
+    private void insert(T item) {
+        int row = items.size();
+        if (order != null) {
+            // First row that sorts after the new one
+            int low = 0;
+            int high = items.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (order.compare(items.get(mid), item) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            row = low;
+        }
+        items.add(row, item);
+        model.insertRow(row, rowMapper.apply(item));
+    }
+
+    private void notifyLoaded(Consumer<List<T>> onLoaded) {
+        if (onLoaded != null) {
+            onLoaded.accept(Collections.unmodifiableList(items));
+        }
+    }
+}
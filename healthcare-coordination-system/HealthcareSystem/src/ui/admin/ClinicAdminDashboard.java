@@ -1,18 +1,34 @@
 package ui.admin;
 
 import model.User;
-import model.Appointment;
 import model.Patient;
 import model.Prescription;
+import model.PrescriptionStatus;
+import model.ClinicStatistics;
 import database.UserDAO;
 import database.AppointmentDAO;
+import database.PatientCsvImporter;
+import database.Page;
 import database.PatientDAO;
+import database.PatientSearchIndex;
 import database.PrescriptionDAO;
+import database.PrescriptionExporter;
+import database.StatisticsDAO;
+import ui.BackgroundLoader;
+import ui.PagedTableModel;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * ClinicAdminDashboard - Main screen for clinic administrators
@@ -27,6 +43,11 @@ public class ClinicAdminDashboard extends JFrame {
     private AppointmentDAO appointmentDAO;
     private PatientDAO patientDAO;
     private PrescriptionDAO prescriptionDAO;
+    private StatisticsDAO statisticsDAO;
+    
+    // Paged prescription table: rows per fetch / pages kept in memory
+    private static final int PRESCRIPTION_PAGE_SIZE = 100;
+    private static final int PRESCRIPTION_PAGES_CACHED = 10;
     
     // UI Components
     private JTabbedPane tabbedPane;
@@ -37,7 +58,17 @@ public class ClinicAdminDashboard extends JFrame {
     private DefaultTableModel usersModel;
     private DefaultTableModel appointmentsModel;
     private DefaultTableModel patientsModel;
-    private DefaultTableModel prescriptionsModel;
+    private PagedTableModel<Prescription> prescriptionsModel;
+    
+    // Stat card values (refreshed by loadStatistics)
+    private JLabel totalDoctorsLabel;
+    private JLabel totalPatientsLabel;
+    private JLabel totalAppointmentsLabel;
+    private JLabel totalPrescriptionsLabel;
+    private JLabel clinicStaffLabel;
+    
+    // Runs the database loads off the EDT
+    private BackgroundLoader loader;
     
     public ClinicAdminDashboard(User user) {
         this.currentUser = user;
@@ -45,6 +76,8 @@ public class ClinicAdminDashboard extends JFrame {
         this.appointmentDAO = new AppointmentDAO();
         this.patientDAO = new PatientDAO();
         this.prescriptionDAO = new PrescriptionDAO();
+        this.statisticsDAO = new StatisticsDAO();
+        this.loader = new BackgroundLoader(this);
         
         initializeUI();
         loadData();
@@ -85,6 +118,9 @@ public class ClinicAdminDashboard extends JFrame {
         
         mainPanel.add(tabbedPane, BorderLayout.CENTER);
         
+        // Loading status
+        mainPanel.add(loader.getStatusBar(), BorderLayout.SOUTH);
+        
         add(mainPanel);
     }
     
@@ -125,19 +161,19 @@ public class ClinicAdminDashboard extends JFrame {
         JPanel statsPanel = new JPanel(new GridLayout(2, 3, 20, 20));
         statsPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
         
-        // Get counts
-        int totalDoctors = userDAO.getUsersByRole("DOCTOR").size();
-        int totalPatients = patientDAO.getAllPatients().size();
-        int totalAppointments = appointmentDAO.getAllAppointments().size();
-        int totalPrescriptions = prescriptionDAO.getAllPrescriptions().size();
+        // Create stat cards (values filled in by loadStatistics)
+        totalDoctorsLabel = new JLabel("-", SwingConstants.CENTER);
+        totalPatientsLabel = new JLabel("-", SwingConstants.CENTER);
+        totalAppointmentsLabel = new JLabel("-", SwingConstants.CENTER);
+        totalPrescriptionsLabel = new JLabel("-", SwingConstants.CENTER);
+        clinicStaffLabel = new JLabel("-", SwingConstants.CENTER);
         
-        // Create stat cards
-        statsPanel.add(createStatCard("Total Doctors", String.valueOf(totalDoctors), new Color(70, 130, 180)));
-        statsPanel.add(createStatCard("Total Patients", String.valueOf(totalPatients), new Color(34, 139, 34)));
-        statsPanel.add(createStatCard("Total Appointments", String.valueOf(totalAppointments), new Color(255, 140, 0)));
-        statsPanel.add(createStatCard("Prescriptions Issued", String.valueOf(totalPrescriptions), new Color(147, 112, 219)));
-        statsPanel.add(createStatCard("Clinic Staff", String.valueOf(userDAO.getUsersByRole("CLINIC_ADMIN").size() + totalDoctors), new Color(220, 20, 60)));
-        statsPanel.add(createStatCard("System Status", "✓ Active", new Color(60, 179, 113)));
+        statsPanel.add(createStatCard("Total Doctors", totalDoctorsLabel, new Color(70, 130, 180)));
+        statsPanel.add(createStatCard("Total Patients", totalPatientsLabel, new Color(34, 139, 34)));
+        statsPanel.add(createStatCard("Total Appointments", totalAppointmentsLabel, new Color(255, 140, 0)));
+        statsPanel.add(createStatCard("Prescriptions Issued", totalPrescriptionsLabel, new Color(147, 112, 219)));
+        statsPanel.add(createStatCard("Clinic Staff", clinicStaffLabel, new Color(220, 20, 60)));
+        statsPanel.add(createStatCard("System Status", new JLabel("✓ Active", SwingConstants.CENTER), new Color(60, 179, 113)));
         
         panel.add(statsPanel, BorderLayout.CENTER);
         
@@ -167,7 +203,7 @@ public class ClinicAdminDashboard extends JFrame {
     /**
      * Helper method to create stat cards
      */
-    private JPanel createStatCard(String title, String value, Color color) {
+    private JPanel createStatCard(String title, JLabel valueLabel, Color color) {
         JPanel card = new JPanel(new BorderLayout());
         card.setBackground(color);
         card.setBorder(BorderFactory.createCompoundBorder(
@@ -179,7 +215,6 @@ public class ClinicAdminDashboard extends JFrame {
         titleLabel.setFont(new Font("Arial", Font.BOLD, 14));
         titleLabel.setForeground(Color.WHITE);
         
-        JLabel valueLabel = new JLabel(value, SwingConstants.CENTER);
         valueLabel.setFont(new Font("Arial", Font.BOLD, 32));
         valueLabel.setForeground(Color.WHITE);
         
@@ -323,8 +358,12 @@ public class ClinicAdminDashboard extends JFrame {
         JButton searchButton = new JButton("🔍 Search Patient");
         searchButton.addActionListener(e -> searchPatient());
         
+        JButton importButton = new JButton("📥 Import from CSV");
+        importButton.addActionListener(e -> importPatients(importButton));
+        
         buttonsPanel.add(refreshButton);
         buttonsPanel.add(searchButton);
+        buttonsPanel.add(importButton);
         
         panel.add(buttonsPanel, BorderLayout.SOUTH);
         
@@ -343,13 +382,18 @@ public class ClinicAdminDashboard extends JFrame {
         panel.add(titleLabel, BorderLayout.NORTH);
         
         // Table
+        // Paged: only the rows being looked at are loaded
         String[] columns = {"Rx ID", "Patient", "Doctor", "Medication", "Quantity", "Status", "Issued Date", "Filled By"};
-        prescriptionsModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        prescriptionsModel = new PagedTableModel<>(loader, columns, rx -> new Object[] {
+                rx.getPrescriptionId(),
+                rx.getPatientName(),
+                rx.getDoctorName(),
+                rx.getMedicationName(),
+                rx.getQuantity(),
+                rx.getStatus(),
+                rx.getIssuedDate(),
+                rx.getPharmacistName() != null ? rx.getPharmacistName() : "Not filled"
+            }, prescriptionPages(), PRESCRIPTION_PAGE_SIZE, PRESCRIPTION_PAGES_CACHED);
         prescriptionsTable = new JTable(prescriptionsModel);
         prescriptionsTable.setFont(new Font("Arial", Font.PLAIN, 12));
         prescriptionsTable.setRowHeight(25);
@@ -367,24 +411,38 @@ public class ClinicAdminDashboard extends JFrame {
         JButton statsButton = new JButton("📊 Prescription Statistics");
         statsButton.addActionListener(e -> showPrescriptionStats());
         
+        JButton exportButton = new JButton("💾 Export History");
+        exportButton.addActionListener(e -> exportPrescriptions(exportButton));
+        
         buttonsPanel.add(refreshButton);
         buttonsPanel.add(statsButton);
+        buttonsPanel.add(exportButton);
         
         panel.add(buttonsPanel, BorderLayout.SOUTH);
         
         return panel;
     }
     
+    /**
+     * Load dashboard counters (one aggregate query)
+     */
+    private void loadStatistics() {
+        loader.run("statistics", () -> statisticsDAO.getClinicStatistics(), stats -> {
+            totalDoctorsLabel.setText(String.valueOf(stats.getTotalDoctors()));
+            totalPatientsLabel.setText(String.valueOf(stats.getTotalPatients()));
+            totalAppointmentsLabel.setText(String.valueOf(stats.getTotalAppointments()));
+            totalPrescriptionsLabel.setText(String.valueOf(stats.getTotalPrescriptions()));
+            clinicStaffLabel.setText(String.valueOf(stats.getClinicStaff()));
+        });
+    }
+    
     /**
      * Load all users
      */
     private void loadUsers() {
-        usersModel.setRowCount(0);
-        
-        List<User> users = userDAO.getAllUsers();
-        
-        for (User user : users) {
-            Object[] row = {
+        loader.loadRows("users",
+            () -> userDAO.getAllUsers(),
+            user -> new Object[] {
                 user.getUserId(),
                 user.getFullName(),
                 user.getUsername(),
@@ -392,21 +450,17 @@ public class ClinicAdminDashboard extends JFrame {
                 user.getEnterpriseType(),
                 user.getEmail(),
                 user.getPhone()
-            };
-            usersModel.addRow(row);
-        }
+            },
+            usersModel);
     }
     
     /**
      * Load all appointments
      */
     private void loadAppointments() {
-        appointmentsModel.setRowCount(0);
-        
-        List<Appointment> appointments = appointmentDAO.getAllAppointments();
-        
-        for (Appointment apt : appointments) {
-            Object[] row = {
+        loader.loadRows("appointments",
+            () -> appointmentDAO.getAllAppointments(),
+            apt -> new Object[] {
                 apt.getAppointmentId(),
                 apt.getPatientName(),
                 apt.getDoctorName(),
@@ -415,21 +469,17 @@ public class ClinicAdminDashboard extends JFrame {
                 apt.getReason(),
                 apt.getStatus(),
                 apt.getDiagnosis() != null ? apt.getDiagnosis().substring(0, Math.min(30, apt.getDiagnosis().length())) + "..." : "N/A"
-            };
-            appointmentsModel.addRow(row);
-        }
+            },
+            appointmentsModel);
     }
     
     /**
      * Load all patients
      */
     private void loadPatients() {
-        patientsModel.setRowCount(0);
-        
-        List<Patient> patients = patientDAO.getAllPatients();
-        
-        for (Patient patient : patients) {
-            Object[] row = {
+        loader.loadRows("patients",
+            () -> patientDAO.getAllPatients(),
+            patient -> new Object[] {
                 patient.getPatientId(),
                 patient.getFullName(),
                 patient.getDateOfBirth(),
@@ -438,32 +488,46 @@ public class ClinicAdminDashboard extends JFrame {
                 patient.getEmail(),
                 patient.getBloodGroup(),
                 patient.getAllergies()
-            };
-            patientsModel.addRow(row);
-        }
+            },
+            patientsModel);
     }
     
     /**
      * Load all prescriptions
+     * Re-counts and drops cached pages; visible rows reload on repaint.
      */
     private void loadPrescriptions() {
-        prescriptionsModel.setRowCount(0);
-        
-        List<Prescription> prescriptions = prescriptionDAO.getAllPrescriptions();
-        
-        for (Prescription rx : prescriptions) {
-            Object[] row = {
-                rx.getPrescriptionId(),
-                rx.getPatientName(),
-                rx.getDoctorName(),
-                rx.getMedicationName(),
-                rx.getQuantity(),
-                rx.getStatus(),
-                rx.getIssuedDate(),
-                rx.getPharmacistName() != null ? rx.getPharmacistName() : "Not filled"
-            };
-            prescriptionsModel.addRow(row);
-        }
+        prescriptionsModel.refresh();
+    }
+    
+    /**
+     * Prescription history for the paged table, newest first
+     */
+    private PagedTableModel.PageSource<Prescription> prescriptionPages() {
+        return new PagedTableModel.PageSource<Prescription>() {
+            @Override
+            public int count() {
+                return prescriptionDAO.countPrescriptions();
+            }
+            
+            @Override
+            public List<Prescription> fetchAt(int offset, int limit) {
+                List<Prescription> rows = prescriptionDAO.getPrescriptionsAt(offset, limit);
+                if (rows == null) {
+                    throw new IllegalStateException("Prescriptions could not be loaded");
+                }
+                return rows;
+            }
+            
+            @Override
+            public List<Prescription> fetchAfter(Prescription last, int limit) {
+                Page<Prescription> page = prescriptionDAO.getPrescriptionsPage(last, limit);
+                if (page == null) {
+                    throw new IllegalStateException("Prescriptions could not be loaded");
+                }
+                return page.getItems();
+            }
+        };
     }
     
     /**
@@ -504,16 +568,16 @@ public class ClinicAdminDashboard extends JFrame {
             newUser.setEmail(emailField.getText().trim());
             newUser.setPhone(phoneField.getText().trim());
             
-            boolean success = userDAO.createUser(newUser);
-            
-            if (success) {
-                JOptionPane.showMessageDialog(this, "User created successfully!", 
-                    "Success", JOptionPane.INFORMATION_MESSAGE);
-                loadUsers();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to create user!", 
-                    "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            loader.submit("new user", () -> userDAO.createUser(newUser), success -> {
+                if (success) {
+                    JOptionPane.showMessageDialog(this, "User created successfully!", 
+                        "Success", JOptionPane.INFORMATION_MESSAGE);
+                    loadUsers();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to create user!", 
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
     
@@ -529,8 +593,10 @@ public class ClinicAdminDashboard extends JFrame {
         }
         
         int userId = (Integer) usersModel.getValueAt(selectedRow, 0);
-        User user = userDAO.getUserById(userId);
-        
+        loader.run("user details", () -> userDAO.getUserById(userId), this::showUserDetails);
+    }
+    
+    private void showUserDetails(User user) {
         if (user != null) {
             String details = String.format(
                 "User ID: %d\n" +
@@ -560,12 +626,10 @@ public class ClinicAdminDashboard extends JFrame {
      * Filter users by role
      */
     private void filterByRole(String role) {
-        usersModel.setRowCount(0);
-        
-        List<User> users = userDAO.getUsersByRole(role);
-        
-        for (User user : users) {
-            Object[] row = {
+        // Same task as loadUsers(), so a running full load is superseded
+        loader.loadRows("users",
+            () -> userDAO.getUsersByRole(role),
+            user -> new Object[] {
                 user.getUserId(),
                 user.getFullName(),
                 user.getUsername(),
@@ -573,12 +637,10 @@ public class ClinicAdminDashboard extends JFrame {
                 user.getEnterpriseType(),
                 user.getEmail(),
                 user.getPhone()
-            };
-            usersModel.addRow(row);
-        }
-        
-        JOptionPane.showMessageDialog(this, "Showing " + users.size() + " " + role + "(s)", 
-            "Filtered", JOptionPane.INFORMATION_MESSAGE);
+            },
+            usersModel,
+            users -> JOptionPane.showMessageDialog(this, "Showing " + users.size() + " " + role + "(s)", 
+                "Filtered", JOptionPane.INFORMATION_MESSAGE));
     }
     
     /**
@@ -596,17 +658,14 @@ public class ClinicAdminDashboard extends JFrame {
      */
     private void searchPatient() {
         String searchTerm = JOptionPane.showInputDialog(this, 
-            "Enter patient name to search:", 
+            "Enter patient name, phone or email to search:", 
             "Search Patient", 
             JOptionPane.QUESTION_MESSAGE);
         
         if (searchTerm != null && !searchTerm.trim().isEmpty()) {
-            patientsModel.setRowCount(0);
-            
-            List<Patient> patients = patientDAO.searchPatientsByName(searchTerm);
-            
-            for (Patient patient : patients) {
-                Object[] row = {
+            loader.loadRows("patients",
+                () -> patientDAO.searchPatientsByName(searchTerm),
+                patient -> new Object[] {
                     patient.getPatientId(),
                     patient.getFullName(),
                     patient.getDateOfBirth(),
@@ -615,31 +674,189 @@ public class ClinicAdminDashboard extends JFrame {
                     patient.getEmail(),
                     patient.getBloodGroup(),
                     patient.getAllergies()
-                };
-                patientsModel.addRow(row);
-            }
-            
-            JOptionPane.showMessageDialog(this, "Found " + patients.size() + " patient(s)", 
-                "Search Results", JOptionPane.INFORMATION_MESSAGE);
+                },
+                patientsModel,
+                patients -> JOptionPane.showMessageDialog(this, "Found " + patients.size() + " patient(s)", 
+                    "Search Results", JOptionPane.INFORMATION_MESSAGE));
         }
     }
     
     /**
-     * Show prescription statistics
+     * Bulk-import patients from a CSV file (onboarding a clinic)
+     * Runs in the background with a progress dialog; Cancel stops it after
+     * the chunk being saved, keeping what was already imported. importButton
+     * stays disabled until the import has finished.
      */
-    private void showPrescriptionStats() {
-        List<Prescription> prescriptions = prescriptionDAO.getAllPrescriptions();
-        
-        int pending = 0, filled = 0, completed = 0;
+    private void importPatients(JButton importButton) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Import Patients from CSV");
+        chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("CSV files", "csv"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
         
-        for (Prescription rx : prescriptions) {
-            switch (rx.getStatus()) {
-                case "PENDING": pending++; break;
-                case "FILLED": filled++; break;
-                case "COMPLETED": completed++; break;
-            }
+        Path csvFile = chooser.getSelectedFile().toPath();
+        ProgressMonitor monitor = new ProgressMonitor(this, "Importing " + csvFile.getFileName(), "Starting...", 0, 100);
+        monitor.setMillisToDecideToPopup(0);
+        monitor.setMillisToPopup(0);
+        // Set from the EDT when Cancel is pressed; the importer stops after the current chunk
+        AtomicBoolean stop = new AtomicBoolean();
+        
+        importButton.setEnabled(false);
+        loader.submit("patient import",
+            () -> {
+                try {
+                    return new PatientCsvImporter().importFile(csvFile, (bytesRead, totalBytes, imported, rejected) -> {
+                        int percent = totalBytes == 0 ? 100 : (int) (bytesRead * 100 / totalBytes);
+                        SwingUtilities.invokeLater(() -> {
+                            if (monitor.isCanceled()) {
+                                stop.set(true);
+                            }
+                            monitor.setProgress(percent);
+                            monitor.setNote(String.format("%,d imported, %,d rejected", imported, rejected));
+                        });
+                    }, stop::get);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            },
+            result -> {
+                monitor.close();
+                importButton.setEnabled(true);
+                StringBuilder message = new StringBuilder(result.isCancelled() ? "Import stopped.\n\n" : "Import finished.\n\n");
+                message.append(String.format("Imported: %,d patients%nRejected: %,d rows%nTime: %.1f s (%,.0f rows/s)",
+                    result.getImportedCount(), result.getRejectedCount(),
+                    result.getElapsedMillis() / 1000.0, result.getRowsPerSecond()));
+                for (PatientCsvImporter.RowError error : result.getErrors().subList(0, Math.min(10, result.getErrors().size()))) {
+                    message.append("\n  ").append(error);
+                }
+                if (result.getRejectedCount() > 10) {
+                    message.append("\n  ... (see the console for the rest)");
+                    result.getErrors().forEach(error -> System.err.println("⚠ Rejected " + error));
+                }
+                JOptionPane.showMessageDialog(this, message.toString(), "Patient Import",
+                    result.getRejectedCount() == 0 ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE);
+                loadPatients();
+                loadStatistics();
+            },
+            error -> {
+                monitor.close();
+                importButton.setEnabled(true);
+                JOptionPane.showMessageDialog(this, "Import failed: " +
+                    (error.getCause() != null ? error.getCause().getMessage() : error.getMessage()),
+                    "Patient Import", JOptionPane.ERROR_MESSAGE);
+            });
+    }
+    
+    /**
+     * Export prescription history to a CSV or NDJSON file
+     * Streams straight from the database to disk in the background, so any
+     * size of history can be exported while the dashboard stays usable.
+     * exportButton stays disabled until the export has finished.
+     */
+    private void exportPrescriptions(JButton exportButton) {
+        JComboBox<PrescriptionExporter.Format> formatCombo = new JComboBox<>(PrescriptionExporter.Format.values());
+        JCheckBox gzipCheck = new JCheckBox("Compress (gzip)");
+        JTextField fromField = new JTextField(10);
+        JTextField toField = new JTextField(10);
+        JComboBox<String> statusCombo = new JComboBox<>(new String[] {"All", "PENDING", "FILLED", "COMPLETED"});
+        
+        JPanel optionsPanel = new JPanel(new GridLayout(5, 2, 5, 5));
+        optionsPanel.add(new JLabel("Format:"));
+        optionsPanel.add(formatCombo);
+        optionsPanel.add(new JLabel("Issued from (yyyy-MM-dd):"));
+        optionsPanel.add(fromField);
+        optionsPanel.add(new JLabel("Issued before (yyyy-MM-dd):"));
+        optionsPanel.add(toField);
+        optionsPanel.add(new JLabel("Status:"));
+        optionsPanel.add(statusCombo);
+        optionsPanel.add(new JLabel());
+        optionsPanel.add(gzipCheck);
+        
+        if (JOptionPane.showConfirmDialog(this, optionsPanel, "Export Prescription History",
+                JOptionPane.OK_CANCEL_OPTION) != JOptionPane.OK_OPTION) {
+            return;
         }
         
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = fromField.getText().trim().isEmpty() ? null : LocalDate.parse(fromField.getText().trim());
+            to = toField.getText().trim().isEmpty() ? null : LocalDate.parse(toField.getText().trim());
+        } catch (DateTimeParseException e) {
+            JOptionPane.showMessageDialog(this, "Invalid date! Please use yyyy-MM-dd.", 
+                "Input Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        PrescriptionExporter.Format format = (PrescriptionExporter.Format) formatCombo.getSelectedItem();
+        boolean gzip = gzipCheck.isSelected();
+        PrescriptionStatus status = statusCombo.getSelectedIndex() == 0 ? null
+            : PrescriptionStatus.fromCode((String) statusCombo.getSelectedItem());
+        
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Save Prescription History");
+        chooser.setSelectedFile(new File("prescriptions" +
+            (format == PrescriptionExporter.Format.CSV ? ".csv" : ".ndjson") + (gzip ? ".gz" : "")));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = chooser.getSelectedFile().toPath();
+        ProgressMonitor monitor = new ProgressMonitor(this, "Exporting to " + file.getFileName(), "Starting...", 0, 100);
+        monitor.setMillisToDecideToPopup(0);
+        monitor.setMillisToPopup(0);
+        monitor.setProgress(0);
+        // Set from the EDT when Cancel is pressed; the exporter gives up at its next progress check
+        AtomicBoolean stop = new AtomicBoolean();
+        
+        exportButton.setEnabled(false);
+        loader.submit("prescription export",
+            () -> {
+                try {
+                    return new PrescriptionExporter().export(file, format, gzip, from, to, status, 
+                        written -> SwingUtilities.invokeLater(() -> {
+                            if (monitor.isCanceled()) {
+                                stop.set(true);
+                            }
+                            monitor.setNote(String.format("%,d rows written", written));
+                        }), stop::get);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            },
+            rows -> {
+                monitor.close();
+                exportButton.setEnabled(true);
+                JOptionPane.showMessageDialog(this, 
+                    String.format("Exported %,d prescriptions to%n%s", rows, file), 
+                    "Export Complete", JOptionPane.INFORMATION_MESSAGE);
+            }, 
+            error -> {
+                monitor.close();
+                exportButton.setEnabled(true);
+                if (stop.get()) {
+                    JOptionPane.showMessageDialog(this, "Export cancelled; no file was written.", 
+                        "Export Cancelled", JOptionPane.INFORMATION_MESSAGE);
+                    return;
+                }
+                JOptionPane.showMessageDialog(this, "Export failed: " +
+                    (error.getCause() != null ? error.getCause().getMessage() : error.getMessage()),
+                    "Export Error", JOptionPane.ERROR_MESSAGE);
+            });
+    }
+    
+    /**
+     * Show prescription statistics
+     */
+    private void showPrescriptionStats() {
+        loader.run("prescription statistics", () -> statisticsDAO.getClinicStatistics(), 
+            this::showPrescriptionStats);
+    }
+    
+    private void showPrescriptionStats(ClinicStatistics clinicStats) {
         String stats = String.format(
             "Prescription Statistics:\n\n" +
             "Total Prescriptions: %d\n" +
@@ -647,11 +864,11 @@ public class ClinicAdminDashboard extends JFrame {
             "Filled: %d\n" +
             "Completed: %d\n\n" +
             "Fulfillment Rate: %.1f%%",
-            prescriptions.size(),
-            pending,
-            filled,
-            completed,
-            prescriptions.size() > 0 ? ((filled + completed) * 100.0 / prescriptions.size()) : 0
+            clinicStats.getTotalPrescriptions(),
+            clinicStats.getPendingPrescriptions(),
+            clinicStats.getFilledPrescriptions(),
+            clinicStats.getCompletedPrescriptions(),
+            clinicStats.getFulfillmentRate()
         );
         
         JOptionPane.showMessageDialog(this, stats, "Prescription Statistics", 
@@ -662,24 +879,28 @@ public class ClinicAdminDashboard extends JFrame {
      * Generate comprehensive report
      */
     private void generateReport() {
+        loader.run("report", () -> statisticsDAO.getClinicStatistics(), this::showReport);
+    }
+    
+    private void showReport(ClinicStatistics stats) {
         StringBuilder report = new StringBuilder();
         report.append("═══════════════════════════════════════\n");
         report.append("     CLINIC COMPREHENSIVE REPORT\n");
         report.append("═══════════════════════════════════════\n\n");
         
         report.append("STAFF:\n");
-        report.append("  Doctors: ").append(userDAO.getUsersByRole("DOCTOR").size()).append("\n");
-        report.append("  Admins: ").append(userDAO.getUsersByRole("CLINIC_ADMIN").size()).append("\n\n");
+        report.append("  Doctors: ").append(stats.getTotalDoctors()).append("\n");
+        report.append("  Admins: ").append(stats.getTotalClinicAdmins()).append("\n\n");
         
         report.append("PATIENTS:\n");
-        report.append("  Total Registered: ").append(patientDAO.getAllPatients().size()).append("\n\n");
+        report.append("  Total Registered: ").append(stats.getTotalPatients()).append("\n\n");
         
         report.append("APPOINTMENTS:\n");
-        report.append("  Total: ").append(appointmentDAO.getAllAppointments().size()).append("\n\n");
+        report.append("  Total: ").append(stats.getTotalAppointments()).append("\n\n");
         
         report.append("PRESCRIPTIONS:\n");
-        report.append("  Total Issued: ").append(prescriptionDAO.getAllPrescriptions().size()).append("\n");
-        report.append("  Sent to Pharmacy: ").append(prescriptionDAO.getPendingPrescriptions().size()).append("\n\n");
+        report.append("  Total Issued: ").append(stats.getTotalPrescriptions()).append("\n");
+        report.append("  Sent to Pharmacy: ").append(stats.getPendingPrescriptions()).append("\n\n");
         
         report.append("═══════════════════════════════════════\n");
         report.append("Report generated successfully!\n");
@@ -700,9 +921,16 @@ public class ClinicAdminDashboard extends JFrame {
      * Load all data
      */
     private void loadData() {
-        loadUsers();
-        loadAppointments();
-        loadPatients();
-        loadPrescriptions();
+        // Build the patient search index now so the first search does not wait for it
+        PatientSearchIndex.getInstance().warmUp();
+        
+        // Independent queries - run them side by side, each tab fills as it returns
+        loader.prefetch(() -> {
+            loadStatistics();
+            loadUsers();
+            loadAppointments();
+            loadPatients();
+            loadPrescriptions();
+        });
     }
 }
\ No newline at end of file
@@ -2,13 +2,16 @@ package ui.admin;
 
 import model.User;
 import model.RestockRequest;
-import model.Medication;
+import model.RestockStatus;
 import database.RestockRequestDAO;
 import database.MedicationDAO;
+import ui.BackgroundLoader;
+import ui.TableSync;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -29,13 +32,18 @@ public class PharmacyManagerDashboard extends JFrame {
     private JTable allRequestsTable;
     private JTable inventoryTable;
     private DefaultTableModel pendingRequestsModel;
+    private TableSync<RestockRequest> pendingRequestsSync;
     private DefaultTableModel allRequestsModel;
     private DefaultTableModel inventoryModel;
     
+    // Runs the database loads off the EDT
+    private BackgroundLoader loader;
+    
     public PharmacyManagerDashboard(User user) {
         this.currentUser = user;
         this.restockRequestDAO = new RestockRequestDAO();
         this.medicationDAO = new MedicationDAO();
+        this.loader = new BackgroundLoader(this);
         
         initializeUI();
         loadData();
@@ -70,6 +78,9 @@ public class PharmacyManagerDashboard extends JFrame {
         
         mainPanel.add(tabbedPane, BorderLayout.CENTER);
         
+        // Loading status
+        mainPanel.add(loader.getStatusBar(), BorderLayout.SOUTH);
+        
         add(mainPanel);
     }
     
@@ -125,6 +136,22 @@ public class PharmacyManagerDashboard extends JFrame {
                 return false;
             }
         };
+        // Refresh applies only what changed since the last load, kept in the query's order
+        pendingRequestsSync = new TableSync<>(pendingRequestsModel,
+            RestockRequest::getRequestId,
+            req -> new Object[] {
+                req.getRequestId(),
+                req.getMedicationName(),
+                req.getRequesterName(),
+                req.getRequestedQuantity(),
+                req.getCurrentStock(),
+                req.getPriority(),
+                req.getReason(),
+                req.getRequestedDate()
+            },
+            req -> req.getStatus() == RestockStatus.PENDING,
+            Comparator.comparingInt((RestockRequest req) -> priorityRank(req.getPriority()))
+                      .thenComparingLong(RestockRequest::getRequestedDateMillis));
         pendingRequestsTable = new JTable(pendingRequestsModel);
         pendingRequestsTable.setFont(new Font("Arial", Font.PLAIN, 12));
         pendingRequestsTable.setRowHeight(25);
@@ -247,7 +274,7 @@ public class PharmacyManagerDashboard extends JFrame {
         panel.add(titleLabel, BorderLayout.NORTH);
         
         // Table
-        String[] columns = {"Med ID", "Medication", "Category", "Strength", "Current Stock", "Status", "Price"};
+        String[] columns = {"Med ID", "Medication", "Category", "Strength", "Current Stock", "Status", "Price", "Reorder At", "Last Restocked"};
         inventoryModel = new DefaultTableModel(columns, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
@@ -311,38 +338,38 @@ public class PharmacyManagerDashboard extends JFrame {
      * WORK REQUEST #4: Manager receives requests
      */
     private void loadPendingRequests() {
-        pendingRequestsModel.setRowCount(0);
-        
-        List<RestockRequest> requests = restockRequestDAO.getPendingRestockRequests();
-        
-        for (RestockRequest req : requests) {
-            Object[] row = {
-                req.getRequestId(),
-                req.getMedicationName(),
-                req.getRequesterName(),
-                req.getRequestedQuantity(),
-                req.getCurrentStock(),
-                req.getPriority(),
-                req.getReason(),
-                req.getRequestedDate()
-            };
-            pendingRequestsModel.addRow(row);
+        pendingRequestsSync.refresh(loader, "pending requests",
+            () -> restockRequestDAO.getPendingRestockRequests(),
+            since -> restockRequestDAO.getChangedSince(since),
+            requests -> {
+                // Update tab title with count
+                tabbedPane.setTitleAt(0, "⚠ Pending Requests (" + requests.size() + ")");
+            });
+    }
+    
+    /**
+     * Sort rank of a priority, matching getPendingRestockRequests' ORDER BY
+     */
+    private static int priorityRank(String priority) {
+        if (priority == null) {
+            return 0; // MySQL sorts the CASE's NULL first
+        }
+        switch (priority) {
+            case "URGENT": return 1;
+            case "HIGH":   return 2;
+            case "MEDIUM": return 3;
+            case "LOW":    return 4;
+            default:       return 0;
         }
-        
-        // Update tab title with count
-        tabbedPane.setTitleAt(0, "⚠ Pending Requests (" + requests.size() + ")");
     }
     
     /**
      * Load all restock requests
      */
     private void loadAllRequests() {
-        allRequestsModel.setRowCount(0);
-        
-        List<RestockRequest> requests = restockRequestDAO.getAllRestockRequests();
-        
-        for (RestockRequest req : requests) {
-            Object[] row = {
+        loader.loadRows("all requests",
+            () -> restockRequestDAO.getAllRestockRequests(),
+            req -> new Object[] {
                 req.getRequestId(),
                 req.getMedicationName(),
                 req.getRequesterName(),
@@ -351,39 +378,38 @@ public class PharmacyManagerDashboard extends JFrame {
                 req.getStatus(),
                 req.getApproverName() != null ? req.getApproverName() : "N/A",
                 req.getRequestedDate()
-            };
-            allRequestsModel.addRow(row);
-        }
+            },
+            allRequestsModel);
     }
     
     /**
      * Load inventory
      */
     private void loadInventory() {
-        inventoryModel.setRowCount(0);
-        
-        List<Medication> medications = medicationDAO.getAllMedications();
-        
-        for (Medication med : medications) {
-            int stock = medicationDAO.getMedicationStock(med.getMedicationId());
-            
-            String status;
-            if (stock < 30) status = "CRITICAL";
-            else if (stock < 50) status = "LOW";
-            else if (stock < 100) status = "MEDIUM";
-            else status = "GOOD";
-            
-            Object[] row = {
-                med.getMedicationId(),
-                med.getMedicationName(),
-                med.getCategory(),
-                med.getStrength(),
-                stock,
-                status,
-                "$" + med.getUnitPrice()
-            };
-            inventoryModel.addRow(row);
-        }
+        loader.loadRows("inventory",
+            () -> medicationDAO.getMedicationsWithInventory(),
+            item -> {
+                int stock = item.getQuantityAvailable();
+                
+                String status;
+                if (stock < 30) status = "CRITICAL";
+                else if (stock < 50) status = "LOW";
+                else if (stock < 100) status = "MEDIUM";
+                else status = "GOOD";
+                
+                return new Object[] {
+                    item.getMedicationId(),
+                    item.getMedicationName(),
+                    item.getCategory(),
+                    item.getStrength(),
+                    stock,
+                    status,
+                    "$" + item.getUnitPrice(),
+                    item.getReorderLevel(),
+                    item.getLastRestocked() != null ? item.getLastRestocked() : "N/A"
+                };
+            },
+            inventoryModel);
     }
     
     /**
@@ -421,25 +447,28 @@ public class PharmacyManagerDashboard extends JFrame {
                 JOptionPane.QUESTION_MESSAGE);
             
             if (notes == null) notes = "Approved";
+            final String managerNotes = notes;
             
-            boolean success = restockRequestDAO.approveRestockRequest(requestId, currentUser.getUserId(), notes);
-            
-            if (success) {
-                JOptionPane.showMessageDialog(this, 
-                    "✅ Restock request APPROVED!\n\n" +
-                    "Work Request #4 COMPLETED:\n" +
-                    "Pharmacist → Manager → Inventory Updated\n\n" +
-                    "Status changed: PENDING → APPROVED\n" +
-                    "Inventory increased by " + quantity + " units!", 
-                    "Success", 
-                    JOptionPane.INFORMATION_MESSAGE);
-                loadPendingRequests(); // Refresh
-                loadAllRequests();
-                loadInventory();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to approve request!", 
-                    "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            loader.submit("approving request #" + requestId, 
+                () -> restockRequestDAO.approveRestockRequest(requestId, currentUser.getUserId(), managerNotes), 
+                success -> {
+                    if (success) {
+                        JOptionPane.showMessageDialog(this, 
+                            "✅ Restock request APPROVED!\n\n" +
+                            "Work Request #4 COMPLETED:\n" +
+                            "Pharmacist → Manager → Inventory Updated\n\n" +
+                            "Status changed: PENDING → APPROVED\n" +
+                            "Inventory increased by " + quantity + " units!", 
+                            "Success", 
+                            JOptionPane.INFORMATION_MESSAGE);
+                        loadPendingRequests(); // Refresh
+                        loadAllRequests();
+                        loadInventory();
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Failed to approve request!", 
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                });
         }
     }
     
@@ -464,19 +493,21 @@ public class PharmacyManagerDashboard extends JFrame {
             JOptionPane.QUESTION_MESSAGE);
         
         if (reason != null && !reason.trim().isEmpty()) {
-            boolean success = restockRequestDAO.updateRestockRequestStatus(requestId, "REJECTED");
-            
-            if (success) {
-                JOptionPane.showMessageDialog(this, 
-                    "Request rejected.\nPharmacist will be notified.", 
-                    "Rejected", 
-                    JOptionPane.INFORMATION_MESSAGE);
-                loadPendingRequests();
-                loadAllRequests();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to reject request!", 
-                    "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            loader.submit("rejecting request #" + requestId, 
+                () -> restockRequestDAO.updateRestockRequestStatus(requestId, RestockStatus.REJECTED), 
+                success -> {
+                    if (success) {
+                        JOptionPane.showMessageDialog(this, 
+                            "Request rejected.\nPharmacist will be notified.", 
+                            "Rejected", 
+                            JOptionPane.INFORMATION_MESSAGE);
+                        loadPendingRequests();
+                        loadAllRequests();
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Failed to reject request!", 
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                });
         }
     }
     
@@ -492,8 +523,11 @@ public class PharmacyManagerDashboard extends JFrame {
         }
         
         int requestId = (Integer) pendingRequestsModel.getValueAt(selectedRow, 0);
-        RestockRequest req = restockRequestDAO.getRestockRequestById(requestId);
-        
+        loader.run("request details", () -> restockRequestDAO.getRestockRequestById(requestId), 
+            this::showRequestDetails);
+    }
+    
+    private void showRequestDetails(RestockRequest req) {
         if (req != null) {
             String details = String.format(
                 "Request ID: %d\n" +
@@ -564,15 +598,20 @@ public class PharmacyManagerDashboard extends JFrame {
      * Show statistics
      */
     private void showStatistics() {
-        List<RestockRequest> allRequests = restockRequestDAO.getAllRestockRequests();
-        
+        loader.run("statistics", () -> restockRequestDAO.getAllRestockRequests(), this::showRequestStatistics);
+    }
+    
+    private void showRequestStatistics(List<RestockRequest> allRequests) {
         int pending = 0, approved = 0, rejected = 0;
         
         for (RestockRequest req : allRequests) {
-            switch (req.getStatus()) {
-                case "PENDING": pending++; break;
-                case "APPROVED": approved++; break;
-                case "REJECTED": rejected++; break;
+            RestockStatus status = req.getStatus();
+            if (status == RestockStatus.PENDING) {
+                pending++;
+            } else if (status == RestockStatus.APPROVED) {
+                approved++;
+            } else if (status == RestockStatus.REJECTED) {
+                rejected++;
             }
         }
         
@@ -598,8 +637,11 @@ public class PharmacyManagerDashboard extends JFrame {
      * Load all data when dashboard opens
      */
     private void loadData() {
-        loadPendingRequests();
-        loadAllRequests();
-        loadInventory();
+        // Independent queries - run them side by side, each tab fills as it returns
+        loader.prefetch(() -> {
+            loadPendingRequests();
+            loadAllRequests();
+            loadInventory();
+        });
     }
 }
\ No newline at end of file
@@ -2,13 +2,17 @@ package ui.doctor;
 
 import model.User;
 import model.Appointment;
-import model.Patient;
+import model.AppointmentStatus;
 import model.Medication;
 import model.Prescription;
+import model.PrescriptionStatus;
 import database.AppointmentDAO;
 import database.PatientDAO;
 import database.MedicationDAO;
 import database.PrescriptionDAO;
+import ui.BackgroundLoader;
+import ui.MedicationTypeAhead;
+import ui.TableSync;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
@@ -17,6 +21,8 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.sql.Date;
 import java.sql.Time;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -39,14 +45,19 @@ public class DoctorDashboard extends JFrame {
     private JTable appointmentsTable;
     private JTable patientsTable;
     private DefaultTableModel appointmentsTableModel;
+    private TableSync<Appointment> appointmentsSync;
     private DefaultTableModel patientsTableModel;
     
+    // Runs the database loads off the EDT
+    private BackgroundLoader loader;
+    
     public DoctorDashboard(User user) {
         this.currentUser = user;
         this.appointmentDAO = new AppointmentDAO();
         this.patientDAO = new PatientDAO();
         this.medicationDAO = new MedicationDAO();
         this.prescriptionDAO = new PrescriptionDAO();
+        this.loader = new BackgroundLoader(this);
         
         initializeUI();
         loadData();
@@ -81,6 +92,9 @@ public class DoctorDashboard extends JFrame {
         
         mainPanel.add(tabbedPane, BorderLayout.CENTER);
         
+        // Loading status
+        mainPanel.add(loader.getStatusBar(), BorderLayout.SOUTH);
+        
         add(mainPanel);
     }
     
@@ -130,6 +144,21 @@ public class DoctorDashboard extends JFrame {
                 return false; // Make table read-only
             }
         };
+        // Refresh applies only what changed since the last load (latest first, like the query)
+        appointmentsSync = new TableSync<>(appointmentsTableModel,
+            Appointment::getAppointmentId,
+            apt -> new Object[] {
+                apt.getAppointmentId(),
+                apt.getPatientName(),
+                apt.getAppointmentDate(),
+                apt.getAppointmentTime(),
+                apt.getReason(),
+                apt.getStatus(),
+                apt.getDiagnosis() != null ? apt.getDiagnosis().substring(0, Math.min(30, apt.getDiagnosis().length())) + "..." : ""
+            },
+            apt -> apt.getDoctorId() == currentUser.getUserId(),
+            Comparator.comparing(Appointment::getAppointmentDate, Comparator.nullsLast(Comparator.<Date>reverseOrder()))
+                      .thenComparing(Appointment::getAppointmentTime, Comparator.nullsLast(Comparator.<Time>reverseOrder())));
         appointmentsTable = new JTable(appointmentsTableModel);
         appointmentsTable.setFont(new Font("Arial", Font.PLAIN, 12));
         appointmentsTable.setRowHeight(25);
@@ -251,9 +280,10 @@ public class DoctorDashboard extends JFrame {
         gbc.gridx = 0; gbc.gridy = 2;
         formPanel.add(new JLabel("Medication:"), gbc);
         gbc.gridx = 1;
-        JComboBox<String> medicationCombo = new JComboBox<>();
-        loadMedicationsIntoCombo(medicationCombo);
-        formPanel.add(medicationCombo, gbc);
+        MedicationTypeAhead medicationField = new MedicationTypeAhead(20);
+        medicationField.setToolTipText("Type a medication, generic name or category and pick from the list");
+        loadMedicationIndex(medicationField);
+        formPanel.add(medicationField, gbc);
         
         // Dosage Instructions
         gbc.gridx = 0; gbc.gridy = 3;
@@ -277,15 +307,56 @@ public class DoctorDashboard extends JFrame {
         JSpinner refillsSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 12, 1));
         formPanel.add(refillsSpinner, gbc);
         
+        // Medications on this prescription - one line per drug, sent together
+        List<Medication> lineMedications = new ArrayList<>();
+        DefaultTableModel linesModel = new DefaultTableModel(
+                new String[] {"Medication", "Dosage", "Qty", "Refills"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable linesTable = new JTable(linesModel);
+        linesTable.setRowHeight(22);
+        
+        gbc.gridx = 1; gbc.gridy = 6;
+        JPanel lineButtonsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        JButton addLineButton = new JButton("Add Medication");
+        addLineButton.addActionListener(e -> {
+            if (addPrescriptionLine(medicationField.getSelectedMedication(), dosageField.getText(),
+                    (Integer) quantitySpinner.getValue(), (Integer) refillsSpinner.getValue(),
+                    lineMedications, linesModel)) {
+                medicationField.clearSelection();
+                medicationField.requestFocusInWindow();
+            }
+        });
+        JButton removeLineButton = new JButton("Remove Selected");
+        removeLineButton.addActionListener(e -> {
+            int row = linesTable.getSelectedRow();
+            if (row != -1) {
+                lineMedications.remove(row);
+                linesModel.removeRow(row);
+            }
+        });
+        lineButtonsPanel.add(addLineButton);
+        lineButtonsPanel.add(removeLineButton);
+        formPanel.add(lineButtonsPanel, gbc);
+        
+        gbc.gridx = 0; gbc.gridy = 7; gbc.gridwidth = 2;
+        JScrollPane linesScroll = new JScrollPane(linesTable);
+        linesScroll.setPreferredSize(new Dimension(450, 110));
+        formPanel.add(linesScroll, gbc);
+        
         // Info Label
-        gbc.gridx = 0; gbc.gridy = 6; gbc.gridwidth = 2;
+        gbc.gridy = 8;
         JLabel infoLabel = new JLabel("<html><i>This prescription will be sent to the pharmacy for fulfillment.<br>" +
+                "Add each medication, or fill in just one and send it.<br>" +
                 "Status will be tracked: PENDING → FILLED → COMPLETED</i></html>");
         infoLabel.setForeground(new Color(100, 100, 100));
         formPanel.add(infoLabel, gbc);
         
         // Submit Button - IMPROVED COLORS
-        gbc.gridy = 7;
+        gbc.gridy = 9;
         JButton createButton = new JButton("Create & Send Prescription to Pharmacy");
         createButton.setFont(new Font("Arial", Font.PLAIN, 14));
         createButton.setBackground(new Color(46, 204, 113)); // Bright green - CHANGED
@@ -293,13 +364,19 @@ public class DoctorDashboard extends JFrame {
         createButton.setFocusPainted(false);
         createButton.setBorder(BorderFactory.createEmptyBorder(10, 20, 10, 20));
         createButton.addActionListener(e -> {
-            createPrescription(
+            // Nothing added yet - send the medication in the form on its own
+            if (lineMedications.isEmpty() && !addPrescriptionLine(medicationField.getSelectedMedication(),
+                    dosageField.getText(), (Integer) quantitySpinner.getValue(),
+                    (Integer) refillsSpinner.getValue(), lineMedications, linesModel)) {
+                return;
+            }
+            createPrescriptions(
                 appointmentIdField.getText(),
                 patientIdField.getText(),
-                medicationCombo,
-                dosageField.getText(),
-                (Integer) quantitySpinner.getValue(),
-                (Integer) refillsSpinner.getValue()
+                lineMedications,
+                linesModel,
+                createButton,
+                () -> medicationField.clearSelection()
             );
         });
         formPanel.add(createButton, gbc);
@@ -313,34 +390,19 @@ public class DoctorDashboard extends JFrame {
      * Load appointments from database
      */
     private void loadAppointments() {
-        appointmentsTableModel.setRowCount(0); // Clear table
-        
-        List<Appointment> appointments = appointmentDAO.getAppointmentsByDoctor(currentUser.getUserId());
-        
-        for (Appointment apt : appointments) {
-            Object[] row = {
-                apt.getAppointmentId(),
-                apt.getPatientName(),
-                apt.getAppointmentDate(),
-                apt.getAppointmentTime(),
-                apt.getReason(),
-                apt.getStatus(),
-                apt.getDiagnosis() != null ? apt.getDiagnosis().substring(0, Math.min(30, apt.getDiagnosis().length())) + "..." : ""
-            };
-            appointmentsTableModel.addRow(row);
-        }
+        appointmentsSync.refresh(loader, "appointments",
+            () -> appointmentDAO.getAppointmentsByDoctor(currentUser.getUserId()),
+            since -> appointmentDAO.getChangedSince(currentUser.getUserId(), since),
+            null);
     }
     
     /**
      * Load patients from database
      */
     private void loadPatients() {
-        patientsTableModel.setRowCount(0); // Clear table
-        
-        List<Patient> patients = patientDAO.getAllPatients();
-        
-        for (Patient patient : patients) {
-            Object[] row = {
+        loader.loadRows("patients",
+            () -> patientDAO.getAllPatients(),
+            patient -> new Object[] {
                 patient.getPatientId(),
                 patient.getFullName(),
                 patient.getDateOfBirth(),
@@ -349,19 +411,15 @@ public class DoctorDashboard extends JFrame {
                 patient.getEmail(),
                 patient.getBloodGroup(),
                 patient.getAllergies()
-            };
-            patientsTableModel.addRow(row);
-        }
+            },
+            patientsTableModel);
     }
     
     /**
-     * Load medications into combo box
+     * Load the medication catalog's prefix index into the type-ahead field
      */
-    private void loadMedicationsIntoCombo(JComboBox<String> combo) {
-        List<Medication> medications = medicationDAO.getAllMedications();
-        for (Medication med : medications) {
-            combo.addItem(med.getMedicationId() + " - " + med.getMedicationName() + " " + med.getStrength());
-        }
+    private void loadMedicationIndex(MedicationTypeAhead field) {
+        loader.run("medications", () -> medicationDAO.getMedicationPrefixIndex(), field::setIndex);
     }
     
     /**
@@ -376,9 +434,9 @@ public class DoctorDashboard extends JFrame {
         }
         
         int appointmentId = (Integer) appointmentsTableModel.getValueAt(selectedRow, 0);
-        String currentStatus = (String) appointmentsTableModel.getValueAt(selectedRow, 5);
+        AppointmentStatus currentStatus = (AppointmentStatus) appointmentsTableModel.getValueAt(selectedRow, 5);
         
-        if ("COMPLETED".equals(currentStatus)) {
+        if (currentStatus == AppointmentStatus.COMPLETED) {
             JOptionPane.showMessageDialog(this, "This appointment is already completed!", 
                 "Already Completed", JOptionPane.INFORMATION_MESSAGE);
             return;
@@ -414,17 +472,19 @@ public class DoctorDashboard extends JFrame {
                 return;
             }
             
-            boolean success = appointmentDAO.completeAppointment(appointmentId, diagnosis, notes);
-            
-            if (success) {
-                JOptionPane.showMessageDialog(this, 
-                    "Appointment completed successfully!\nYou can now create a prescription for this patient.", 
-                    "Success", JOptionPane.INFORMATION_MESSAGE);
-                loadAppointments(); // Refresh table
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to complete appointment!", 
-                    "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            loader.submit("completing appointment #" + appointmentId, 
+                () -> appointmentDAO.completeAppointment(appointmentId, diagnosis, notes), 
+                success -> {
+                    if (success) {
+                        JOptionPane.showMessageDialog(this, 
+                            "Appointment completed successfully!\nYou can now create a prescription for this patient.", 
+                            "Success", JOptionPane.INFORMATION_MESSAGE);
+                        loadAppointments(); // Refresh table
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Failed to complete appointment!", 
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                });
         }
     }
     
@@ -440,8 +500,11 @@ public class DoctorDashboard extends JFrame {
         }
         
         int appointmentId = (Integer) appointmentsTableModel.getValueAt(selectedRow, 0);
-        Appointment apt = appointmentDAO.getAppointmentById(appointmentId);
-        
+        loader.run("appointment details", () -> appointmentDAO.getAppointmentById(appointmentId), 
+            this::showAppointmentDetails);
+    }
+    
+    private void showAppointmentDetails(Appointment apt) {
         if (apt != null) {
             String details = String.format(
                 "Appointment ID: %d\n" +
@@ -474,14 +537,42 @@ public class DoctorDashboard extends JFrame {
     }
     
     /**
-     * Create prescription and send to pharmacy
+     * Add one medication line to the prescription being written
+     * Returns false (after telling the doctor why) if the line is incomplete.
+     */
+    private boolean addPrescriptionLine(Medication medication, String dosage, int quantity, int refills,
+                                        List<Medication> lineMedications, DefaultTableModel linesModel) {
+        // Medication picked from the type-ahead suggestions
+        if (medication == null) {
+            JOptionPane.showMessageDialog(this, "Please select a medication from the suggestions!", 
+                "Validation Error", JOptionPane.ERROR_MESSAGE);
+            return false;
+        }
+        if (dosage.trim().isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Please enter the dosage instructions!", 
+                "Validation Error", JOptionPane.ERROR_MESSAGE);
+            return false;
+        }
+        
+        lineMedications.add(medication);
+        linesModel.addRow(new Object[] {
+            MedicationTypeAhead.describe(medication), dosage.trim(), quantity, refills
+        });
+        return true;
+    }
+    
+    /**
+     * Create one prescription per line and send them all to the pharmacy
      * WORK REQUEST #2: Inter-enterprise communication
+     * The lines are saved in one batch - all of them or, on failure, none.
+     * sendButton stays disabled until the batch has committed or failed, so a
+     * second click cannot send the same lines twice.
      */
-    private void createPrescription(String aptIdText, String patIdText, JComboBox<String> medCombo,
-                                   String dosage, int quantity, int refills) {
+    private void createPrescriptions(String aptIdText, String patIdText, List<Medication> lineMedications,
+                                     DefaultTableModel linesModel, JButton sendButton, Runnable onSent) {
         try {
             // Validate inputs
-            if (aptIdText.isEmpty() || patIdText.isEmpty() || dosage.isEmpty()) {
+            if (aptIdText.isEmpty() || patIdText.isEmpty()) {
                 JOptionPane.showMessageDialog(this, "Please fill in all required fields!", 
                     "Validation Error", JOptionPane.ERROR_MESSAGE);
                 return;
@@ -490,43 +581,52 @@ public class DoctorDashboard extends JFrame {
             int appointmentId = Integer.parseInt(aptIdText);
             int patientId = Integer.parseInt(patIdText);
             
-            // Get medication ID from combo box selection
-            String medSelection = (String) medCombo.getSelectedItem();
-            if (medSelection == null) {
-                JOptionPane.showMessageDialog(this, "Please select a medication!", 
-                    "Validation Error", JOptionPane.ERROR_MESSAGE);
-                return;
+            // Create prescription objects
+            List<Prescription> prescriptions = new ArrayList<>();
+            for (int row = 0; row < linesModel.getRowCount(); row++) {
+                Prescription prescription = new Prescription();
+                prescription.setAppointmentId(appointmentId);
+                prescription.setPatientId(patientId);
+                prescription.setDoctorId(currentUser.getUserId());
+                prescription.setMedicationId(lineMedications.get(row).getMedicationId());
+                prescription.setDosageInstructions((String) linesModel.getValueAt(row, 1));
+                prescription.setQuantity((Integer) linesModel.getValueAt(row, 2));
+                prescription.setRefills((Integer) linesModel.getValueAt(row, 3));
+                prescription.setStatus(PrescriptionStatus.PENDING); // Waiting for pharmacy to fill
+                prescriptions.add(prescription);
             }
-            int medicationId = Integer.parseInt(medSelection.split(" - ")[0]);
-            
-            // Create prescription object
-            Prescription prescription = new Prescription();
-            prescription.setAppointmentId(appointmentId);
-            prescription.setPatientId(patientId);
-            prescription.setDoctorId(currentUser.getUserId());
-            prescription.setMedicationId(medicationId);
-            prescription.setDosageInstructions(dosage);
-            prescription.setQuantity(quantity);
-            prescription.setRefills(refills);
-            prescription.setStatus("PENDING"); // Waiting for pharmacy to fill
             
-            // Save to database - this sends it to pharmacy!
-            boolean success = prescriptionDAO.createPrescription(prescription);
-            
-            if (success) {
-                JOptionPane.showMessageDialog(this, 
-                    "✅ Prescription created and sent to pharmacy!\n\n" +
-                    "Prescription ID: " + prescription.getPrescriptionId() + "\n" +
-                    "Status: PENDING (waiting for pharmacy to fill)\n\n" +
-                    "The pharmacy will receive this prescription and can fill it.\n" +
-                    "This demonstrates INTER-ENTERPRISE communication:\n" +
-                    "Clinic (Doctor) → Pharmacy (Pharmacist)", 
-                    "Success - Work Request #2", 
-                    JOptionPane.INFORMATION_MESSAGE);
-            } else {
+            // Save to database - this sends them to pharmacy!
+            sendButton.setEnabled(false);
+            loader.submit("sending prescriptions", () -> prescriptionDAO.createPrescriptions(prescriptions), success -> {
+                sendButton.setEnabled(true);
+                if (success) {
+                    StringBuilder ids = new StringBuilder();
+                    for (Prescription prescription : prescriptions) {
+                        ids.append(ids.length() == 0 ? "" : ", ").append(prescription.getPrescriptionId());
+                    }
+                    lineMedications.clear();
+                    linesModel.setRowCount(0);
+                    onSent.run();
+                    
+                    JOptionPane.showMessageDialog(this, 
+                        "✅ " + prescriptions.size() + " prescription(s) created and sent to pharmacy!\n\n" +
+                        "Prescription ID(s): " + ids + "\n" +
+                        "Status: PENDING (waiting for pharmacy to fill)\n\n" +
+                        "The pharmacy will receive this prescription and can fill it.\n" +
+                        "This demonstrates INTER-ENTERPRISE communication:\n" +
+                        "Clinic (Doctor) → Pharmacy (Pharmacist)", 
+                        "Success - Work Request #2", 
+                        JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to create prescription!", 
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }, error -> {
+                sendButton.setEnabled(true);
                 JOptionPane.showMessageDialog(this, "Failed to create prescription!", 
                     "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            });
             
         } catch (NumberFormatException e) {
             JOptionPane.showMessageDialog(this, "Invalid ID format! Please enter valid numbers.", 
@@ -538,7 +638,10 @@ public class DoctorDashboard extends JFrame {
      * Load all data when dashboard opens
      */
     private void loadData() {
-        loadAppointments();
-        loadPatients();
+        // Independent queries - run them side by side, each tab fills as it returns
+        loader.prefetch(() -> {
+            loadAppointments();
+            loadPatients();
+        });
     }
 }
\ No newline at end of file
@@ -2,16 +2,28 @@ package ui.pharmacist;
 
 import model.User;
 import model.Prescription;
+import model.PrescriptionStatus;
 import model.Medication;
 import model.RestockRequest;
+import model.RestockStatus;
+import database.ChangeSet;
+import database.Page;
 import database.PrescriptionDAO;
+import database.PrescriptionEventBus;
 import database.MedicationDAO;
 import database.RestockRequestDAO;
+import ui.BackgroundLoader;
+import ui.PagedTableModel;
+import ui.TableSync;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * PharmacistDashboard - Main screen for pharmacists
@@ -27,31 +39,61 @@ public class PharmacistDashboard extends JFrame {
     private MedicationDAO medicationDAO;
     private RestockRequestDAO restockRequestDAO;
     
+    // Paged prescription history: rows per fetch / pages kept in memory
+    private static final int PRESCRIPTION_PAGE_SIZE = 100;
+    private static final int PRESCRIPTION_PAGES_CACHED = 10;
+    
+    // Work queue: prescriptions claimed per click / claim lease / lease renewal interval
+    private static final int CLAIM_BATCH_SIZE = 5;
+    private static final int CLAIM_LEASE_SECONDS = 15 * 60;
+    private static final int CLAIM_RENEW_MILLIS = 5 * 60 * 1000;
+    
     // UI Components
     private JTabbedPane tabbedPane;
     private JTable pendingPrescriptionsTable;
+    private JTable claimedWorkTable;
     private JTable allPrescriptionsTable;
     private JTable inventoryTable;
     private JTable myRestockRequestsTable;
     private DefaultTableModel pendingPrescriptionsModel;
-    private DefaultTableModel allPrescriptionsModel;
+    private TableSync<Prescription> pendingPrescriptionsSync;
+    private DefaultTableModel claimedWorkModel;
+    private PagedTableModel<Prescription> allPrescriptionsModel;
     private DefaultTableModel inventoryModel;
     private DefaultTableModel myRestockRequestsModel;
     
+    // Runs the database loads off the EDT
+    private BackgroundLoader loader;
+    
+    // Keeps this pharmacist's claims alive while the dashboard is open
+    private Timer claimRenewTimer;
+    private boolean claimsReleased;
+    
+    // New and changed prescriptions pushed to the pending tab
+    private final Consumer<ChangeSet<Prescription>> prescriptionListener = changes ->
+        SwingUtilities.invokeLater(() -> {
+            if (pendingPrescriptionsSync.applyChanges(changes)) {
+                updatePendingTitle();
+            }
+        });
+    
     public PharmacistDashboard(User user) {
         this.currentUser = user;
         this.prescriptionDAO = new PrescriptionDAO();
         this.medicationDAO = new MedicationDAO();
         this.restockRequestDAO = new RestockRequestDAO();
+        this.loader = new BackgroundLoader(this);
         
         initializeUI();
+        startClaimHousekeeping();
+        PrescriptionEventBus.getInstance().subscribe(prescriptionListener);
         loadData();
     }
     
     private void initializeUI() {
         setTitle("Pharmacist Dashboard - " + currentUser.getFullName());
         setSize(1200, 700);
-        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE); // exits once claims are released
         setLocationRelativeTo(null);
         
         // Main panel
@@ -69,20 +111,26 @@ public class PharmacistDashboard extends JFrame {
         // Tab 1: Pending Prescriptions (Work Request #2 - receiving side)
         tabbedPane.addTab("⚠ Pending Prescriptions", createPendingPrescriptionsPanel());
         
-        // Tab 2: All Prescriptions
+        // Tab 2: My Claimed Work (shared work queue)
+        tabbedPane.addTab("My Claimed Work", createClaimedWorkPanel());
+        
+        // Tab 3: All Prescriptions
         tabbedPane.addTab("All Prescriptions", createAllPrescriptionsPanel());
         
-        // Tab 3: Medication Inventory
+        // Tab 4: Medication Inventory
         tabbedPane.addTab("Inventory", createInventoryPanel());
         
-        // Tab 4: Request Restock (Work Request #4)
+        // Tab 5: Request Restock (Work Request #4)
         tabbedPane.addTab("Request Restock", createRestockRequestPanel());
         
-        // Tab 5: My Restock Requests
+        // Tab 6: My Restock Requests
         tabbedPane.addTab("My Requests", createMyRequestsPanel());
         
         mainPanel.add(tabbedPane, BorderLayout.CENTER);
         
+        // Loading status
+        mainPanel.add(loader.getStatusBar(), BorderLayout.SOUTH);
+        
         add(mainPanel);
     }
     
@@ -138,6 +186,21 @@ public class PharmacistDashboard extends JFrame {
                 return false;
             }
         };
+        // Refresh applies only what changed since the last load (oldest first, like the query)
+        pendingPrescriptionsSync = new TableSync<>(pendingPrescriptionsModel,
+            Prescription::getPrescriptionId,
+            rx -> new Object[] {
+                rx.getPrescriptionId(),
+                rx.getPatientName(),
+                rx.getDoctorName(),
+                rx.getMedicationName(),
+                rx.getDosageInstructions(),
+                rx.getQuantity(),
+                rx.getStatus(),
+                rx.getIssuedDate()
+            },
+            rx -> rx.getStatus() == PrescriptionStatus.PENDING,
+            Comparator.comparingLong(Prescription::getIssuedDateMillis));
         pendingPrescriptionsTable = new JTable(pendingPrescriptionsModel);
         pendingPrescriptionsTable.setFont(new Font("Arial", Font.PLAIN, 12));
         pendingPrescriptionsTable.setRowHeight(25);
@@ -156,7 +219,7 @@ public class PharmacistDashboard extends JFrame {
         fillButton.setBackground(new Color(34, 139, 34));
         fillButton.setForeground(Color.BLACK);
         fillButton.setFont(new Font("Arial", Font.PLAIN, 12));
-        fillButton.addActionListener(e -> fillSelectedPrescription());
+        fillButton.addActionListener(e -> fillSelectedPrescription(pendingPrescriptionsTable));
         
         JButton viewDetailsButton = new JButton("View Details");
         viewDetailsButton.addActionListener(e -> viewPrescriptionDetails());
@@ -171,24 +234,87 @@ public class PharmacistDashboard extends JFrame {
     }
     
     /**
-     * TAB 2: All Prescriptions Panel
+     * TAB 2: My Claimed Work Panel
+     * Prescriptions claimed from the shared queue - no other pharmacist can
+     * fill these while the claim is held.
      */
-    private JPanel createAllPrescriptionsPanel() {
+    private JPanel createClaimedWorkPanel() {
         JPanel panel = new JPanel(new BorderLayout(10, 10));
         panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         
-        JLabel titleLabel = new JLabel("All Prescriptions History");
+        JLabel titleLabel = new JLabel("My Claimed Work");
         titleLabel.setFont(new Font("Arial", Font.BOLD, 18));
         panel.add(titleLabel, BorderLayout.NORTH);
         
-        // Table
-        String[] columns = {"Rx ID", "Patient", "Doctor", "Medication", "Dosage", "Qty", "Status", "Filled By", "Filled Date"};
-        allPrescriptionsModel = new DefaultTableModel(columns, 0) {
+        // Table (first columns match the pending table so the fill action works on both)
+        String[] columns = {"Rx ID", "Patient", "Doctor", "Medication", "Dosage", "Qty", "Issued Date", "Claim Expires"};
+        claimedWorkModel = new DefaultTableModel(columns, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
                 return false;
             }
         };
+        claimedWorkTable = new JTable(claimedWorkModel);
+        claimedWorkTable.setFont(new Font("Arial", Font.PLAIN, 12));
+        claimedWorkTable.setRowHeight(25);
+        claimedWorkTable.getTableHeader().setFont(new Font("Arial", Font.BOLD, 12));
+        
+        JScrollPane scrollPane = new JScrollPane(claimedWorkTable);
+        panel.add(scrollPane, BorderLayout.CENTER);
+        
+        // Buttons
+        JPanel buttonsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 10));
+        
+        JButton claimButton = new JButton("Claim Next " + CLAIM_BATCH_SIZE);
+        claimButton.addActionListener(e -> claimNextPrescriptions());
+        
+        JButton fillButton = new JButton("✓ Fill Selected Prescription");
+        fillButton.setBackground(new Color(34, 139, 34));
+        fillButton.setForeground(Color.BLACK);
+        fillButton.setFont(new Font("Arial", Font.PLAIN, 12));
+        fillButton.addActionListener(e -> fillSelectedPrescription(claimedWorkTable));
+        
+        JButton releaseButton = new JButton("Release Selected");
+        releaseButton.addActionListener(e -> releaseSelectedClaim());
+        
+        JButton refreshButton = new JButton("Refresh");
+        refreshButton.addActionListener(e -> loadClaimedWork());
+        
+        buttonsPanel.add(claimButton);
+        buttonsPanel.add(fillButton);
+        buttonsPanel.add(releaseButton);
+        buttonsPanel.add(refreshButton);
+        
+        panel.add(buttonsPanel, BorderLayout.SOUTH);
+        
+        return panel;
+    }
+    
+    /**
+     * TAB 2: All Prescriptions Panel
+     */
+    private JPanel createAllPrescriptionsPanel() {
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        
+        JLabel titleLabel = new JLabel("All Prescriptions History");
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 18));
+        panel.add(titleLabel, BorderLayout.NORTH);
+        
+        // Table
+        // Paged: only the rows being looked at are loaded
+        String[] columns = {"Rx ID", "Patient", "Doctor", "Medication", "Dosage", "Qty", "Status", "Filled By", "Filled Date"};
+        allPrescriptionsModel = new PagedTableModel<>(loader, columns, rx -> new Object[] {
+                rx.getPrescriptionId(),
+                rx.getPatientName(),
+                rx.getDoctorName(),
+                rx.getMedicationName(),
+                rx.getDosageInstructions(),
+                rx.getQuantity(),
+                rx.getStatus(),
+                rx.getPharmacistName() != null ? rx.getPharmacistName() : "Not filled",
+                rx.getFilledDate() != null ? rx.getFilledDate() : "N/A"
+            }, prescriptionPages(), PRESCRIPTION_PAGE_SIZE, PRESCRIPTION_PAGES_CACHED);
         allPrescriptionsTable = new JTable(allPrescriptionsModel);
         allPrescriptionsTable.setFont(new Font("Arial", Font.PLAIN, 12));
         allPrescriptionsTable.setRowHeight(25);
@@ -220,7 +346,7 @@ public class PharmacistDashboard extends JFrame {
         panel.add(titleLabel, BorderLayout.NORTH);
         
         // Table
-        String[] columns = {"Med ID", "Medication Name", "Category", "Strength", "Form", "Current Stock", "Price"};
+        String[] columns = {"Med ID", "Medication Name", "Category", "Strength", "Form", "Current Stock", "Price", "Reorder At", "Expiry Date"};
         inventoryModel = new DefaultTableModel(columns, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
@@ -383,96 +509,116 @@ public class PharmacistDashboard extends JFrame {
      * WORK REQUEST #2: Receiving side
      */
     private void loadPendingPrescriptions() {
-        pendingPrescriptionsModel.setRowCount(0);
-        
-        List<Prescription> prescriptions = prescriptionDAO.getPendingPrescriptions();
-        
-        for (Prescription rx : prescriptions) {
-            Object[] row = {
+        pendingPrescriptionsSync.refresh(loader, "pending prescriptions",
+            () -> prescriptionDAO.getPendingPrescriptions(),
+            since -> prescriptionDAO.getChangedSince(since),
+            prescriptions -> updatePendingTitle());
+    }
+    
+    /**
+     * Show the pending count in the tab title
+     */
+    private void updatePendingTitle() {
+        tabbedPane.setTitleAt(0, "⚠ Pending Prescriptions (" + pendingPrescriptionsModel.getRowCount() + ")");
+    }
+    
+    /**
+     * Load the prescriptions this pharmacist has claimed
+     */
+    private void loadClaimedWork() {
+        loader.loadRows("claimed work",
+            () -> prescriptionDAO.getClaimedPrescriptions(currentUser.getUserId()),
+            rx -> new Object[] {
                 rx.getPrescriptionId(),
                 rx.getPatientName(),
                 rx.getDoctorName(),
                 rx.getMedicationName(),
                 rx.getDosageInstructions(),
                 rx.getQuantity(),
-                rx.getStatus(),
-                rx.getIssuedDate()
-            };
-            pendingPrescriptionsModel.addRow(row);
-        }
-        
-        // Show count in tab title
-        tabbedPane.setTitleAt(0, "⚠ Pending Prescriptions (" + prescriptions.size() + ")");
+                rx.getIssuedDate(),
+                rx.getClaimedUntil()
+            },
+            claimedWorkModel,
+            prescriptions -> tabbedPane.setTitleAt(1, "My Claimed Work (" + prescriptions.size() + ")"));
     }
     
     /**
      * Load all prescriptions
+     * Re-counts and drops cached pages; visible rows reload on repaint.
      */
     private void loadAllPrescriptions() {
-        allPrescriptionsModel.setRowCount(0);
-        
-        List<Prescription> prescriptions = prescriptionDAO.getAllPrescriptions();
-        
-        for (Prescription rx : prescriptions) {
-            Object[] row = {
-                rx.getPrescriptionId(),
-                rx.getPatientName(),
-                rx.getDoctorName(),
-                rx.getMedicationName(),
-                rx.getDosageInstructions(),
-                rx.getQuantity(),
-                rx.getStatus(),
-                rx.getPharmacistName() != null ? rx.getPharmacistName() : "Not filled",
-                rx.getFilledDate() != null ? rx.getFilledDate() : "N/A"
-            };
-            allPrescriptionsModel.addRow(row);
-        }
+        allPrescriptionsModel.refresh();
+    }
+    
+    /**
+     * Prescription history for the paged table, newest first
+     */
+    private PagedTableModel.PageSource<Prescription> prescriptionPages() {
+        return new PagedTableModel.PageSource<Prescription>() {
+            @Override
+            public int count() {
+                return prescriptionDAO.countPrescriptions();
+            }
+            
+            @Override
+            public List<Prescription> fetchAt(int offset, int limit) {
+                List<Prescription> rows = prescriptionDAO.getPrescriptionsAt(offset, limit);
+                if (rows == null) {
+                    throw new IllegalStateException("Prescriptions could not be loaded");
+                }
+                return rows;
+            }
+            
+            @Override
+            public List<Prescription> fetchAfter(Prescription last, int limit) {
+                Page<Prescription> page = prescriptionDAO.getPrescriptionsPage(last, limit);
+                if (page == null) {
+                    throw new IllegalStateException("Prescriptions could not be loaded");
+                }
+                return page.getItems();
+            }
+        };
     }
     
     /**
      * Load medication inventory
      */
     private void loadInventory() {
-        inventoryModel.setRowCount(0);
-        
-        List<Medication> medications = medicationDAO.getAllMedications();
-        
-        for (Medication med : medications) {
-            int stock = medicationDAO.getMedicationStock(med.getMedicationId());
-            
-            Object[] row = {
-                med.getMedicationId(),
-                med.getMedicationName(),
-                med.getCategory(),
-                med.getStrength(),
-                med.getDosageForm(),
-                stock,
-                "$" + med.getUnitPrice()
-            };
-            inventoryModel.addRow(row);
-        }
+        loader.loadRows("inventory",
+            () -> medicationDAO.getMedicationsWithInventory(),
+            item -> new Object[] {
+                item.getMedicationId(),
+                item.getMedicationName(),
+                item.getCategory(),
+                item.getStrength(),
+                item.getDosageForm(),
+                item.getQuantityAvailable(),
+                "$" + item.getUnitPrice(),
+                item.getReorderLevel(),
+                item.getExpiryDate() != null ? item.getExpiryDate() : "N/A"
+            },
+            inventoryModel);
     }
     
     /**
      * Load medications into combo box
      */
     private void loadMedicationsIntoCombo(JComboBox<String> combo) {
-        List<Medication> medications = medicationDAO.getAllMedications();
-        for (Medication med : medications) {
-            combo.addItem(med.getMedicationId() + " - " + med.getMedicationName() + " " + med.getStrength());
-        }
+        loader.run("medications", () -> medicationDAO.getAllMedications(), medications -> {
+            combo.removeAllItems();
+            for (Medication med : medications) {
+                combo.addItem(med.getMedicationId() + " - " + med.getMedicationName() + " " + med.getStrength());
+            }
+        });
     }
     
     /**
      * Load my restock requests
      */
     private void loadMyRestockRequests() {
-        myRestockRequestsModel.setRowCount(0);
-        
-        List<RestockRequest> requests = restockRequestDAO.getRestockRequestsByPharmacist(currentUser.getUserId());
-        
-        for (RestockRequest req : requests) {
-            Object[] row = {
+        loader.loadRows("my requests",
+            () -> restockRequestDAO.getRestockRequestsByPharmacist(currentUser.getUserId()),
+            req -> new Object[] {
                 req.getRequestId(),
                 req.getMedicationName(),
                 req.getRequestedQuantity(),
@@ -480,26 +626,25 @@ public class PharmacistDashboard extends JFrame {
                 req.getPriority(),
                 req.getStatus(),
                 req.getRequestedDate()
-            };
-            myRestockRequestsModel.addRow(row);
-        }
+            },
+            myRestockRequestsModel);
     }
     
     /**
      * Fill selected prescription
      * WORK REQUEST #2: Completing the inter-enterprise flow
      */
-    private void fillSelectedPrescription() {
-        int selectedRow = pendingPrescriptionsTable.getSelectedRow();
+    private void fillSelectedPrescription(JTable table) {
+        int selectedRow = table.getSelectedRow();
         if (selectedRow == -1) {
             JOptionPane.showMessageDialog(this, "Please select a prescription to fill!", 
                 "No Selection", JOptionPane.WARNING_MESSAGE);
             return;
         }
         
-        int rxId = (Integer) pendingPrescriptionsModel.getValueAt(selectedRow, 0);
-        String patientName = (String) pendingPrescriptionsModel.getValueAt(selectedRow, 1);
-        String medication = (String) pendingPrescriptionsModel.getValueAt(selectedRow, 3);
+        int rxId = (Integer) table.getValueAt(selectedRow, 0);
+        String patientName = (String) table.getValueAt(selectedRow, 1);
+        String medication = (String) table.getValueAt(selectedRow, 3);
         
         // Confirm
         int confirm = JOptionPane.showConfirmDialog(this, 
@@ -518,25 +663,115 @@ public class PharmacistDashboard extends JFrame {
             
             if (notes == null) notes = "Filled without issues";
             
-            boolean success = prescriptionDAO.fillPrescription(rxId, currentUser.getUserId(), notes);
+            final String pharmacistNotes = notes;
             
-            if (success) {
-                JOptionPane.showMessageDialog(this, 
-                    "✅ Prescription filled successfully!\n\n" +
-                    "Work Request #2 COMPLETED:\n" +
-                    "Doctor (Clinic) → Pharmacist (Pharmacy)\n\n" +
-                    "The prescription status is now FILLED.\n" +
-                    "Inventory has been updated.", 
-                    "Success", 
-                    JOptionPane.INFORMATION_MESSAGE);
-                loadPendingPrescriptions(); // Refresh
-                loadAllPrescriptions();
-                loadInventory();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to fill prescription!", 
-                    "Error", JOptionPane.ERROR_MESSAGE);
+            loader.submit("filling Rx #" + rxId, 
+                () -> prescriptionDAO.fillPrescription(rxId, currentUser.getUserId(), pharmacistNotes), 
+                this::showFillResult);
+        }
+    }
+    
+    private void showFillResult(boolean success) {
+        if (success) {
+            JOptionPane.showMessageDialog(this, 
+                "✅ Prescription filled successfully!\n\n" +
+                "Work Request #2 COMPLETED:\n" +
+                "Doctor (Clinic) → Pharmacist (Pharmacy)\n\n" +
+                "The prescription status is now FILLED.\n" +
+                "Inventory has been updated.", 
+                "Success", 
+                JOptionPane.INFORMATION_MESSAGE);
+            loadPendingPrescriptions(); // Refresh
+            loadClaimedWork();
+            loadAllPrescriptions();
+            loadInventory();
+        } else {
+            JOptionPane.showMessageDialog(this, 
+                "Failed to fill prescription!\n\n" +
+                "It may already have been filled or claimed by another pharmacist,\n" +
+                "or there is not enough stock on hand.", 
+                "Error", JOptionPane.ERROR_MESSAGE);
+            loadPendingPrescriptions(); // Show the current state
+            loadClaimedWork();
+            loadInventory();
+        }
+    }
+    
+    /**
+     * Claim the next prescriptions from the shared queue
+     */
+    private void claimNextPrescriptions() {
+        loader.submit("claiming",
+            () -> prescriptionDAO.claimPendingPrescriptions(currentUser.getUserId(), CLAIM_BATCH_SIZE, CLAIM_LEASE_SECONDS),
+            claimed -> {
+                if (claimed == 0) {
+                    JOptionPane.showMessageDialog(this, "No unclaimed prescriptions are waiting right now.", 
+                        "Queue Empty", JOptionPane.INFORMATION_MESSAGE);
+                }
+                loadClaimedWork();
+            });
+    }
+    
+    /**
+     * Give the selected claimed prescription back to the queue
+     */
+    private void releaseSelectedClaim() {
+        int selectedRow = claimedWorkTable.getSelectedRow();
+        if (selectedRow == -1) {
+            JOptionPane.showMessageDialog(this, "Please select a claimed prescription first!", 
+                "No Selection", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        
+        int rxId = (Integer) claimedWorkModel.getValueAt(selectedRow, 0);
+        loader.submit("releasing Rx #" + rxId,
+            () -> prescriptionDAO.releaseClaim(rxId, currentUser.getUserId()),
+            released -> loadClaimedWork());
+    }
+    
+    /**
+     * Renew claims while the dashboard is open; release them when it closes
+     * A pharmacist who quits without closing the window (crash, power loss)
+     * loses the claims when the lease runs out instead. Claims are writes, so
+     * they go through loader.submit: a tick while the last renewal is still
+     * running is skipped, and nothing interrupts a claim or release halfway.
+     */
+    private void startClaimHousekeeping() {
+        claimRenewTimer = new Timer(CLAIM_RENEW_MILLIS, e -> loader.submit("renewing claims",
+            () -> prescriptionDAO.renewClaims(currentUser.getUserId(), CLAIM_LEASE_SECONDS),
+            renewed -> { }));
+        claimRenewTimer.start();
+        
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                // Exit the way EXIT_ON_CLOSE did, but only after the release has run
+                setVisible(false);
+                releaseClaims(() -> System.exit(0));
+            }
+            
+            @Override
+            public void windowClosed(WindowEvent e) {
+                releaseClaims(() -> { }); // Logout
+                PrescriptionEventBus.getInstance().unsubscribe(prescriptionListener);
             }
+        });
+    }
+    
+    /**
+     * Give every claim back to the queue in the background, then run andThen
+     */
+    private void releaseClaims(Runnable andThen) {
+        if (claimsReleased) {
+            andThen.run();
+            return;
         }
+        claimsReleased = true;
+        claimRenewTimer.stop();
+        loader.submit("releasing claims", 
+            () -> prescriptionDAO.releaseAllClaims(currentUser.getUserId()), 
+            released -> andThen.run(), 
+            error -> andThen.run());
     }
     
     /**
@@ -551,8 +786,11 @@ public class PharmacistDashboard extends JFrame {
         }
         
         int rxId = (Integer) pendingPrescriptionsModel.getValueAt(selectedRow, 0);
-        Prescription rx = prescriptionDAO.getPrescriptionById(rxId);
-        
+        loader.run("prescription details", () -> prescriptionDAO.getPrescriptionById(rxId), 
+            this::showPrescriptionDetails);
+    }
+    
+    private void showPrescriptionDetails(Prescription rx) {
         if (rx != null) {
             String details = String.format(
                 "Prescription ID: %d\n" +
@@ -647,25 +885,25 @@ public class PharmacistDashboard extends JFrame {
             request.setPriority(priority);
             request.setReason(reason);
             request.setRequestedBy(currentUser.getUserId());
-            request.setStatus("PENDING");
-            
-            boolean success = restockRequestDAO.createRestockRequest(request);
-            
-            if (success) {
-                JOptionPane.showMessageDialog(this, 
-                    "✅ Restock request created and sent to manager!\n\n" +
-                    "Request ID: " + request.getRequestId() + "\n" +
-                    "Status: PENDING (waiting for manager approval)\n\n" +
-                    "This demonstrates INTRA-ENTERPRISE communication:\n" +
-                    "Pharmacist → Pharmacy Manager (Work Request #4)", 
-                    "Success", 
-                    JOptionPane.INFORMATION_MESSAGE);
-                loadMyRestockRequests(); // Refresh
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to create restock request!", 
-                    "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            request.setStatus(RestockStatus.PENDING);
             
+            loader.submit("restock request", () -> restockRequestDAO.createRestockRequest(request), success -> {
+                if (success) {
+                    JOptionPane.showMessageDialog(this, 
+                        "✅ Restock request created and sent to manager!\n\n" +
+                        "Request ID: " + request.getRequestId() + "\n" +
+                        "Status: PENDING (waiting for manager approval)\n\n" +
+                        "This demonstrates INTRA-ENTERPRISE communication:\n" +
+                        "Pharmacist → Pharmacy Manager (Work Request #4)", 
+                        "Success", 
+                        JOptionPane.INFORMATION_MESSAGE);
+                    loadMyRestockRequests(); // Refresh
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to create restock request!", 
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
+        
         } catch (NumberFormatException e) {
             JOptionPane.showMessageDialog(this, "Invalid number format!", 
                 "Input Error", JOptionPane.ERROR_MESSAGE);
@@ -676,9 +914,13 @@ public class PharmacistDashboard extends JFrame {
      * Load all data when dashboard opens
      */
     private void loadData() {
-        loadPendingPrescriptions();
-        loadAllPrescriptions();
-        loadInventory();
-        loadMyRestockRequests();
+        // Independent queries - run them side by side, each tab fills as it returns
+        loader.prefetch(() -> {
+            loadPendingPrescriptions();
+            loadClaimedWork();
+            loadAllPrescriptions();
+            loadInventory();
+            loadMyRestockRequests();
+        });
     }
 }
\ No newline at end of file
@@ -11,7 +11,8 @@ CREATE TABLE users (
     enterprise_type VARCHAR(30) NOT NULL,
     email VARCHAR(100),
     phone VARCHAR(20),
-    created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_users_role (role, full_name)
 );
 
 -- Table 2: Patients
@@ -26,7 +27,8 @@ CREATE TABLE patients (
     address VARCHAR(200),
     blood_group VARCHAR(5),
     allergies TEXT,
-    created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_patients_name (last_name, first_name)
 );
 
 -- Table 3: Appointments (Work Request 1)
@@ -41,8 +43,15 @@ CREATE TABLE appointments (
     diagnosis TEXT,
     notes TEXT,
     created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    last_updated TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
     FOREIGN KEY (patient_id) REFERENCES patients(patient_id),
-    FOREIGN KEY (doctor_id) REFERENCES users(user_id)
+    FOREIGN KEY (doctor_id) REFERENCES users(user_id),
+    INDEX idx_appointments_updated (last_updated),
+    INDEX idx_appointments_seek (appointment_date, appointment_time, appointment_id),
+    INDEX idx_appointments_doctor (doctor_id, appointment_date, appointment_time),
+    INDEX idx_appointments_patient (patient_id, appointment_date, appointment_time),
+    INDEX idx_appointments_status (status, appointment_date, appointment_time),
+    INDEX idx_appointments_doctor_updated (doctor_id, last_updated)
 );
 
 -- Table 4: Medications
@@ -55,7 +64,8 @@ CREATE TABLE medications (
     strength VARCHAR(50),
     manufacturer VARCHAR(100),
     unit_price DECIMAL(10,2),
-    created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_medications_name (medication_name)
 );
 
 -- Table 5: Prescriptions (Work Request 2 - Inter-enterprise)
@@ -73,11 +83,22 @@ CREATE TABLE prescriptions (
     filled_date TIMESTAMP NULL,
     pharmacist_id INT NULL,
     pharmacist_notes TEXT,
+    claimed_by INT NULL,            -- pharmacist work queue claim
+    claimed_until TIMESTAMP NULL,   -- claim lease expiry
+    last_updated TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
     FOREIGN KEY (appointment_id) REFERENCES appointments(appointment_id),
     FOREIGN KEY (patient_id) REFERENCES patients(patient_id),
     FOREIGN KEY (doctor_id) REFERENCES users(user_id),
     FOREIGN KEY (medication_id) REFERENCES medications(medication_id),
-    FOREIGN KEY (pharmacist_id) REFERENCES users(user_id)
+    FOREIGN KEY (pharmacist_id) REFERENCES users(user_id),
+    CONSTRAINT fk_prescriptions_claimed_by FOREIGN KEY (claimed_by) REFERENCES users(user_id),
+    INDEX idx_prescriptions_updated (last_updated),
+    INDEX idx_prescriptions_seek (issued_date, prescription_id),
+    INDEX idx_prescriptions_status (status, issued_date, prescription_id),
+    INDEX idx_prescriptions_doctor (doctor_id, issued_date),
+    INDEX idx_prescriptions_patient (patient_id, issued_date),
+    INDEX idx_prescriptions_pharmacist (pharmacist_id, filled_date),
+    INDEX idx_prescriptions_medication (medication_id, issued_date)
 );
 
 -- Table 6: Pharmacy Inventory (Work Request 3)
@@ -106,9 +127,24 @@ CREATE TABLE restock_requests (
     approved_by INT NULL,
     approved_date TIMESTAMP NULL,
     manager_notes TEXT,
+    last_updated TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
     FOREIGN KEY (medication_id) REFERENCES medications(medication_id),
     FOREIGN KEY (requested_by) REFERENCES users(user_id),
-    FOREIGN KEY (approved_by) REFERENCES users(user_id)
+    FOREIGN KEY (approved_by) REFERENCES users(user_id),
+    INDEX idx_restock_updated (last_updated),
+    INDEX idx_restock_status (status, requested_date),
+    INDEX idx_restock_requester (requested_by, requested_date),
+    INDEX idx_restock_requested (requested_date),
+    INDEX idx_restock_medication (medication_id, requested_date)
+);
+
+-- Table 8: Deleted Rows (tombstones for incremental table refresh)
+CREATE TABLE deleted_rows (
+    table_name VARCHAR(40) NOT NULL,
+    row_id INT NOT NULL,
+    deleted_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    PRIMARY KEY (table_name, row_id),
+    INDEX idx_deleted_rows_since (table_name, deleted_at)
 );
 
 -- Insert sample users (all passwords are: "pass123")